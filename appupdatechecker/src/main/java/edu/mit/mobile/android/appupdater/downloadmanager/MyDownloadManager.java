@@ -22,10 +22,10 @@ import android.net.Uri;
 import com.liskovsoft.sharedutils.helpers.FileHelpers;
 import com.liskovsoft.sharedutils.helpers.MessageHelpers;
 import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
-import okhttp3.OkHttpClient.Builder;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
@@ -134,10 +134,10 @@ public final class MyDownloadManager {
             }
         };
 
-        Builder builder = new Builder()
-                .addNetworkInterceptor(intercept);
-
-        return OkHttpHelpers.setupBuilder(builder).build();
+        // derived client: shares connection pool and dispatcher with the rest of the app
+        return OkHttpManager.getInstance().getClient().newBuilder()
+                .addNetworkInterceptor(intercept)
+                .build();
     }
 
     private Uri streamToFile(InputStream is, Uri destination) {
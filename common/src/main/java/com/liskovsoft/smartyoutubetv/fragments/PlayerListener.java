@@ -4,4 +4,9 @@ import android.content.Intent;
 
 public interface PlayerListener {
     void onPlayerAction(Intent intent);
+
+    /**
+     * Current video is about to end: good time to resolve the next one
+     */
+    void onPlaybackNearEnd();
 }
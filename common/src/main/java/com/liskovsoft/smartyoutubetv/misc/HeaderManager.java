@@ -3,62 +3,85 @@ package com.liskovsoft.smartyoutubetv.misc;
 import android.content.Context;
 import com.liskovsoft.smartyoutubetv.prefs.CommonParams;
 import com.liskovsoft.smartyoutubetv.prefs.SmartPreferences;
+import okhttp3.Headers;
 
-import java.util.HashMap;
-
-public class HeaderManager {
+/**
+ * Headers of the app's own requests<br/>
+ * Immutable snapshot is shared by all requests. It's rebuilt only when auth data or language is changed,
+ * so requests don't touch the prefs and can't modify each other's headers.
+ */
+public class HeaderManager implements SmartPreferences.HeadersListener {
+    private static HeaderManager sInstance;
     private final Context mContext;
     private final SmartPreferences mPrefs;
-    private HashMap<String, String> mHeaders;
+    private volatile Headers mHeaders;
     // this values will be changed over time
     private static final String CLIENT_VERSION = "6.20180913";
     private static final String PAGE_CL = "260482851";
     private static final String PAGE_LABEL = "youtube.ytfe.desktop_20190729_3_RC0";
     private static final String AD_SIGNALS = "dt=1564772449513&flash=0&frm&u_tz=180&u_his=50&u_java=true&u_h=540&u_w=960&u_ah=540&u_aw=960&u_cd=32" +
             "&u_nplug&u_nmime&bc=1&bih=540&biw=960&brdim=0%2C0%2C0%2C0%2C960%2C0%2C960%2C540%2C960%2C540&vis=1&wgl=true&ca_type=image";
-    private String mRootUrl = "https://www.youtube.com/tv";
+    private final String mRootUrl;
+    private final String mUserAgent;
+
+    public static synchronized HeaderManager instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new HeaderManager(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
 
-    public HeaderManager(Context context) {
+    private HeaderManager(Context context) {
         mContext = context;
         mPrefs = SmartPreferences.instance(mContext);
         mRootUrl = CommonParams.instance(mContext).getMainPageUrl();
+        mUserAgent = new UserAgentManager().getUA();
 
-        initHeaders();
+        mHeaders = buildHeaders();
+        mPrefs.setHeadersListener(this);
     }
 
-    public HashMap<String, String> getHeaders() {
-        updateHeaders();
+    /**
+     * Don't cache: snapshot is replaced when auth data is changed
+     */
+    public Headers getHeaders() {
         return mHeaders;
     }
 
-    private void initHeaders() {
-        mHeaders = new HashMap<>();
+    @Override
+    public synchronized void onHeadersChanged() {
+        mHeaders = buildHeaders();
+    }
+
+    private Headers buildHeaders() {
+        Headers.Builder headers = new Headers.Builder();
 
-        mHeaders.put("Referer", mRootUrl);
-        mHeaders.put("User-Agent", new UserAgentManager().getUA());
-        mHeaders.put("Accept-Language", new LangUpdater(mContext).getPreferredBrowserLocale());
+        headers.add("Referer", mRootUrl);
+        headers.add("User-Agent", mUserAgent);
+        headers.add("Accept-Language", new LangUpdater(mContext).getPreferredBrowserLocale());
 
-        mHeaders.put("X-YouTube-Client-Name", "TVHTML5");
-        mHeaders.put("X-YouTube-Utc-Offset", "180");
+        headers.add("X-YouTube-Client-Name", "TVHTML5");
+        headers.add("X-YouTube-Utc-Offset", "180");
 
         // this headers will be changed over time
-        //mHeaders.put("X-YouTube-Client-Version", CLIENT_VERSION);
-        mHeaders.put("X-YouTube-Page-CL", PAGE_CL);
-        mHeaders.put("X-YouTube-Page-Label", PAGE_LABEL);
-        //mHeaders.put("X-YouTube-Ad-Signals", AD_SIGNALS);
-    }
+        //headers.add("X-YouTube-Client-Version", CLIENT_VERSION);
+        headers.add("X-YouTube-Page-CL", PAGE_CL);
+        headers.add("X-YouTube-Page-Label", PAGE_LABEL);
+        //headers.add("X-YouTube-Ad-Signals", AD_SIGNALS);
 
-    private void updateHeaders() {
-        String authorization = mPrefs.getAuthorizationHeader(); // DON'T CACHE: value changed over time
+        String authorization = mPrefs.getAuthorizationHeader();
 
         if (authorization != null) {
-            mHeaders.put("Authorization", authorization);
+            headers.add("Authorization", authorization);
         }
 
-        String cookies = mPrefs.getCookieHeader(); // DON'T CACHE: value changed over time
+        String cookies = mPrefs.getCookieHeader();
 
         if (cookies != null) {
-            mHeaders.put("Cookie", cookies);
+            headers.add("Cookie", cookies);
         }
+
+        return headers.build();
     }
 }
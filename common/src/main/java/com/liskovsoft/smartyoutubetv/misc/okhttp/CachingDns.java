@@ -0,0 +1,54 @@
+package com.liskovsoft.smartyoutubetv.misc.okhttp;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import okhttp3.Dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * System dns with in-memory cache<br/>
+ * Old Android versions don't cache lookups well, so every new connection could cost a dns round-trip.
+ * Expired entry is still used when network lookup fails (e.g. flaky wifi).
+ */
+class CachingDns implements Dns {
+    private static final String TAG = CachingDns.class.getSimpleName();
+    private static final long TTL_MS = 5 * 60 * 1000;
+    private final Map<String, Entry> mCache = new ConcurrentHashMap<>();
+
+    private static class Entry {
+        private final List<InetAddress> mAddresses;
+        private final long mExpireTimeMs;
+
+        private Entry(List<InetAddress> addresses, long expireTimeMs) {
+            mAddresses = addresses;
+            mExpireTimeMs = expireTimeMs;
+        }
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        Entry entry = mCache.get(hostname);
+        long now = System.currentTimeMillis();
+
+        if (entry != null && entry.mExpireTimeMs > now) {
+            return entry.mAddresses;
+        }
+
+        try {
+            List<InetAddress> addresses = SYSTEM.lookup(hostname);
+            mCache.put(hostname, new Entry(addresses, now + TTL_MS));
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (entry != null) {
+                Log.w(TAG, "Dns lookup failed. Using expired entry for: " + hostname);
+                return entry.mAddresses;
+            }
+
+            throw e;
+        }
+    }
+}
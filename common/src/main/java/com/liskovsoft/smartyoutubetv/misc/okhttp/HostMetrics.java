@@ -0,0 +1,141 @@
+package com.liskovsoft.smartyoutubetv.misc.okhttp;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host request counters, collected from OkHttp call events<br/>
+ * Hosts are grouped by the registrable domain: video shards (rN---sn-xxxx.googlevideo.com) change between videos,
+ * so the map stays small for the whole process lifetime.
+ * Latency is measured from the call start till the response headers (time to first byte).
+ */
+public class HostMetrics {
+    private final ConcurrentHashMap<String, Counters> mHosts = new ConcurrentHashMap<>();
+
+    public static class Counters {
+        private final AtomicLong mRequests = new AtomicLong();
+        private final AtomicLong mFailures = new AtomicLong();
+        private final AtomicLong mConnects = new AtomicLong();
+        private final AtomicLong mLatencyMs = new AtomicLong();
+        private final AtomicLong mBytes = new AtomicLong();
+
+        public long getRequests() {
+            return mRequests.get();
+        }
+
+        public long getFailures() {
+            return mFailures.get();
+        }
+
+        /**
+         * New connections (dns + tcp + tls). Less is better: rest of the requests reused pooled connections.
+         */
+        public long getConnects() {
+            return mConnects.get();
+        }
+
+        public long getAverageLatencyMs() {
+            long requests = mRequests.get();
+            return requests == 0 ? 0 : mLatencyMs.get() / requests;
+        }
+
+        public long getBytes() {
+            return mBytes.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests: %s, failures: %s, connects: %s, latency: %s ms, bytes: %s",
+                    getRequests(), getFailures(), getConnects(), getAverageLatencyMs(), getBytes());
+        }
+    }
+
+    /**
+     * Listener is created per call, so call state is kept without synchronization
+     */
+    private class CallListener extends EventListener {
+        private final Counters mCounters;
+        private long mStartMs;
+
+        private CallListener(Counters counters) {
+            mCounters = counters;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            mStartMs = System.currentTimeMillis();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            mCounters.mConnects.incrementAndGet();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            mCounters.mRequests.incrementAndGet();
+            mCounters.mLatencyMs.addAndGet(System.currentTimeMillis() - mStartMs);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            mCounters.mBytes.addAndGet(byteCount);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            mCounters.mFailures.incrementAndGet();
+        }
+    }
+
+    EventListener.Factory createListenerFactory() {
+        return call -> new CallListener(getCounters(getDomain(call.request().url())));
+    }
+
+    /**
+     * @return e.g. googlevideo.com, or the host itself for ip addresses
+     */
+    private static String getDomain(HttpUrl url) {
+        String domain = url.topPrivateDomain();
+
+        return domain != null ? domain : url.host();
+    }
+
+    private Counters getCounters(String domain) {
+        Counters counters = mHosts.get(domain);
+
+        if (counters == null) {
+            counters = new Counters();
+            Counters prev = mHosts.putIfAbsent(domain, counters);
+            counters = prev != null ? prev : counters;
+        }
+
+        return counters;
+    }
+
+    /**
+     * @return snapshot of the counters by domain
+     */
+    public Map<String, Counters> getHosts() {
+        return new HashMap<>(mHosts);
+    }
+
+    public Counters get(String domain) {
+        return mHosts.get(domain);
+    }
+
+    @Override
+    public String toString() {
+        return mHosts.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.liskovsoft.smartyoutubetv.misc.okhttp;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single OkHttp client for the whole app: WebView interceptors, player data source, trackers and updater<br/>
+ * Shared connection pool lets requests to the same host reuse connections (and HTTP/2 streams) instead of new TLS handshakes.
+ * Background requests run on the bounded dispatcher instead of the new thread per request.
+ */
+public class OkHttpManager {
+    private static final String TAG = OkHttpManager.class.getSimpleName();
+    private static final int MAX_REQUESTS = 16;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final int MAX_IDLE_CONNECTIONS = 10;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final String[] WARM_UP_URLS = {
+            "https://www.youtube.com/",
+            "https://redirector.googlevideo.com/"
+    };
+    private static volatile OkHttpManager sInstance;
+    private final OkHttpClient mClient;
+    private final CachingDns mDns;
+    private final HostMetrics mMetrics;
+
+    private OkHttpManager() {
+        mDns = new CachingDns();
+        mMetrics = new HostMetrics();
+        mClient = createClient();
+    }
+
+    public static OkHttpManager getInstance() {
+        if (sInstance == null) {
+            synchronized (OkHttpManager.class) {
+                if (sInstance == null) {
+                    sInstance = new OkHttpManager();
+                }
+            }
+        }
+
+        return sInstance;
+    }
+
+    private OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher(createExecutor());
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dns(mDns)
+                .eventListenerFactory(mMetrics.createListenerFactory());
+
+        // timeouts and tls fixes for old devices
+        return OkHttpHelpers.setupBuilder(builder).build();
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "OkHttp Dispatcher " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Use {@link OkHttpClient#newBuilder()} to customize the client. Derived client shares pool, dispatcher and dns cache.
+     */
+    public OkHttpClient getClient() {
+        return mClient;
+    }
+
+    public HostMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Resolves main hosts and opens connections in background, so the first real request doesn't wait for the handshake
+     */
+    public void warmUp() {
+        for (String url : WARM_UP_URLS) {
+            Request request = new Request.Builder().url(url).head().build();
+            mClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    Log.d(TAG, "Warm up failed: " + url + ", " + e.getMessage());
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                }
+            });
+        }
+    }
+
+    public Response doGetRequest(String url) {
+        return doGetRequest(url, null);
+    }
+
+    public Response doGetRequest(String url, Headers headers) {
+        return execute(createRequest(url, headers).build());
+    }
+
+    public Response doPostRequest(String url, Headers headers, String body, String contentType) {
+        return execute(createRequest(url, headers).post(RequestBody.create(MediaType.parse(contentType), body)).build());
+    }
+
+    /**
+     * Fire and forget request on the shared dispatcher (e.g. connection warm up)
+     */
+    public void doGetRequestAsync(String url, Headers headers) {
+        enqueue(createRequest(url, headers).build());
+    }
+
+    /**
+     * Request on the shared dispatcher, result is passed to the callback
+     * @return call that could be cancelled
+     */
+    public Call doGetRequestAsync(String url, Headers headers, Callback callback) {
+        Call call = mClient.newCall(createRequest(url, headers).build());
+        call.enqueue(callback);
+        return call;
+    }
+
+    /**
+     * Request on the shared dispatcher, result is passed to the callback
+     * @return call that could be cancelled
+     */
+    public Call doPostRequestAsync(String url, Headers headers, String body, String contentType, Callback callback) {
+        Call call = mClient.newCall(createRequest(url, headers).post(RequestBody.create(MediaType.parse(contentType), body)).build());
+        call.enqueue(callback);
+        return call;
+    }
+
+    /**
+     * Fire and forget request on the shared dispatcher (e.g. like/subscribe actions)
+     */
+    public void doPostRequestAsync(String url, Headers headers, String body, String contentType) {
+        enqueue(createRequest(url, headers).post(RequestBody.create(MediaType.parse(contentType), body)).build());
+    }
+
+    /**
+     * Headers are immutable, so the same instance is shared between requests without copying
+     */
+    private static Request.Builder createRequest(String url, Headers headers) {
+        Request.Builder builder = new Request.Builder().url(url);
+
+        if (headers != null) {
+            builder.headers(headers);
+        }
+
+        return builder;
+    }
+
+    /**
+     * @return response or null on network error
+     */
+    private Response execute(Request request) {
+        try {
+            return mClient.newCall(request).execute();
+        } catch (IOException e) {
+            Log.e(TAG, "Request failed: " + request.url() + ", " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    private void enqueue(Request request) {
+        mClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.e(TAG, "Request failed: " + request.url() + ", " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                Log.d(TAG, "Response: " + response);
+                response.close();
+            }
+        });
+    }
+}
@@ -3,6 +3,7 @@ package com.liskovsoft.smartyoutubetv.prefs;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
+import android.text.TextUtils;
 import com.liskovsoft.sharedutils.mylogger.Log;
 
 public final class SmartPreferences extends SmartPreferencesBase {
@@ -51,6 +52,14 @@ public final class SmartPreferences extends SmartPreferencesBase {
     private String mCookieHeader;
     private String mDefaultDisplayMode;
     private String mCurrentDisplayMode;
+    private HeadersListener mHeadersListener;
+
+    /**
+     * Values that are sent with the app's requests are changed
+     */
+    public interface HeadersListener {
+        void onHeadersChanged();
+    }
 
     public static SmartPreferences instance(Context ctx) {
         if (sInstance == null)
@@ -91,6 +100,7 @@ public final class SmartPreferences extends SmartPreferencesBase {
 
     public void setPreferredLanguage(String name) {
         putString(BOOTSTRAP_SELECTED_LANGUAGE, name);
+        notifyHeadersChanged();
     }
 
     public String getPreferredLanguage() {
@@ -265,7 +275,12 @@ public final class SmartPreferences extends SmartPreferencesBase {
     }
 
     public void setAuthorizationHeader(String header) {
+        if (TextUtils.equals(mAuthorizationHeader, header)) {
+            return;
+        }
+
         mAuthorizationHeader = header;
+        notifyHeadersChanged();
     }
 
     public String getAuthorizationHeader() {
@@ -273,7 +288,22 @@ public final class SmartPreferences extends SmartPreferencesBase {
     }
 
     public void setCookieHeader(String header) {
+        if (TextUtils.equals(mCookieHeader, header)) {
+            return;
+        }
+
         mCookieHeader = header;
+        notifyHeadersChanged();
+    }
+
+    public void setHeadersListener(HeadersListener listener) {
+        mHeadersListener = listener;
+    }
+
+    private void notifyHeadersChanged() {
+        if (mHeadersListener != null) {
+            mHeadersListener.onHeadersChanged();
+        }
     }
 
     public String getCookieHeader() {
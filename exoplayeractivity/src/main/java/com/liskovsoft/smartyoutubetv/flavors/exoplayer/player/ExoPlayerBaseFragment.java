@@ -8,6 +8,7 @@ import android.view.View;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.SimpleExoPlayer;
@@ -49,6 +50,7 @@ import java.util.Locale;
  */
 public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
     private static final String TAG = ExoPlayerBaseFragment.class.getName();
+    private static final long NEAR_END_MS = 60_000; // enough to resolve the next video
 
     public static final String BUTTON_FAVORITES = "button_favorites";
     public static final String BUTTON_USER_PAGE = "button_user_page";
@@ -73,11 +75,13 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
 
     private int mInterfaceVisibilityState = View.INVISIBLE;
     private boolean mIsDurationSet;
+    private boolean mIsNearEndScheduled;
 
     protected PlayerButtonsManager mButtonsManager;
     private PlayerInitializer mPlayerInitializer;
     private MyDebugViewHelper mDebugViewHelper;
     private PlayerStateManager mStateManager;
+    private ExoPlayerManager mPreviewManager;
     private VideoZoomManager mVideoZoomManager;
     private List<PlayerEventListener> mListeners;
 
@@ -107,7 +111,7 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
         super.initializePlayer();
 
         if (needNewPlayer) {
-            mDebugViewHelper = new MyDebugViewHelper(mPlayer, mDebugViewGroup, getActivity());
+            mDebugViewHelper = new MyDebugViewHelper(mPlayer, mLoadControl, mQoeCollector, mDebugViewGroup, getActivity());
 
             for (PlayerEventListener listener : mListeners) {
                 listener.onPlayerCreated();
@@ -127,13 +131,13 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
         PreviewTimeBar previewTimeBar = mSimpleExoPlayerView.findViewById(R.id.exo_progress);
         String spec = getIntent().getStringExtra(ExoPlayerFragment.STORYBOARD_SPEC);
 
-        previewTimeBar.setPreviewLoader(
-                new ExoPlayerManager(
-                        previewTimeBar,
-                        getView().findViewById(R.id.imageView),
-                        new YouTubeStoryParser(spec).extractStory()
-                )
+        mPreviewManager = new ExoPlayerManager(
+                previewTimeBar,
+                getView().findViewById(R.id.imageView),
+                new YouTubeStoryParser(spec).extractStory()
         );
+
+        previewTimeBar.setPreviewLoader(mPreviewManager);
     }
 
     protected void initializeTrackSelector() {
@@ -362,7 +366,7 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
         initializePlayer();
     }
 
-    private boolean isStateIntent(Intent intent) {
+    protected boolean isStateIntent(Intent intent) {
         return intent.getAction() == null;
     }
 
@@ -389,13 +393,24 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
             mDebugViewHelper.stop();
         }
 
+        if (mPreviewManager != null) {
+            mPreviewManager.release();
+        }
+
+        if (mQoeCollector != null) {
+            mQoeCollector.endSession();
+        }
+
         mPlayer = null;
         mStateManager = null; // force restore state
         mDebugViewHelper = null;
+        mPreviewManager = null;
         mTrackSelector = null;
         mTrackSelectionHelper = null;
         mEventLogger = null;
+        mQoeCollector = null;
         mIsDurationSet = false;
+        mIsNearEndScheduled = false;
         mRetryCount = 0;
     }
 
@@ -423,6 +438,8 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
 
             mPlayerInitializer.initTimeBar(); // set proper time increments
             mPlayerInitializer.initTitleQualityInfo();
+
+            scheduleNearEndEvent();
         }
 
         if (mSimpleExoPlayerView != null) {
@@ -434,6 +451,26 @@ public abstract class ExoPlayerBaseFragment extends PlayerCoreFragment {
         super.onPlayerStateChanged(playWhenReady, playbackState);
     }
 
+    /**
+     * Message is delivered by the player itself when playback reaches the position (pauses and seeks are respected)
+     */
+    private void scheduleNearEndEvent() {
+        if (mIsNearEndScheduled || mPlayer == null || mPlayer.isCurrentWindowDynamic() || mPlayer.getDuration() == C.TIME_UNSET) {
+            return;
+        }
+
+        mIsNearEndScheduled = true;
+
+        mPlayer.createMessage((messageType, payload) -> {
+            if (getActivity() instanceof PlayerListener) {
+                ((PlayerListener) getActivity()).onPlaybackNearEnd();
+            }
+        })
+                .setPosition(Math.max(0, mPlayer.getDuration() - NEAR_END_MS))
+                .setHandler(new Handler())
+                .send();
+    }
+
     private void measureLoadTime(int playbackState) {
         if (BuildConfig.DEBUG && (playbackState == Player.STATE_READY) && (mExtractStartMS != 0)) {
             long extractedWithin = System.currentTimeMillis() - mExtractStartMS;
@@ -8,6 +8,7 @@ import android.view.MotionEvent;
 import android.view.View;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.util.Util;
+import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.autoframerate.AutoFrameRateManager;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.autoframerate.AutoFrameRateManagerAlt;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.keyhandler.KeyHandler;
@@ -156,7 +157,11 @@ public class ExoPlayerFragment extends ExoPlayerBaseFragment {
     @Override
     public void openVideo(Intent intent) {
         if (!mIsAttached) {
-            mPendingIntent = intent;
+            if (mPendingIntent != null && intent != null && isStateIntent(intent)) {
+                Helpers.mergeIntents(mPendingIntent, intent); // late metadata: don't lose pending video
+            } else {
+                mPendingIntent = intent;
+            }
             return;
         }
 
@@ -16,7 +16,6 @@ import android.widget.LinearLayout;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import com.google.android.exoplayer2.C;
-import com.google.android.exoplayer2.DefaultLoadControl;
 import com.google.android.exoplayer2.DefaultRenderersFactory;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.ExoPlayerFactory;
@@ -41,7 +40,6 @@ import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.source.dash.DashMediaSource;
 import com.google.android.exoplayer2.source.dash.DefaultDashChunkSource;
 import com.google.android.exoplayer2.source.dash.manifest.DashManifest;
-import com.google.android.exoplayer2.source.dash.manifest.DashManifestParser;
 import com.google.android.exoplayer2.source.hls.HlsMediaSource;
 import com.google.android.exoplayer2.source.smoothstreaming.DefaultSsChunkSource;
 import com.google.android.exoplayer2.source.smoothstreaming.SsMediaSource;
@@ -51,24 +49,22 @@ import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 import com.google.android.exoplayer2.ui.PlayerControlView;
 import com.google.android.exoplayer2.ui.PlayerView;
 import com.google.android.exoplayer2.upstream.DataSource;
-import com.google.android.exoplayer2.upstream.DefaultAllocator;
-import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.exoplayer2.util.Util;
 import com.liskovsoft.exoplayeractivity.BuildConfig;
 import com.liskovsoft.exoplayeractivity.R;
-import com.liskovsoft.sharedutils.helpers.FileHelpers;
 import com.liskovsoft.sharedutils.helpers.MessageHelpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers.ExtendedDataHolder;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers.PlayerUtil;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.AdaptiveLoadControl;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.NetworkBandwidthMeter;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.PlaybackRequest;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.PlayerInterface;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe.QoeCollector;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.subalignment.MyDefaultRenderersFactory;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.widgets.TextToggleButton;
 import com.liskovsoft.smartyoutubetv.prefs.SmartPreferences;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
@@ -76,7 +72,6 @@ import java.util.UUID;
 
 public abstract class PlayerCoreFragment extends Fragment implements OnClickListener, Player.EventListener, PlayerControlView.VisibilityListener, PlayerInterface {
     private static final String TAG = PlayerCoreFragment.class.getName();
-    private static final DefaultBandwidthMeter BANDWIDTH_METER = new DefaultBandwidthMeter();
     private static final CookieManager DEFAULT_COOKIE_MANAGER;
     
     public static final String DRM_SCHEME_UUID_EXTRA = "drm_scheme_uuid";
@@ -85,13 +80,10 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
     public static final String PREFER_EXTENSION_DECODERS = "prefer_extension_decoders";
 
     public static final String ACTION_VIEW = "com.google.android.exoplayer.demo.action.VIEW";
-    public static final String EXTENSION_EXTRA = "extension";
-
-    public static final String ACTION_VIEW_LIST = "com.google.android.exoplayer.demo.action.VIEW_LIST";
-    public static final String URI_LIST_EXTRA = "uri_list";
-    public static final String EXTENSION_LIST_EXTRA = "extension_list";
-
-    public static final String MPD_CONTENT_EXTRA = "mpd_content";
+    /**
+     * Key of the {@link PlaybackRequest}
+     */
+    public static final String PLAYBACK_REQUEST_EXTRA = "playback_request";
     private static final String COMBINED_URL_DELIMITER = "------";
 
     public static final int RENDERER_INDEX_VIDEO = 0;
@@ -100,6 +92,9 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
     private static final int UI_SHOW_TIMEOUT_MS = 2_000;
 
     protected EventLogger mEventLogger;
+    protected QoeCollector mQoeCollector;
+    protected AdaptiveLoadControl mLoadControl;
+    private NetworkBandwidthMeter mBandwidthMeter;
 
     protected SimpleExoPlayer mPlayer;
     protected DefaultTrackSelector mTrackSelector;
@@ -152,7 +147,7 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
 
         // shouldAutoPlay = true;
         clearResumePosition();
-        mMediaDataSourceFactory = buildDataSourceFactory(true);
+        mBandwidthMeter = NetworkBandwidthMeter.instance(getActivity());
         mMainHandler = new Handler();
 
         if (CookieHandler.getDefault() != DEFAULT_COOKIE_MANAGER) {
@@ -198,7 +193,10 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
 
             mLastSeenTrackGroupArray = null;
 
-            mPlayer = ExoPlayerFactory.newSimpleInstance(getActivity(), getRenderersFactory(), mTrackSelector, getLoadControl(), getDrmManager(intent), BANDWIDTH_METER);
+            mBandwidthMeter.updateNetwork();
+            mLoadControl = new AdaptiveLoadControl(getActivity(), mBandwidthMeter);
+
+            mPlayer = ExoPlayerFactory.newSimpleInstance(getActivity(), getRenderersFactory(), mTrackSelector, mLoadControl, getDrmManager(intent), mBandwidthMeter);
 
             mPlayer.addListener(this);
             mPlayer.addListener(mEventLogger);
@@ -206,6 +204,9 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
             mPlayer.setVideoDebugListener(mEventLogger);
             mPlayer.setMetadataOutput(mEventLogger);
 
+            mQoeCollector = new QoeCollector();
+            mQoeCollector.attach(mPlayer);
+
             mSimpleExoPlayerView.setPlayer(mPlayer);
             mPlayer.setPlayWhenReady(false); // give a chance to switch/restore track before play
         }
@@ -222,7 +223,8 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
             if (haveResumePosition) {
                 mPlayer.seekTo(mResumeWindow, mResumePosition);
             }
-            
+
+            mQoeCollector.onPrepare(intent);
             mPlayer.prepare(mediaSource, !haveResumePosition, !haveResumePosition);
 
             mNeedRetrySource = false;
@@ -236,85 +238,56 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
         }
     }
 
+    /**
+     * Manifest is already parsed by the request, so nothing heavy is done here
+     */
     private MediaSource extractMediaSource(Intent intent) {
-        Uri[] uris = getUris(intent);
-        String[] extensions = getExtensions(intent);
+        PlaybackRequest request = getRequest(intent);
 
-        if (uris == null) {
+        if (request == null) {
             return null;
         }
 
-        MediaSource[] mediaSources = new MediaSource[uris.length];
+        // cache keys of the segments are bound to the video
+        mMediaDataSourceFactory = PlayerUtil.buildMediaDataSourceFactory(getContext(), mBandwidthMeter, intent.getStringExtra(ExoPlayerFragment.VIDEO_ID));
 
-        for (int i = 0; i < uris.length; i++) {
+        MediaSource[] mediaSources = new MediaSource[request.size()];
+
+        for (int i = 0; i < request.size(); i++) {
+            Uri uri = request.getUri(i);
             // NOTE: supply audio and video tracks in one field
-            boolean isCombinedUri = uris[i].toString().contains(COMBINED_URL_DELIMITER);
-            boolean isSimpleMpdExtra = intent.hasExtra(MPD_CONTENT_EXTRA);
-            boolean isExtendedMpdExtra = ExtendedDataHolder.getInstance().hasExtra(MPD_CONTENT_EXTRA);
-
-            if (isSimpleMpdExtra) { // mpd content
-                String mpdExtra = intent.getStringExtra(MPD_CONTENT_EXTRA);
-                mediaSources[i] = buildMPDMediaSource(uris[i], mpdExtra);
-            } else if (isExtendedMpdExtra) { // mpd content stored externally?
-                String mpdExtra = (String) ExtendedDataHolder.getInstance().getExtra(MPD_CONTENT_EXTRA);
-                mediaSources[i] = buildMPDMediaSource(uris[i], mpdExtra);
+            boolean isCombinedUri = uri.toString().contains(COMBINED_URL_DELIMITER);
+
+            if (request.getManifest() != null) { // mpd content passed in-process
+                mediaSources[i] = buildMPDMediaSource(request.getManifest());
             } else if (isCombinedUri) { // video and audio in one url
-                String[] split = uris[i].toString().split(COMBINED_URL_DELIMITER);
+                String[] split = uri.toString().split(COMBINED_URL_DELIMITER);
                 mediaSources[i] = new MergingMediaSource(
                         buildMediaSource(Uri.parse(split[0]), null),
                         buildMediaSource(Uri.parse(split[1]), null)
                 );
             } else { // url only
-                mediaSources[i] = buildMediaSource(uris[i], extensions[i]);
+                mediaSources[i] = buildMediaSource(uri, request.getExtension(i));
             }
         }
 
         return mediaSources.length == 1 ? mediaSources[0] : new ConcatenatingMediaSource(mediaSources); // or playlist
     }
 
-    private Uri[] getUris(Intent intent) {
-        String action = intent.getAction();
-        Uri[] uris = null;
+    private PlaybackRequest getRequest(Intent intent) {
+        PlaybackRequest request = PlaybackRequest.from(intent);
 
-        if (ACTION_VIEW.equals(action)) {
-            uris = new Uri[]{intent.getData()};
-        } else if (ACTION_VIEW_LIST.equals(action)) {
-            String[] uriStrings = intent.getStringArrayExtra(URI_LIST_EXTRA);
-            uris = new Uri[uriStrings.length];
-
-            for (int i = 0; i < uriStrings.length; i++) {
-                uris[i] = Uri.parse(uriStrings[i]);
-            }
-        } else {
-            showToast(getString(R.string.unexpected_intent_action, action));
+        if (request == null) {
+            showToast(getString(R.string.unexpected_intent_action, intent.getAction()));
+            return null;
         }
 
-        if (uris != null && Util.maybeRequestReadExternalStoragePermission(getActivity(), uris)) {
+        if (Util.maybeRequestReadExternalStoragePermission(getActivity(), request.getUris())) {
             // The player will be reinitialized if the permission is granted.
             return null;
         }
 
-        return uris;
-    }
-
-    private String[] getExtensions(Intent intent) {
-        String action = intent.getAction();
-        String[] extensions = null;
-
-        if (ACTION_VIEW.equals(action)) {
-            extensions = new String[]{intent.getStringExtra(EXTENSION_EXTRA)};
-        } else if (ACTION_VIEW_LIST.equals(action)) {
-            String[] uriStrings = intent.getStringArrayExtra(URI_LIST_EXTRA);
-            extensions = intent.getStringArrayExtra(EXTENSION_LIST_EXTRA);
-
-            if (extensions == null) {
-                extensions = new String[uriStrings.length];
-            }
-        } else {
-            showToast(getString(R.string.unexpected_intent_action, action));
-        }
-
-        return extensions;
+        return request;
     }
 
     private RenderersFactory getRenderersFactory() {
@@ -323,21 +296,6 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
         return factory;
     }
 
-    /**
-     * Increase player's min/max buffer size to 60 secs
-     * @return load control
-     */
-    private DefaultLoadControl getLoadControl() {
-        int minBufferMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS * 4;
-        int maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS * 2;
-        int bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
-        int bufferForPlaybackAfterRebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
-        return new DefaultLoadControl.Builder()
-                .setAllocator(new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE))
-                .setBufferDurationsMs(minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs)
-                .createDefaultLoadControl();
-    }
-
     private DrmSessionManager<FrameworkMediaCrypto> getDrmManager(Intent intent) {
         if (intent == null) {
             return null;
@@ -432,69 +390,36 @@ public abstract class PlayerCoreFragment extends Fragment implements OnClickList
     /**
      * Returns a new DataSource factory.
      *
-     * @param useBandwidthMeter Whether to set {@link #BANDWIDTH_METER} as a listener to the new
+     * @param useBandwidthMeter Whether to set {@link #mBandwidthMeter} as a listener to the new
      *                          DataSource factory.
      * @return A new DataSource factory.
      */
     private DataSource.Factory buildDataSourceFactory(boolean useBandwidthMeter) {
-        return PlayerUtil.buildDataSourceFactory(this.getContext(), useBandwidthMeter ? BANDWIDTH_METER : null);
+        return PlayerUtil.buildDataSourceFactory(this.getContext(), useBandwidthMeter ? mBandwidthMeter : null);
     }
 
     /**
      * Returns a new HttpDataSource factory.
      *
-     * @param useBandwidthMeter Whether to set {@link #BANDWIDTH_METER} as a listener to the new
+     * @param useBandwidthMeter Whether to set {@link #mBandwidthMeter} as a listener to the new
      *                          DataSource factory.
      * @return A new HttpDataSource factory.
      */
     private HttpDataSource.Factory buildHttpDataSourceFactory(boolean useBandwidthMeter) {
-        return PlayerUtil.buildHttpDataSourceFactory(this.getContext(), useBandwidthMeter ? BANDWIDTH_METER : null);
+        return PlayerUtil.buildHttpDataSourceFactory(this.getContext(), useBandwidthMeter ? mBandwidthMeter : null);
     }
 
-    private MediaSource buildMPDMediaSource(Uri uri, InputStream mpdContent) {
+    private MediaSource buildMPDMediaSource(DashManifest manifest) {
         // Are you using FrameworkSampleSource or ExtractorSampleSource when you build your player?
         DashMediaSource dashSource = new DashMediaSource.Factory(
                 new DefaultDashChunkSource.Factory(mMediaDataSourceFactory),
                 null
             )
-            .createMediaSource(getManifest(uri, mpdContent));
+            .createMediaSource(manifest);
         dashSource.addEventListener(mMainHandler, mEventLogger);
         return dashSource;
     }
 
-    private MediaSource buildMPDMediaSource(Uri uri, String mpdContent) {
-        // Are you using FrameworkSampleSource or ExtractorSampleSource when you build your player?
-        DashMediaSource dashSource = new DashMediaSource.Factory(
-                new DefaultDashChunkSource.Factory(mMediaDataSourceFactory),
-                null
-            )
-            .createMediaSource(getManifest(uri, mpdContent));
-        dashSource.addEventListener(mMainHandler, mEventLogger);
-        return dashSource;
-    }
-
-    private DashManifest getManifest(Uri uri, InputStream mpdContent) {
-        DashManifestParser parser = new DashManifestParser();
-        DashManifest result;
-        try {
-            result = parser.parse(uri, mpdContent);
-        } catch (IOException e) {
-            throw new IllegalStateException("Malformed mpd file:\n" + mpdContent, e);
-        }
-        return result;
-    }
-
-    private DashManifest getManifest(Uri uri, String mpdContent) {
-        DashManifestParser parser = new DashManifestParser();
-        DashManifest result;
-        try {
-            result = parser.parse(uri, FileHelpers.toStream(mpdContent));
-        } catch (IOException e) {
-            throw new IllegalStateException("Malformed mpd file:\n" + mpdContent, e);
-        }
-        return result;
-    }
-
     protected void clearResumePosition() {
         mResumeWindow = C.INDEX_UNSET;
         mResumePosition = C.TIME_UNSET;
@@ -1,24 +1,37 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers;
 
 import android.content.Context;
+import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSourceFactory;
 import com.google.android.exoplayer2.upstream.DataSource;
-import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
-import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.Util;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.ExoPreferences;
 import com.liskovsoft.smartyoutubetv.misc.UserAgentManager;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 
 public class ApplicationUtil {
     private static final String COMPONENT_NAME = "ExoPlayer";
     private static final UserAgentManager USER_AGENT_MANAGER = new UserAgentManager();
 
-    public static DataSource.Factory buildDataSourceFactory(Context context, DefaultBandwidthMeter bandwidthMeter) {
+    public static DataSource.Factory buildDataSourceFactory(Context context, TransferListener bandwidthMeter) {
         return new DefaultDataSourceFactory(context, bandwidthMeter, buildHttpDataSourceFactory(context, bandwidthMeter));
     }
 
-    public static HttpDataSource.Factory buildHttpDataSourceFactory(Context context, DefaultBandwidthMeter bandwidthMeter) {
+    /**
+     * Same as {@link #buildDataSourceFactory} but media segments are cached on disk (unless disabled by user)
+     * @param videoId YouTube video id of the segments (optional)
+     */
+    public static DataSource.Factory buildMediaDataSourceFactory(Context context, TransferListener bandwidthMeter, String videoId) {
+        DataSource.Factory factory = buildDataSourceFactory(context, bandwidthMeter);
+
+        return ExoPreferences.instance(context).getMediaCacheEnabled() ? MediaCache.wrap(context, factory, videoId) : factory;
+    }
+
+    public static HttpDataSource.Factory buildHttpDataSourceFactory(Context context, TransferListener bandwidthMeter) {
         //String userAgent = Util.getUserAgent(context, COMPONENT_NAME);
-        return new DefaultHttpDataSourceFactory(USER_AGENT_MANAGER.getUA(), bandwidthMeter);
+        // same connections as the rest of the app: segments don't pay for the new tls handshake
+        return new OkHttpDataSourceFactory(OkHttpManager.getInstance().getClient(), USER_AGENT_MANAGER.getUA(), bandwidthMeter);
     }
 }
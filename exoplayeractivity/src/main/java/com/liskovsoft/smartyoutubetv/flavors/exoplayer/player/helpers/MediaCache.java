@@ -0,0 +1,140 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk LRU cache of the media segments<br/>
+ * Signature, expiration and the per-response <em>id</em> params make every googlevideo url unique,
+ * so the cache key is built from the YouTube video id and the stable params only (itag, xtags, range, sq).
+ * Rewind, replay and the same video opened again read the same ranges from the disk.
+ */
+public final class MediaCache {
+    private static final String TAG = MediaCache.class.getSimpleName();
+    private static final String CACHE_DIR = "media";
+    private static final long MIN_CACHE_BYTES = 32 * 1024 * 1024;
+    private static final long MAX_CACHE_BYTES = 512 * 1024 * 1024;
+    private static final String[] KEY_PARAMS = {"itag", "xtags", "range", "sq"}; // xtags: audio tracks of the same itag
+    private static Cache sCache;
+
+    private MediaCache() {
+    }
+
+    /**
+     * Only one cache per folder is allowed, so it's shared by all players
+     */
+    public static synchronized Cache getCache(Context context) {
+        if (sCache == null) {
+            File cacheDir = context.getApplicationContext().getCacheDir();
+            long maxBytes = Math.max(MIN_CACHE_BYTES, Math.min(MAX_CACHE_BYTES, cacheDir.getUsableSpace() / 4));
+
+            Log.d(TAG, "Media cache size: " + maxBytes);
+
+            sCache = new SimpleCache(new File(cacheDir, CACHE_DIR), new LeastRecentlyUsedCacheEvictor(maxBytes));
+        }
+
+        return sCache;
+    }
+
+    /**
+     * Requests of unknown length (progressive and hls) go straight to the network
+     * @param videoId YouTube video id of the segments, whole urls are used as keys if it's null
+     */
+    public static DataSource.Factory wrap(Context context, DataSource.Factory upstreamFactory, String videoId) {
+        CacheDataSourceFactory cacheFactory = new CacheDataSourceFactory(getCache(context), upstreamFactory,
+                CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR | CacheDataSource.FLAG_IGNORE_CACHE_FOR_UNSET_LENGTH_REQUESTS);
+
+        return () -> new KeyedDataSource(cacheFactory.createDataSource(), videoId);
+    }
+
+    /**
+     * @return stable key or null if video id is unknown or url doesn't contain itag (the whole url is used then)
+     */
+    @Nullable
+    static String buildKey(Uri uri, String videoId) {
+        if (videoId == null || uri == null || !uri.isHierarchical() || uri.getQueryParameter("itag") == null) {
+            return null;
+        }
+
+        // no host: same video could be served by different mirrors
+        StringBuilder key = new StringBuilder(videoId);
+        char delimiter = '?';
+
+        for (String param : KEY_PARAMS) {
+            String value = uri.getQueryParameter(param);
+
+            if (value != null) {
+                key.append(delimiter).append(param).append('=').append(value);
+                delimiter = '&';
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Sets normalized cache key to every request
+     */
+    private static class KeyedDataSource implements DataSource {
+        private final DataSource mDataSource;
+        private final String mVideoId;
+
+        private KeyedDataSource(DataSource dataSource, String videoId) {
+            mDataSource = dataSource;
+            mVideoId = videoId;
+        }
+
+        @Override
+        public void addTransferListener(TransferListener transferListener) {
+            mDataSource.addTransferListener(transferListener);
+        }
+
+        @Override
+        public long open(DataSpec dataSpec) throws IOException {
+            String key = dataSpec.key == null ? buildKey(dataSpec.uri, mVideoId) : null;
+
+            if (key != null) {
+                dataSpec = new DataSpec(dataSpec.uri, dataSpec.postBody, dataSpec.absoluteStreamPosition, dataSpec.position,
+                        dataSpec.length, key, dataSpec.flags);
+            }
+
+            return mDataSource.open(dataSpec);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int readLength) throws IOException {
+            return mDataSource.read(buffer, offset, readLength);
+        }
+
+        @Nullable
+        @Override
+        public Uri getUri() {
+            return mDataSource.getUri();
+        }
+
+        @Override
+        public Map<String, List<String>> getResponseHeaders() {
+            return mDataSource.getResponseHeaders();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build.VERSION;
+import android.os.SystemClock;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+import com.google.android.exoplayer2.util.Util;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+/**
+ * Buffer policy that fits the device and the network<br/>
+ * Byte budget is a share of the app's heap (memory class), so low-end sticks never buffer more than they could hold.
+ * Buffer durations depend on the measured bandwidth vs. the selected bitrate:
+ * weak network buffers more before the start and after the stall, fast one starts sooner.
+ * Every rebuffer raises the targets for the rest of the session.
+ */
+public class AdaptiveLoadControl implements LoadControl {
+    private static final String TAG = AdaptiveLoadControl.class.getSimpleName();
+    public static final String PRESET_AUTO = "auto";
+    public static final String PRESET_LOW = "low";
+    public static final String PRESET_HIGH = "high";
+    private static final int MB = 1024 * 1024;
+    private static final int MIN_TARGET_BYTES = 4 * MB;
+    private static final int MAX_REBUFFER_LEVEL = 3;
+    private static final long UPDATE_INTERVAL_MS = 10_000;
+    private static final float WEAK_NETWORK_HEADROOM = 1.5f;
+    private static final float FAST_NETWORK_HEADROOM = 4f;
+    private final ExoPreferences mPrefs;
+    private final BandwidthMeter mBandwidthMeter;
+    private final DefaultAllocator mAllocator;
+    private final String mPreset;
+    private final int mMemoryBudgetBytes;
+    private volatile int mTargetBufferBytes;
+    private volatile long mMinBufferUs;
+    private volatile long mMaxBufferUs;
+    private volatile long mBufferForPlaybackUs;
+    private volatile long mBufferForPlaybackAfterRebufferUs;
+    private volatile long mBandwidth;
+    private volatile int mSelectedBitrate;
+    private volatile int mRebufferLevel;
+    private boolean mIsLoading;
+    private boolean mIsRebuffering;
+    private long mLastUpdateMs;
+
+    public AdaptiveLoadControl(Context context, BandwidthMeter bandwidthMeter) {
+        mPrefs = ExoPreferences.instance(context);
+        mBandwidthMeter = bandwidthMeter;
+        mAllocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+        mPreset = mPrefs.getBufferPreset();
+        mMemoryBudgetBytes = calculateMemoryBudget(context, mPreset);
+
+        update();
+    }
+
+    private static int calculateMemoryBudget(Context context, String preset) {
+        ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = manager == null ? 64 : manager.getMemoryClass();
+
+        if (VERSION.SDK_INT >= 19 && manager != null && manager.isLowRamDevice()) {
+            memoryClassMb /= 2;
+        }
+
+        int divider = PRESET_HIGH.equals(preset) ? 3 : PRESET_LOW.equals(preset) ? 8 : 4;
+
+        return Math.max(MIN_TARGET_BYTES, memoryClassMb * MB / divider);
+    }
+
+    /**
+     * Recalculates targets from the current bitrate, bandwidth and stalls
+     */
+    private synchronized void update() {
+        mLastUpdateMs = SystemClock.elapsedRealtime();
+
+        mBandwidth = mBandwidthMeter != null ? mBandwidthMeter.getBitrateEstimate() : 0;
+
+        int minBufferMs;
+        int maxBufferMs;
+        int bufferForPlaybackMs;
+        int bufferForPlaybackAfterRebufferMs;
+
+        if (PRESET_HIGH.equals(mPreset)) {
+            minBufferMs = 60_000;
+            maxBufferMs = 100_000;
+            bufferForPlaybackMs = 2_500;
+            bufferForPlaybackAfterRebufferMs = 5_000;
+        } else if (PRESET_LOW.equals(mPreset)) {
+            minBufferMs = 15_000;
+            maxBufferMs = 30_000;
+            bufferForPlaybackMs = 2_500;
+            bufferForPlaybackAfterRebufferMs = 5_000;
+        } else {
+            float headroom = mSelectedBitrate > 0 && mBandwidth > 0 ? (float) mBandwidth / mSelectedBitrate : 2;
+
+            if (headroom < WEAK_NETWORK_HEADROOM) {
+                minBufferMs = 30_000;
+                maxBufferMs = 60_000;
+                bufferForPlaybackMs = 5_000;
+                bufferForPlaybackAfterRebufferMs = 10_000;
+            } else if (headroom >= FAST_NETWORK_HEADROOM) {
+                minBufferMs = 15_000;
+                maxBufferMs = 50_000;
+                bufferForPlaybackMs = 1_500;
+                bufferForPlaybackAfterRebufferMs = 3_000;
+            } else {
+                minBufferMs = 20_000;
+                maxBufferMs = 50_000;
+                bufferForPlaybackMs = 2_500;
+                bufferForPlaybackAfterRebufferMs = 5_000;
+            }
+        }
+
+        // each stall: +50%
+        float stallFactor = 1 + mRebufferLevel * 0.5f;
+        minBufferMs = Math.min((int) (minBufferMs * stallFactor), maxBufferMs);
+        bufferForPlaybackMs = (int) (bufferForPlaybackMs * stallFactor);
+        bufferForPlaybackAfterRebufferMs = (int) (bufferForPlaybackAfterRebufferMs * stallFactor);
+
+        mMinBufferUs = C.msToUs(minBufferMs);
+        mMaxBufferUs = C.msToUs(maxBufferMs);
+        mBufferForPlaybackUs = C.msToUs(bufferForPlaybackMs);
+        mBufferForPlaybackAfterRebufferUs = C.msToUs(bufferForPlaybackAfterRebufferMs);
+
+        int targetBytes = mMemoryBudgetBytes;
+
+        if (mSelectedBitrate > 0) {
+            // max buffer of the current format and some headroom for the switch to the higher one
+            long neededBytes = (long) mSelectedBitrate / 8 * maxBufferMs / 1000 * 5 / 4;
+            targetBytes = (int) Math.max(MIN_TARGET_BYTES, Math.min(neededBytes, mMemoryBudgetBytes));
+        }
+
+        if (targetBytes != mTargetBufferBytes) {
+            mTargetBufferBytes = targetBytes;
+            mAllocator.setTargetBufferSize(targetBytes);
+        }
+
+        Log.d(TAG, String.format("Buffer: preset %s, bitrate %s, bandwidth %s, stalls %s, min/max %s/%s ms, target %s bytes",
+                mPreset, mSelectedBitrate, mBandwidth, mRebufferLevel, minBufferMs, maxBufferMs, targetBytes));
+    }
+
+    @Override
+    public void onPrepared() {
+        reset(false);
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+        int bitrate = 0;
+
+        for (int i = 0; i < trackSelections.length; i++) {
+            TrackSelection selection = trackSelections.get(i);
+
+            if (selection == null) {
+                continue;
+            }
+
+            int maxBitrate = 0;
+
+            for (int j = 0; j < selection.length(); j++) {
+                int formatBitrate = selection.getFormat(j).bitrate;
+
+                if (formatBitrate != Format.NO_VALUE) {
+                    maxBitrate = Math.max(maxBitrate, formatBitrate);
+                }
+            }
+
+            bitrate += maxBitrate;
+        }
+
+        mSelectedBitrate = bitrate;
+        update();
+    }
+
+    @Override
+    public void onStopped() {
+        reset(true);
+    }
+
+    @Override
+    public void onReleased() {
+        reset(true);
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return mAllocator;
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return 0;
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long bufferedDurationUs, float playbackSpeed) {
+        if (SystemClock.elapsedRealtime() - mLastUpdateMs > UPDATE_INTERVAL_MS) {
+            update();
+        }
+
+        boolean targetBufferSizeReached = mAllocator.getTotalBytesAllocated() >= mTargetBufferBytes;
+        long minBufferUs = mMinBufferUs;
+
+        if (playbackSpeed > 1) {
+            // The playback speed is faster than real time, so scale up the minimum required media duration to keep enough media buffered
+            // for a playout duration of minBufferUs.
+            long mediaDurationMinBufferUs = Util.getMediaDurationForPlayoutDuration(minBufferUs, playbackSpeed);
+            minBufferUs = Math.min(mediaDurationMinBufferUs, mMaxBufferUs);
+        }
+
+        // byte budget always wins: no OOM on high bitrates
+        if (bufferedDurationUs < minBufferUs) {
+            mIsLoading = !targetBufferSizeReached;
+        } else if (bufferedDurationUs >= mMaxBufferUs || targetBufferSizeReached) {
+            mIsLoading = false;
+        }
+
+        return mIsLoading;
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering) {
+        if (rebuffering && !mIsRebuffering) {
+            mIsRebuffering = true;
+            mRebufferLevel = Math.min(mRebufferLevel + 1, MAX_REBUFFER_LEVEL);
+            update();
+        }
+
+        bufferedDurationUs = Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed);
+        long minBufferDurationUs = rebuffering ? mBufferForPlaybackAfterRebufferUs : mBufferForPlaybackUs;
+        boolean start = minBufferDurationUs <= 0
+                || bufferedDurationUs >= minBufferDurationUs
+                || mAllocator.getTotalBytesAllocated() >= mTargetBufferBytes;
+
+        if (start) {
+            mIsRebuffering = false;
+        }
+
+        return start;
+    }
+
+    private void reset(boolean resetAllocator) {
+        mIsLoading = false;
+
+        if (resetAllocator) {
+            mAllocator.reset();
+        }
+    }
+
+    public String getPreset() {
+        return mPreset;
+    }
+
+    public int getTargetBufferBytes() {
+        return mTargetBufferBytes;
+    }
+
+    public int getAllocatedBytes() {
+        return mAllocator.getTotalBytesAllocated();
+    }
+
+    public long getMinBufferMs() {
+        return C.usToMs(mMinBufferUs);
+    }
+
+    public long getMaxBufferMs() {
+        return C.usToMs(mMaxBufferUs);
+    }
+
+    public long getBandwidthEstimate() {
+        return mBandwidth;
+    }
+
+    public int getRebufferLevel() {
+        return mRebufferLevel;
+    }
+}
@@ -2,9 +2,10 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import com.google.android.exoplayer2.C;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers.PlayerUtil;
 
+import java.util.Map;
+
 public final class ExoPreferences {
     private static final String SHARED_PREFERENCES_NAME = ExoPreferences.class.getName();
     private static ExoPreferences sInstance;
@@ -24,6 +25,10 @@ public final class ExoPreferences {
     private static final String SELECTED_TRACK_FPS = "selectedTrackFps";
     private static final String CURRENT_SPEED = "currentSpeed";
     private static final String RESTORE_SPEED = "restoreSpeed";
+    private static final String LEGACY_POSITIONS_REMOVED = "legacyPositionsRemoved";
+    private static final String BUFFER_PRESET = "bufferPreset";
+    private static final String BANDWIDTH_ESTIMATE = "bandwidthEstimate";
+    private static final String MEDIA_CACHE_ENABLED = "mediaCacheEnabled";
     public static final String FORMAT_ANY = "format_any";
     private boolean mForceRestoreSpeed;
 
@@ -103,20 +108,26 @@ public final class ExoPreferences {
                 .apply();
     }
 
-    public void resetPosition(String key) {
-        mPrefs.edit()
-                .remove(key)
-                .apply();
-    }
+    /**
+     * Positions were stored here as one long key per video (title + duration) and the file grew forever.<br/>
+     * Now they live in {@link com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate.VideoPositionStore VideoPositionStore}.
+     * None of the other prefs is long, so every long value is the stale position.
+     */
+    public void removeLegacyPositions() {
+        if (mPrefs.getBoolean(LEGACY_POSITIONS_REMOVED, false)) {
+            return;
+        }
 
-    public void setPosition(String key, long val) {
-        mPrefs.edit()
-                .putLong(key, val)
-                .apply();
-    }
+        SharedPreferences.Editor editor = mPrefs.edit();
 
-    public long getPosition(String key) {
-        return mPrefs.getLong(key, C.TIME_UNSET);
+        for (Map.Entry<String, ?> entry : mPrefs.getAll().entrySet()) {
+            if (entry.getValue() instanceof Long) {
+                editor.remove(entry.getKey());
+            }
+        }
+
+        editor.putBoolean(LEGACY_POSITIONS_REMOVED, true)
+                .apply();
     }
 
     public boolean getAutoframerateChecked() {
@@ -237,4 +248,41 @@ public final class ExoPreferences {
     public void setForceRestoreSpeed(boolean force) {
         mForceRestoreSpeed = force;
     }
+
+    /**
+     * One of the {@link AdaptiveLoadControl} presets
+     */
+    public String getBufferPreset() {
+        return mPrefs.getString(BUFFER_PRESET, AdaptiveLoadControl.PRESET_AUTO);
+    }
+
+    public void setBufferPreset(String preset) {
+        mPrefs.edit()
+                .putString(BUFFER_PRESET, preset)
+                .apply();
+    }
+
+    public boolean getMediaCacheEnabled() {
+        return mPrefs.getBoolean(MEDIA_CACHE_ENABLED, true);
+    }
+
+    public void setMediaCacheEnabled(boolean enabled) {
+        mPrefs.edit()
+                .putBoolean(MEDIA_CACHE_ENABLED, enabled)
+                .apply();
+    }
+
+    /**
+     * Bandwidth measured on the network during the previous sessions, bits per second
+     * @param network see {@link NetworkBandwidthMeter}
+     */
+    public int getBandwidthEstimate(String network) {
+        return mPrefs.getInt(BANDWIDTH_ESTIMATE + "_" + network, 0);
+    }
+
+    public void setBandwidthEstimate(String network, long bitrate) {
+        mPrefs.edit()
+                .putInt(BANDWIDTH_ESTIMATE + "_" + network, (int) Math.min(bitrate, Integer.MAX_VALUE))
+                .apply();
+    }
 }
@@ -49,8 +49,17 @@ import com.liskovsoft.exoplayeractivity.R;
 import com.liskovsoft.sharedutils.helpers.AppInfoHelpers;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv.CommonApplication;
-
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe.QoeCollector;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe.QoeRingBuffer;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.HostMetrics.Counters;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 
 // NOTE: original file taken from
 // https://github.com/google/ExoPlayer/blob/release-v2/library/ui/src/main/java/com/google/android/exoplayer2/ui/DebugTextViewHelper.java
@@ -62,8 +71,11 @@ import java.util.Locale;
 public final class MyDebugViewHelper implements Runnable, Player.EventListener {
     private static final int REFRESH_INTERVAL_MS = 1000;
     private static final float TEXT_SIZE_SP = 10;
+    private static final int MAX_HOSTS = 3;
 
     private final SimpleExoPlayer mPlayer;
+    private final AdaptiveLoadControl mLoadControl;
+    private final QoeCollector mQoeCollector;
     private final ViewGroup mDebugViewGroup;
     private final Activity mContext;
 
@@ -74,10 +86,14 @@ public final class MyDebugViewHelper implements Runnable, Player.EventListener {
 
     /**
      * @param player   The {@link SimpleExoPlayer} from which debug information should be obtained.
+     * @param loadControl The load control of the player (optional).
+     * @param qoeCollector The QoE metrics of the player (optional).
      * @param viewGroup The {@link TextView} that should be updated to display the information.
      */
-    public MyDebugViewHelper(SimpleExoPlayer player, ViewGroup viewGroup, Activity ctx) {
+    public MyDebugViewHelper(SimpleExoPlayer player, AdaptiveLoadControl loadControl, QoeCollector qoeCollector, ViewGroup viewGroup, Activity ctx) {
         mPlayer = player;
+        mLoadControl = loadControl;
+        mQoeCollector = qoeCollector;
         mDebugViewGroup = viewGroup;
         mContext = ctx;
         inflate();
@@ -187,6 +203,9 @@ public final class MyDebugViewHelper implements Runnable, Player.EventListener {
 
         appendVideoInfo();
         appendOtherInfo();
+        appendBufferInfo();
+        appendQoeInfo();
+        appendNetworkInfo();
         appendPlayerState();
         appendPreferredDisplayModeId();
         appendPlayerWindowIndex();
@@ -271,6 +290,50 @@ public final class MyDebugViewHelper implements Runnable, Player.EventListener {
                     counters.renderedOutputBufferCount);
     }
 
+    private void appendBufferInfo() {
+        if (mLoadControl == null) {
+            return;
+        }
+
+        appendRow("Buffer Preset", mLoadControl.getPreset());
+        appendRow("Buffer Min/Max", String.format(Locale.ENGLISH, "%ds/%ds (stalls: %d)",
+                mLoadControl.getMinBufferMs() / 1000, mLoadControl.getMaxBufferMs() / 1000, mLoadControl.getRebufferLevel()));
+        appendRow("Buffer Memory", String.format(Locale.ENGLISH, "%.1f/%.1fMB",
+                mLoadControl.getAllocatedBytes() / 1048576f, mLoadControl.getTargetBufferBytes() / 1048576f));
+        appendRow("Bandwidth Estimate", toHumanReadable((int) Math.min(mLoadControl.getBandwidthEstimate(), Integer.MAX_VALUE)));
+    }
+
+    private void appendQoeInfo() {
+        QoeRingBuffer.Summary summary = mQoeCollector != null ? mQoeCollector.getSummary() : null;
+
+        if (summary == null) {
+            return;
+        }
+
+        appendRow("Join Latency", String.format(Locale.ENGLISH, "%dms (parse %d/prepare %d/render %d)",
+                summary.getTotal(QoeRingBuffer.FIRST_FRAME), summary.getTotal(QoeRingBuffer.STAGE_PARSE),
+                summary.getTotal(QoeRingBuffer.STAGE_PREPARE), summary.getTotal(QoeRingBuffer.STAGE_RENDER)));
+        appendRow("Rebuffers", String.format(Locale.ENGLISH, "%d (%dms)",
+                summary.getCount(QoeRingBuffer.REBUFFER), Math.max(0, summary.getTotal(QoeRingBuffer.REBUFFER))));
+        appendRow("Bitrate Switches", summary.getCount(QoeRingBuffer.BITRATE_SWITCH));
+    }
+
+    /**
+     * Busiest domains of the shared http client
+     */
+    private void appendNetworkInfo() {
+        Map<String, Counters> hosts = OkHttpManager.getInstance().getMetrics().getHosts();
+        List<Entry<String, Counters>> entries = new ArrayList<>(hosts.entrySet());
+        Collections.sort(entries, (e1, e2) -> (int) Math.signum(e2.getValue().getRequests() - e1.getValue().getRequests()));
+
+        for (int i = 0; i < entries.size() && i < MAX_HOSTS; i++) {
+            Counters counters = entries.get(i).getValue();
+            appendRow(entries.get(i).getKey(), String.format(Locale.ENGLISH, "%d req/%d conn/%d err, %dms, %.1fMB",
+                    counters.getRequests(), counters.getConnects(), counters.getFailures(),
+                    counters.getAverageLatencyMs(), counters.getBytes() / 1048576f));
+        }
+    }
+
     private void appendPlayerState() {
         appendRow("Player Paused", !mPlayer.getPlayWhenReady());
 
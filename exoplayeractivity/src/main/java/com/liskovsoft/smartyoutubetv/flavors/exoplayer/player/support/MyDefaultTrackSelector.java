@@ -11,6 +11,11 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate.PlayerStateManagerBase;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate.PlayerStateManagerBase.MyFormat;
 
+/**
+ * Applies preferred video format from {@link com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.ExoPreferences ExoPreferences}
+ * during the very first selection<br/>
+ * So playback starts with the final format: no default track buffering, no codec reconfiguration after the switch.
+ */
 public class MyDefaultTrackSelector extends DefaultTrackSelector {
     private final Context mContext;
     private final PlayerStateManagerBase mStateManager;
@@ -33,7 +38,7 @@ public class MyDefaultTrackSelector extends DefaultTrackSelector {
 
         if (isAuto && !mAlreadyRestored) {
             mAlreadyRestored = true;
-            restoreVideoTrack(groups);
+            params = restoreVideoTrack(groups, params);
         }
 
         return super.selectVideoTrack(groups, formatSupports, mixedMimeTypeAdaptationSupports, params, adaptiveTrackSelectionFactory);
@@ -56,15 +61,26 @@ public class MyDefaultTrackSelector extends DefaultTrackSelector {
     //    return super.selectVideoTrack(groups, formatSupports, mixedMimeTypeAdaptationSupports, params, enableAdaptiveTrackSelection);
     //}
 
-    private void restoreVideoTrack(TrackGroupArray groups) {
+    /**
+     * Override is used by the current selection pass and also stored in the parameters (for the ui and state persistence).<br/>
+     * Invalidation that follows the store selects the same track, so player keeps already selected one.
+     * @return params that should be used by the current selection pass
+     */
+    private Parameters restoreVideoTrack(TrackGroupArray groups, Parameters params) {
         MyFormat format = mStateManager.findPreferredVideoFormat(groups);
 
-        if (format != null) {
-            setParameters(buildUponParameters().setSelectionOverride(
-                    ExoPlayerFragment.RENDERER_INDEX_VIDEO,
-                    groups,
-                    new SelectionOverride(format.pair.first, format.pair.second)
-            ));
+        if (format == null) {
+            return params;
         }
+
+        SelectionOverride override = new SelectionOverride(format.pair.first, format.pair.second);
+
+        Parameters restored = params.buildUpon()
+                .setSelectionOverride(ExoPlayerFragment.RENDERER_INDEX_VIDEO, groups, override)
+                .build();
+
+        setParameters(restored);
+
+        return restored;
     }
 }
@@ -0,0 +1,175 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+/**
+ * Bandwidth meter that remembers the estimate of every network (wifi ssid, ethernet, mobile) across sessions<br/>
+ * Until the sliding window of the {@link DefaultBandwidthMeter} collects enough transfers on the current network,
+ * the estimate from the previous session is reported, so the first segments are requested in the proper quality.
+ */
+public class NetworkBandwidthMeter implements BandwidthMeter, TransferListener {
+    private static final String TAG = NetworkBandwidthMeter.class.getSimpleName();
+    private static final int MIN_TRANSFERS = 5; // live estimate is trusted after that
+    private static final long SAVE_INTERVAL_MS = 30_000;
+    private static NetworkBandwidthMeter sInstance;
+    private final Context mContext;
+    private final ExoPreferences mPrefs;
+    private final DefaultBandwidthMeter mMeter;
+    private volatile String mNetwork;
+    private volatile long mSavedEstimate;
+    private volatile int mTransfers;
+    private long mLastSaveMs;
+
+    private NetworkBandwidthMeter(Context context) {
+        mContext = context;
+        mPrefs = ExoPreferences.instance(context);
+        mMeter = new DefaultBandwidthMeter();
+
+        updateNetwork();
+    }
+
+    public static NetworkBandwidthMeter instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new NetworkBandwidthMeter(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Call before the new playback: picks the saved estimate if network has been changed
+     */
+    public void updateNetwork() {
+        String network = getNetworkKey();
+
+        if (network.equals(mNetwork)) {
+            return;
+        }
+
+        mNetwork = network;
+        mSavedEstimate = mPrefs.getBandwidthEstimate(network);
+        mTransfers = 0;
+
+        Log.d(TAG, "Network " + network + ", saved estimate " + mSavedEstimate);
+    }
+
+    /**
+     * Estimate is based on the real measurements: the live one or the saved one of the current network
+     */
+    public boolean hasEstimate() {
+        return mTransfers >= MIN_TRANSFERS || mSavedEstimate > 0;
+    }
+
+    @Override
+    public long getBitrateEstimate() {
+        if (mTransfers < MIN_TRANSFERS && mSavedEstimate > 0) {
+            return mSavedEstimate;
+        }
+
+        return mMeter.getBitrateEstimate();
+    }
+
+    @Nullable
+    @Override
+    public TransferListener getTransferListener() {
+        return this;
+    }
+
+    @Override
+    public void addEventListener(Handler eventHandler, EventListener eventListener) {
+        mMeter.addEventListener(eventHandler, eventListener);
+    }
+
+    @Override
+    public void removeEventListener(EventListener eventListener) {
+        mMeter.removeEventListener(eventListener);
+    }
+
+    @Override
+    public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        mMeter.onTransferInitializing(source, dataSpec, isNetwork);
+    }
+
+    @Override
+    public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        mMeter.onTransferStart(source, dataSpec, isNetwork);
+    }
+
+    @Override
+    public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+        mMeter.onBytesTransferred(source, dataSpec, isNetwork, bytesTransferred);
+    }
+
+    @Override
+    public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        mMeter.onTransferEnd(source, dataSpec, isNetwork);
+
+        if (isNetwork) {
+            onNetworkTransferEnd();
+        }
+    }
+
+    private synchronized void onNetworkTransferEnd() {
+        mTransfers++;
+        long now = SystemClock.elapsedRealtime();
+
+        if (mTransfers < MIN_TRANSFERS || now - mLastSaveMs < SAVE_INTERVAL_MS) {
+            return;
+        }
+
+        mLastSaveMs = now;
+        mPrefs.setBandwidthEstimate(mNetwork, mMeter.getBitrateEstimate());
+    }
+
+    private String getNetworkKey() {
+        ConnectivityManager manager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo info = manager == null ? null : manager.getActiveNetworkInfo();
+
+        if (info == null) {
+            return "none";
+        }
+
+        switch (info.getType()) {
+            case ConnectivityManager.TYPE_WIFI:
+                return "wifi" + getWifiName();
+            case ConnectivityManager.TYPE_ETHERNET:
+                return "ethernet";
+            case ConnectivityManager.TYPE_MOBILE:
+                return "mobile";
+            default:
+                return info.getTypeName().toLowerCase();
+        }
+    }
+
+    /**
+     * Ssid isn't available on newer androids without location permission. All such networks share the same estimate.
+     */
+    private String getWifiName() {
+        try {
+            WifiManager manager = (WifiManager) mContext.getSystemService(Context.WIFI_SERVICE);
+            WifiInfo info = manager == null ? null : manager.getConnectionInfo();
+            String ssid = info == null ? null : info.getSSID();
+
+            if (ssid == null || ssid.isEmpty() || "<unknown ssid>".equals(ssid)) {
+                return "";
+            }
+
+            return ":" + ssid.replace("\"", "");
+        } catch (SecurityException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support;
+
+import android.content.Intent;
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.source.dash.manifest.DashManifest;
+import com.google.android.exoplayer2.source.dash.manifest.DashManifestParser;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Immutable description of the media to play<br/>
+ * Built on the background thread (MPD is parsed there) and passed to the player by reference:
+ * intent carries the key only, so nothing big is copied or parsed on the main thread.
+ * Only the latest request is kept. Previous one (and its manifest) is released.
+ */
+public final class PlaybackRequest {
+    private static volatile PlaybackRequest sCurrent;
+    private final String mKey;
+    private final Uri[] mUris;
+    private final String[] mExtensions;
+    private final DashManifest mManifest;
+
+    private PlaybackRequest(Uri[] uris, String[] extensions, DashManifest manifest) {
+        mKey = UUID.randomUUID().toString();
+        mUris = uris;
+        mExtensions = extensions;
+        mManifest = manifest;
+    }
+
+    public static PlaybackRequest fromUri(Uri uri, String extension) {
+        return new PlaybackRequest(new Uri[]{uri}, new String[]{extension}, null);
+    }
+
+    public static PlaybackRequest fromUris(Uri[] uris, String[] extensions) {
+        return new PlaybackRequest(uris.clone(), extensions.clone(), null);
+    }
+
+    /**
+     * Heavy: parses the whole manifest. Don't call on the main thread.
+     */
+    public static PlaybackRequest fromManifest(Uri uri, InputStream mpdContent) {
+        DashManifest manifest;
+
+        try (InputStream in = mpdContent) {
+            manifest = new DashManifestParser().parse(uri, in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed mpd file: " + uri, e);
+        }
+
+        return new PlaybackRequest(new Uri[]{uri}, new String[]{"mpd"}, manifest);
+    }
+
+    /**
+     * Makes request available to the player
+     */
+    public void publish(Intent intent) {
+        sCurrent = this;
+        intent.putExtra(ExoPlayerFragment.PLAYBACK_REQUEST_EXTRA, mKey);
+    }
+
+    /**
+     * @return request published with the intent or null if it's already replaced by the newer one
+     */
+    @Nullable
+    public static PlaybackRequest from(Intent intent) {
+        PlaybackRequest current = sCurrent;
+        String key = intent == null ? null : intent.getStringExtra(ExoPlayerFragment.PLAYBACK_REQUEST_EXTRA);
+
+        return current != null && current.mKey.equals(key) ? current : null;
+    }
+
+    public int size() {
+        return mUris.length;
+    }
+
+    public Uri getUri(int index) {
+        return mUris[index];
+    }
+
+    public Uri[] getUris() {
+        return mUris.clone();
+    }
+
+    public String getExtension(int index) {
+        return mExtensions[index];
+    }
+
+    /**
+     * @return parsed manifest or null if request isn't a mpd content
+     */
+    @Nullable
+    public DashManifest getManifest() {
+        return mManifest;
+    }
+}
@@ -3,9 +3,7 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
-// import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers.ExtendedDataHolder;
 
 import java.io.InputStream;
 import java.util.List;
@@ -50,11 +48,11 @@ public final class SampleHelpers {
             mDrmLicenseUrl = drmLicenseUrl;
             mDrmKeyRequestProperties = drmKeyRequestProperties;
             mPreferExtensionDecoders = preferExtensionDecoders;
-
-            // need to be cleared, see PlayerActivity for details
-            // ExtendedDataHolder.getInstance().putExtra(PlayerActivity.MPD_CONTENT_EXTRA, null);
         }
 
+        /**
+         * Could be heavy (e.g. mpd parsing). Don't call on the main thread.
+         */
         public Intent buildIntent(Context context) {
             Intent intent = new Intent(context, ExoPlayerFragment.class);
             intent.putExtra(ExoPlayerFragment.PREFER_EXTENSION_DECODERS, mPreferExtensionDecoders);
@@ -66,15 +64,20 @@ public final class SampleHelpers {
             intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);  // merge new activity with current one
             intent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP); // merge new activity with current one
             intent.putExtra(ExoPlayerFragment.VIDEO_TITLE, this.mName); // title param will be changed later
+            intent.setAction(ExoPlayerFragment.ACTION_VIEW);
+            getRequest().publish(intent);
             return intent;
         }
 
+        protected abstract PlaybackRequest getRequest();
+
     }
 
     public static final class MPDSample extends Sample {
         public final String mUri;
         public final String mExtension;
-        private final String mMpdContent;
+        private final InputStream mMpdContent;
+        private PlaybackRequest mRequest;
 
         public MPDSample(String name, String uri, InputStream mpdStream) {
             this(name, null, null, null, true, uri, "mpd", mpdStream);
@@ -85,22 +88,23 @@ public final class SampleHelpers {
                          String extension, InputStream mpdStream) {
             super(name, drmSchemeUuid, drmLicenseUrl, drmKeyRequestProperties, preferExtensionDecoders);
 
-            this.mMpdContent = Helpers.toString(mpdStream);
-
-            // NOTE: fix TransactionTooLargeException (not actual, since we're passing intent between fragments)
-            // ExtendedDataHolder.getInstance().putExtra(PlayerActivity.MPD_CONTENT_EXTRA, Helpers.toString(mpdStream));
+            // NOTE: mpd is passed in-process: no String copies and no TransactionTooLargeException on long videos
+            mMpdContent = mpdStream;
 
             mExtension = extension;
             mUri = uri;
         }
 
+        /**
+         * Stream could be read only once, so manifest is parsed once
+         */
         @Override
-        public Intent buildIntent(Context context) {
-            return super.buildIntent(context)
-                    .setData(Uri.parse(mUri))
-                    .putExtra(ExoPlayerFragment.MPD_CONTENT_EXTRA, mMpdContent)
-                    .putExtra(ExoPlayerFragment.EXTENSION_EXTRA, mExtension)
-                    .setAction(ExoPlayerFragment.ACTION_VIEW);
+        protected synchronized PlaybackRequest getRequest() {
+            if (mRequest == null) {
+                mRequest = PlaybackRequest.fromManifest(Uri.parse(mUri), mMpdContent);
+            }
+
+            return mRequest;
         }
 
     }
@@ -127,11 +131,8 @@ public final class SampleHelpers {
         }
 
         @Override
-        public Intent buildIntent(Context context) {
-            return super.buildIntent(context)
-                    .setData(Uri.parse(mUri))
-                    .putExtra(ExoPlayerFragment.EXTENSION_EXTRA, mExtension)
-                    .setAction(ExoPlayerFragment.ACTION_VIEW);
+        protected PlaybackRequest getRequest() {
+            return PlaybackRequest.fromUri(Uri.parse(mUri), mExtension);
         }
 
     }
@@ -152,17 +153,14 @@ public final class SampleHelpers {
         }
 
         @Override
-        public Intent buildIntent(Context context) {
-            String[] uris = new String[mChildren.length];
+        protected PlaybackRequest getRequest() {
+            Uri[] uris = new Uri[mChildren.length];
             String[] extensions = new String[mChildren.length];
             for (int i = 0; i < mChildren.length; i++) {
-                uris[i] = mChildren[i].mUri;
+                uris[i] = Uri.parse(mChildren[i].mUri);
                 extensions[i] = mChildren[i].mExtension;
             }
-            return super.buildIntent(context)
-                    .putExtra(ExoPlayerFragment.URI_LIST_EXTRA, uris)
-                    .putExtra(ExoPlayerFragment.EXTENSION_LIST_EXTRA, extensions)
-                    .setAction(ExoPlayerFragment.ACTION_VIEW_LIST);
+            return PlaybackRequest.fromUris(uris, extensions);
         }
 
     }
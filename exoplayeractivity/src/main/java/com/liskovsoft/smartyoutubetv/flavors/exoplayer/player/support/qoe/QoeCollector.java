@@ -0,0 +1,176 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe;
+
+import android.content.Intent;
+import android.os.SystemClock;
+import android.view.Surface;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.audio.AudioRendererEventListener;
+import com.google.android.exoplayer2.video.VideoRendererEventListener;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+/**
+ * Collects playback QoE of the player: join latency by stage, rebuffers, dropped frames, bitrate switches, decoder init times<br/>
+ * One session per prepared video. All players share one {@link QoeRingBuffer}.
+ * Session is dumped to the log as JSON when it ends, current session is shown by the debug overlay.
+ */
+public class QoeCollector implements Player.EventListener, VideoRendererEventListener, AudioRendererEventListener {
+    private static final String TAG = QoeCollector.class.getSimpleName();
+    /**
+     * Wall time (ms) when the video was intercepted in the WebView
+     */
+    public static final String INTERCEPT_TIME_MS = "qoe_intercept_time_ms";
+    /**
+     * Wall time (ms) when the video info was parsed
+     */
+    public static final String PARSE_TIME_MS = "qoe_parse_time_ms";
+    private static final int BUFFER_CAPACITY = 2048;
+    private static final QoeRingBuffer sBuffer = new QoeRingBuffer(BUFFER_CAPACITY);
+    private static int sSessionCounter;
+    private int mSession = -1;
+    private long mInterceptTimeMs;
+    private long mPrepareTimeMs;
+    private long mSessionStartMs;
+    private boolean mFirstFrameRendered;
+    private boolean mIsSeeking;
+    private long mRebufferStartMs = -1;
+    private int mLastBitrate = Format.NO_VALUE;
+
+    public void attach(SimpleExoPlayer player) {
+        player.addListener(this);
+        player.addVideoDebugListener(this);
+        player.addAudioDebugListener(this);
+    }
+
+    /**
+     * Call right before {@link SimpleExoPlayer#prepare}
+     * @param intent player intent with the {@link #INTERCEPT_TIME_MS} and {@link #PARSE_TIME_MS} extras (optional)
+     */
+    public void onPrepare(Intent intent) {
+        endSession();
+
+        mSession = ++sSessionCounter;
+        mSessionStartMs = SystemClock.elapsedRealtime();
+        mPrepareTimeMs = System.currentTimeMillis();
+        mInterceptTimeMs = intent == null ? 0 : intent.getLongExtra(INTERCEPT_TIME_MS, 0);
+        long parseTimeMs = intent == null ? 0 : intent.getLongExtra(PARSE_TIME_MS, 0);
+        mFirstFrameRendered = false;
+        mIsSeeking = false;
+        mRebufferStartMs = -1;
+        mLastBitrate = Format.NO_VALUE;
+
+        sBuffer.record(mSession, QoeRingBuffer.SESSION_START, 0);
+
+        if (mInterceptTimeMs != 0 && parseTimeMs != 0) {
+            sBuffer.record(mSession, QoeRingBuffer.STAGE_PARSE, parseTimeMs - mInterceptTimeMs);
+            sBuffer.record(mSession, QoeRingBuffer.STAGE_PREPARE, mPrepareTimeMs - parseTimeMs);
+        }
+    }
+
+    /**
+     * Call when player is released
+     */
+    public void endSession() {
+        if (mSession == -1) {
+            return;
+        }
+
+        finishRebuffer();
+        sBuffer.record(mSession, QoeRingBuffer.SESSION_END, SystemClock.elapsedRealtime() - mSessionStartMs);
+
+        Log.d(TAG, "Session " + mSession + " ended: " + sBuffer.toJson(mSession));
+
+        mSession = -1;
+    }
+
+    /**
+     * @return summary of the current session or null if there is no session
+     */
+    public QoeRingBuffer.Summary getSummary() {
+        return mSession == -1 ? null : sBuffer.getSummary(mSession);
+    }
+
+    @Override
+    public void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
+        if (mSession == -1) {
+            return;
+        }
+
+        if (playbackState == Player.STATE_BUFFERING) {
+            // only stalls of the playing video, not the initial load or seek
+            if (mFirstFrameRendered && !mIsSeeking && mRebufferStartMs == -1) {
+                mRebufferStartMs = SystemClock.elapsedRealtime();
+            }
+        } else {
+            finishRebuffer();
+
+            if (playbackState == Player.STATE_READY) {
+                mIsSeeking = false;
+            }
+        }
+    }
+
+    @Override
+    public void onPositionDiscontinuity(int reason) {
+        if (reason == Player.DISCONTINUITY_REASON_SEEK) {
+            mIsSeeking = true;
+        }
+    }
+
+    @Override
+    public void onRenderedFirstFrame(Surface surface) {
+        if (mSession == -1 || mFirstFrameRendered) {
+            return;
+        }
+
+        mFirstFrameRendered = true;
+        long now = System.currentTimeMillis();
+
+        sBuffer.record(mSession, QoeRingBuffer.STAGE_RENDER, now - mPrepareTimeMs);
+        sBuffer.record(mSession, QoeRingBuffer.FIRST_FRAME, now - (mInterceptTimeMs != 0 ? mInterceptTimeMs : mPrepareTimeMs));
+
+        Log.d(TAG, "Session " + mSession + ": first frame after " + (now - mPrepareTimeMs) + " ms since prepare");
+    }
+
+    @Override
+    public void onDroppedFrames(int count, long elapsedMs) {
+        if (mSession != -1) {
+            sBuffer.record(mSession, QoeRingBuffer.DROPPED_FRAMES, count);
+        }
+    }
+
+    @Override
+    public void onVideoInputFormatChanged(Format format) {
+        if (mSession == -1) {
+            return;
+        }
+
+        if (mLastBitrate != Format.NO_VALUE && format.bitrate != mLastBitrate) {
+            sBuffer.record(mSession, QoeRingBuffer.BITRATE_SWITCH, format.bitrate);
+        }
+
+        mLastBitrate = format.bitrate;
+    }
+
+    @Override
+    public void onVideoDecoderInitialized(String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        if (mSession != -1) {
+            sBuffer.record(mSession, QoeRingBuffer.VIDEO_DECODER_INIT, initializationDurationMs);
+        }
+    }
+
+    @Override
+    public void onAudioDecoderInitialized(String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+        if (mSession != -1) {
+            sBuffer.record(mSession, QoeRingBuffer.AUDIO_DECODER_INIT, initializationDurationMs);
+        }
+    }
+
+    private void finishRebuffer() {
+        if (mRebufferStartMs != -1) {
+            sBuffer.record(mSession, QoeRingBuffer.REBUFFER, SystemClock.elapsedRealtime() - mRebufferStartMs);
+            mRebufferStartMs = -1;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe;
+
+/**
+ * Fixed-size buffer of the playback QoE events<br/>
+ * Events are stored in parallel primitive arrays, so recording never allocates. Oldest events are overwritten.
+ */
+public class QoeRingBuffer {
+    public static final int SESSION_START = 0;
+    public static final int FIRST_FRAME = 1; // value: ms from intercept (or prepare) to the first rendered frame
+    public static final int STAGE_PARSE = 2; // value: ms from intercept to parsed video info
+    public static final int STAGE_PREPARE = 3; // value: ms from parsed video info to player prepare
+    public static final int STAGE_RENDER = 4; // value: ms from player prepare to the first rendered frame
+    public static final int REBUFFER = 5; // value: stall duration ms
+    public static final int DROPPED_FRAMES = 6; // value: frames count
+    public static final int BITRATE_SWITCH = 7; // value: new video bitrate
+    public static final int VIDEO_DECODER_INIT = 8; // value: init duration ms
+    public static final int AUDIO_DECODER_INIT = 9; // value: init duration ms
+    public static final int SESSION_END = 10; // value: session duration ms
+    private static final String[] TYPE_NAMES = {
+            "session_start", "first_frame", "stage_parse", "stage_prepare", "stage_render", "rebuffer",
+            "dropped_frames", "bitrate_switch", "video_decoder_init", "audio_decoder_init", "session_end"
+    };
+    private final long[] mTimes;
+    private final int[] mSessions;
+    private final int[] mTypes;
+    private final long[] mValues;
+    private int mNext;
+    private int mSize;
+
+    public QoeRingBuffer(int capacity) {
+        mTimes = new long[capacity];
+        mSessions = new int[capacity];
+        mTypes = new int[capacity];
+        mValues = new long[capacity];
+    }
+
+    public synchronized void record(int session, int type, long value) {
+        mTimes[mNext] = System.currentTimeMillis();
+        mSessions[mNext] = session;
+        mTypes[mNext] = type;
+        mValues[mNext] = value;
+
+        mNext = (mNext + 1) % mTimes.length;
+        mSize = Math.min(mSize + 1, mTimes.length);
+    }
+
+    /**
+     * Raw events (oldest first) and summary of the session
+     */
+    public synchronized String toJson(int session) {
+        StringBuilder json = new StringBuilder(256);
+        Summary summary = new Summary();
+        int first = (mNext - mSize + mTimes.length) % mTimes.length;
+        boolean isFirst = true;
+
+        json.append("{\"session\":").append(session).append(",\"events\":[");
+
+        for (int i = 0; i < mSize; i++) {
+            int idx = (first + i) % mTimes.length;
+
+            if (mSessions[idx] != session) {
+                continue;
+            }
+
+            if (!isFirst) {
+                json.append(',');
+            }
+
+            isFirst = false;
+            json.append("{\"time\":").append(mTimes[idx])
+                    .append(",\"type\":\"").append(TYPE_NAMES[mTypes[idx]])
+                    .append("\",\"value\":").append(mValues[idx])
+                    .append('}');
+
+            summary.add(mTypes[idx], mValues[idx]);
+        }
+
+        json.append(']');
+        summary.appendTo(json);
+        json.append('}');
+
+        return json.toString();
+    }
+
+    /**
+     * Summary of the session (its events could be partially overwritten already)
+     */
+    public synchronized Summary getSummary(int session) {
+        Summary summary = new Summary();
+        int first = (mNext - mSize + mTimes.length) % mTimes.length;
+
+        for (int i = 0; i < mSize; i++) {
+            int idx = (first + i) % mTimes.length;
+
+            if (mSessions[idx] == session) {
+                summary.add(mTypes[idx], mValues[idx]);
+            }
+        }
+
+        return summary;
+    }
+
+    public static class Summary {
+        private final long[] mTotals = new long[TYPE_NAMES.length];
+        private final int[] mCounts = new int[TYPE_NAMES.length];
+
+        private void add(int type, long value) {
+            mTotals[type] += value;
+            mCounts[type]++;
+        }
+
+        /**
+         * @return total of the events or -1 if there are no such events
+         */
+        public long getTotal(int type) {
+            return mCounts[type] > 0 ? mTotals[type] : -1;
+        }
+
+        public int getCount(int type) {
+            return mCounts[type];
+        }
+
+        private void appendTo(StringBuilder json) {
+            json.append(",\"first_frame_ms\":").append(mCounts[FIRST_FRAME] > 0 ? mTotals[FIRST_FRAME] : -1)
+                    .append(",\"parse_ms\":").append(mCounts[STAGE_PARSE] > 0 ? mTotals[STAGE_PARSE] : -1)
+                    .append(",\"prepare_ms\":").append(mCounts[STAGE_PREPARE] > 0 ? mTotals[STAGE_PREPARE] : -1)
+                    .append(",\"render_ms\":").append(mCounts[STAGE_RENDER] > 0 ? mTotals[STAGE_RENDER] : -1)
+                    .append(",\"rebuffer_count\":").append(mCounts[REBUFFER])
+                    .append(",\"rebuffer_ms\":").append(mTotals[REBUFFER])
+                    .append(",\"dropped_frames\":").append(mTotals[DROPPED_FRAMES])
+                    .append(",\"bitrate_switches\":").append(mCounts[BITRATE_SWITCH])
+                    .append(",\"video_decoder_init_ms\":").append(mTotals[VIDEO_DECODER_INIT])
+                    .append(",\"audio_decoder_init_ms\":").append(mTotals[AUDIO_DECODER_INIT])
+                    .append(",\"duration_ms\":").append(mCounts[SESSION_END] > 0 ? mTotals[SESSION_END] : -1);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate;
 
-import android.os.Handler;
+import android.content.Intent;
 import android.util.Pair;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.Format;
@@ -11,6 +11,7 @@ import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector.SelectionOverride;
 import com.google.android.exoplayer2.trackselection.MappingTrackSelector.MappedTrackInfo;
+import com.google.android.exoplayer2.video.VideoRendererEventListener;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerBaseFragment;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.PlayerCoreFragment;
@@ -25,16 +26,24 @@ public class PlayerStateManager extends PlayerStateManagerBase {
     private static final long MIN_PERSIST_DURATION_MILLIS = 5 * 60 * 1000; // don't save if total duration < 5 min (most of songs)
     private static final long MAX_TRAIL_DURATION_MILLIS = 3 * 1000; // don't save if 3 sec of unseen video remains
     private static final long MAX_START_DURATION_MILLIS = 30 * 1000; // don't save if video just starts playing < 30 sec
-    private static final long DECODER_INIT_TIME_MS = 1_000;
     private final ExoPlayerBaseFragment mPlayerFragment;
     private final SimpleExoPlayer mPlayer;
     private final DefaultTrackSelector mSelector;
+    private boolean mVideoDecoderReady;
+    private boolean mVideoRestorePending;
 
     public PlayerStateManager(ExoPlayerBaseFragment playerFragment, SimpleExoPlayer player, DefaultTrackSelector selector) {
         super(playerFragment.getActivity());
         mPlayerFragment = playerFragment;
         mPlayer = player;
         mSelector = selector;
+
+        mPlayer.addVideoDebugListener(new VideoRendererEventListener() {
+            @Override
+            public void onVideoDecoderInitialized(String decoderName, long initializedTimestampMs, long initializationDurationMs) {
+                onVideoDecoderReady();
+            }
+        });
     }
 
     /**
@@ -59,15 +68,16 @@ public class PlayerStateManager extends PlayerStateManagerBase {
     }
 
     /**
-     * Some decoders might not have enough time for initialization<br/>
+     * Some decoders crash when the track is switched before their initialization completes<br/>
      * <a href="https://github.com/yuliskov/SmartYouTubeTV/issues/203">GitHub issue #203</a><br/>
      * <a href="https://github.com/yuliskov/SmartYouTubeTV/issues/205">GitHub issue #205</a><br/>
      */
-    private void waitCodecInit() {
-        try {
-            Thread.sleep(DECODER_INIT_TIME_MS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    private void onVideoDecoderReady() {
+        mVideoDecoderReady = true;
+
+        if (mVideoRestorePending) {
+            mVideoRestorePending = false;
+            restoreVideoTrackReal();
         }
     }
 
@@ -96,9 +106,7 @@ public class PlayerStateManager extends PlayerStateManagerBase {
     }
 
     private void restoreTrackPosition() {
-        String title = mPlayerFragment.getMainTitle() + mPlayer.getDuration(); // create something like hash
-
-        long pos = findProperVideoPosition(title);
+        long pos = findProperVideoPosition(getVideoId());
 
         if (pos != C.TIME_UNSET && pos != 0){
             mPlayer.seekTo(pos);
@@ -126,10 +134,20 @@ public class PlayerStateManager extends PlayerStateManagerBase {
     }
 
     /**
-     * Restore track from prefs
+     * Restore track from prefs<br/>
+     * Usually {@link com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.MyDefaultTrackSelector MyDefaultTrackSelector}
+     * already did this before the first frame. Otherwise switch happens once video decoder is initialized.
      */
     private void restoreVideoTrack() {
-        new Handler().postDelayed(this::restoreVideoTrackReal, DECODER_INIT_TIME_MS);
+        if (!isDefaultQualitySelected(RENDERER_INDEX_VIDEO)) {
+            return;
+        }
+
+        if (mVideoDecoderReady) {
+            restoreVideoTrackReal();
+        } else {
+            mVideoRestorePending = true;
+        }
     }
 
     private void restoreVideoTrackReal() {
@@ -223,16 +241,22 @@ public class PlayerStateManager extends PlayerStateManagerBase {
             return;
         }
         long position = mPlayer.getCurrentPosition();
-        String title = mPlayerFragment.getMainTitle() + duration; // create something like hash
+        String videoId = getVideoId();
         boolean almostAllVideoSeen = (duration - position) < MAX_TRAIL_DURATION_MILLIS;
         boolean isVideoJustStarts = position < MAX_START_DURATION_MILLIS;
         if (almostAllVideoSeen || isVideoJustStarts) {
-            persistVideoTrackPosition(title, 0);
+            persistVideoTrackPosition(videoId, 0);
         } else {
-            persistVideoTrackPosition(title, position);
+            persistVideoTrackPosition(videoId, position);
         }
     }
 
+    private String getVideoId() {
+        Intent intent = mPlayerFragment.getIntent();
+
+        return intent == null ? null : intent.getStringExtra(ExoPlayerFragment.VIDEO_ID);
+    }
+
     private boolean isDefaultQualitySelected(int rendererIndex) {
         if (mSelector == null) {
             return false;
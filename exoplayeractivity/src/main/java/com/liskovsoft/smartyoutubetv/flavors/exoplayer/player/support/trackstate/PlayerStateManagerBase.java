@@ -11,6 +11,7 @@ import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv.CommonApplication;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.helpers.PlayerUtil;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.ExoPreferences;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.NetworkBandwidthMeter;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -19,13 +20,18 @@ public class PlayerStateManagerBase {
     private static final String TAG = PlayerStateManagerBase.class.getSimpleName();
     private static final int HEIGHT_PRECISION_PX = 10; // ten-pixel precision
     private static final float FPS_PRECISION = 10; // fps precision
+    private static final float BANDWIDTH_FRACTION = 0.75f; // same as the AdaptiveTrackSelection's default
     private final ExoPreferences mPrefs;
+    private final VideoPositionStore mPositions;
+    private final NetworkBandwidthMeter mBandwidthMeter;
     private String mDefaultTrackId;
     private String mDefaultAudioTrackId;
     private String mDefaultSubtitleLang;
 
     public PlayerStateManagerBase(Context context) {
         mPrefs = new ExoPreferences(context);
+        mPositions = VideoPositionStore.instance(context);
+        mBandwidthMeter = NetworkBandwidthMeter.instance(context);
     }
 
     public MyFormat findProperAudioFormat(TrackGroupArray groupArray) {
@@ -78,6 +84,10 @@ public class PlayerStateManagerBase {
     public MyFormat findPreferredVideoFormat(TrackGroupArray groupArray) {
         Set<MyFormat> fmts = findProperVideos(groupArray);
 
+        if (mPrefs.getSelectedTrackId() == null) { // user didn't pick the track, so don't outrun the network
+            fmts = filterAffordableFormats(fmts);
+        }
+
         MyFormat fmt = filterHighestFormat(fmts);
 
         if (fmt == null) {
@@ -149,6 +159,39 @@ public class PlayerStateManagerBase {
         return result.isEmpty() ? backed : result;
     }
 
+    /**
+     * Drops formats that the current network can't sustain (according to the saved or measured bandwidth)
+     * @param fmts source (cannot be null)
+     * @return affordable formats or the lowest one if none fit
+     */
+    private Set<MyFormat> filterAffordableFormats(Set<MyFormat> fmts) {
+        if (!mBandwidthMeter.hasEstimate()) {
+            return fmts;
+        }
+
+        long maxBitrate = (long) (mBandwidthMeter.getBitrateEstimate() * BANDWIDTH_FRACTION);
+        Set<MyFormat> result = new HashSet<>();
+        MyFormat lowest = null;
+
+        for (MyFormat fmt : fmts) {
+            if (fmt.bitrate == Format.NO_VALUE || fmt.bitrate <= maxBitrate) {
+                result.add(fmt);
+            }
+
+            if (lowest == null || fmt.bitrate < lowest.bitrate) {
+                lowest = fmt;
+            }
+        }
+
+        if (result.isEmpty() && lowest != null) {
+            result.add(lowest);
+        }
+
+        Log.d(TAG, "Formats under " + maxBitrate + " bps: " + result.size() + " of " + fmts.size());
+
+        return result;
+    }
+
     /**
      * Select format with same codec and highest bitrate. All track already have the same height.
      * @param fmts source (cannot be null)
@@ -217,8 +260,8 @@ public class PlayerStateManagerBase {
         return null;
     }
 
-    public long findProperVideoPosition(String key) {
-        return mPrefs.getPosition(key);
+    public long findProperVideoPosition(String videoId) {
+        return mPositions.getPosition(videoId);
         //return CommonApplication.getPreferences().getCurrentVideoPosition() * 1000;
     }
 
@@ -273,11 +316,11 @@ public class PlayerStateManagerBase {
         }
     }
 
-    protected void persistVideoTrackPosition(String key, long position) {
+    protected void persistVideoTrackPosition(String videoId, long position) {
         if (position == 0) {
-            mPrefs.resetPosition(key);
+            mPositions.resetPosition(videoId);
         } else {
-            mPrefs.setPosition(key, position);
+            mPositions.setPosition(videoId, position);
         }
     }
 
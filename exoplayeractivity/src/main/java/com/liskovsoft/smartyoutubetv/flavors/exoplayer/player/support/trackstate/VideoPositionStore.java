@@ -0,0 +1,215 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate;
+
+import android.content.Context;
+import com.google.android.exoplayer2.C;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.ExoPreferences;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resume positions of the last {@link #CAPACITY} videos keyed by video id<br/>
+ * Lookups are served from the in-memory LRU. Changes are appended to the small log file on the background thread,
+ * log is compacted (rewritten from memory) once it contains too many stale records.
+ */
+public class VideoPositionStore {
+    private static final String TAG = VideoPositionStore.class.getSimpleName();
+    private static final String FILE_NAME = "video_positions.log";
+    static final int CAPACITY = 500;
+    static final int MAX_LOG_RECORDS = CAPACITY * 3;
+    private static final long LOAD_TIMEOUT_MS = 200;
+    private static final long REMOVED = 0;
+    private static VideoPositionStore sInstance;
+    private final File mFile;
+    private final Executor mExecutor;
+    private final CountDownLatch mLoaded = new CountDownLatch(1);
+    private final Map<String, Long> mPositions;
+    /**
+     * Videos that are changed while the log is replayed: older log records shouldn't override them
+     */
+    private final Set<String> mChangedWhileLoading = new HashSet<>();
+    private int mLogRecords;
+
+    private VideoPositionStore(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME), Executors.newSingleThreadExecutor());
+
+        mExecutor.execute(() -> ExoPreferences.instance(context).removeLegacyPositions());
+    }
+
+    /**
+     * @param executor single thread executor: records are written in order
+     */
+    VideoPositionStore(File file, Executor executor) {
+        mFile = file;
+        mExecutor = executor;
+        mPositions = new LinkedHashMap<String, Long>(CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+
+        mExecutor.execute(this::load);
+    }
+
+    public static VideoPositionStore instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new VideoPositionStore(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Store is loaded in background right after creation, so normally this never waits
+     * @return position or {@link C#TIME_UNSET}
+     */
+    public long getPosition(String videoId) {
+        if (videoId == null || !awaitLoaded()) {
+            return C.TIME_UNSET;
+        }
+
+        synchronized (mPositions) {
+            Long position = mPositions.get(videoId);
+            return position == null ? C.TIME_UNSET : position;
+        }
+    }
+
+    public void setPosition(String videoId, long position) {
+        if (videoId == null) {
+            return;
+        }
+
+        synchronized (mPositions) {
+            boolean isLoading = mLoaded.getCount() > 0;
+
+            if (isLoading) {
+                mChangedWhileLoading.add(videoId);
+            }
+
+            if (position == REMOVED) {
+                if (mPositions.remove(videoId) == null && !isLoading) {
+                    return; // nothing to write
+                }
+            } else {
+                mPositions.put(videoId, position);
+            }
+        }
+
+        mExecutor.execute(() -> append(videoId, position));
+    }
+
+    public void resetPosition(String videoId) {
+        setPosition(videoId, REMOVED);
+    }
+
+    private boolean awaitLoaded() {
+        try {
+            return mLoaded.await(LOAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void load() {
+        boolean isTruncated = false;
+
+        if (mFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)))) {
+                while (in.available() > 0) {
+                    String videoId = in.readUTF();
+                    long position = in.readLong();
+                    mLogRecords++;
+
+                    synchronized (mPositions) {
+                        if (mChangedWhileLoading.contains(videoId)) {
+                            continue;
+                        }
+
+                        if (position == REMOVED) {
+                            mPositions.remove(videoId);
+                        } else {
+                            mPositions.put(videoId, position);
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                // half-written last record: new records can't be appended after it
+                isTruncated = true;
+            } catch (IOException e) {
+                Log.e(TAG, "Can't read positions: " + e.getMessage());
+            }
+        }
+
+        synchronized (mPositions) {
+            mChangedWhileLoading.clear();
+            mLoaded.countDown();
+        }
+
+        if (isTruncated || mLogRecords > MAX_LOG_RECORDS) {
+            compact();
+        }
+    }
+
+    private void append(String videoId, long position) {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(mFile, true))) {
+            out.writeUTF(videoId);
+            out.writeLong(position);
+            mLogRecords++;
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write position: " + e.getMessage());
+        }
+
+        if (mLogRecords > MAX_LOG_RECORDS) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log with the live entries only. Temp file keeps the old log intact until the rename.
+     */
+    private void compact() {
+        Map<String, Long> entries;
+
+        synchronized (mPositions) {
+            entries = new LinkedHashMap<>(mPositions);
+        }
+
+        File tmpFile = new File(mFile.getPath() + ".tmp");
+
+        // oldest first, so the load restores the same lru order
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't compact positions: " + e.getMessage());
+            tmpFile.delete();
+            return;
+        }
+
+        if (tmpFile.renameTo(mFile)) {
+            mLogRecords = entries.size();
+        } else {
+            tmpFile.delete();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.widgets.previewtimebar;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.ImageView;
+import androidx.collection.LruCache;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.FutureTarget;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeStoryParser.Size;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeStoryParser.Storyboard;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Seek preview tiles of the storyboard<br/>
+ * Every storyboard sheet is downloaded and decoded once on the worker thread and sliced into tiles.
+ * Tiles live in the size-bounded cache and evicted tiles are reused by the next slices, so scrubbing doesn't allocate.
+ * Sheets are prefetched in the scrub direction: the faster the scrub, the further. UI thread only takes ready tiles from the cache.
+ */
+public class StoryboardPreviewEngine {
+    private static final String TAG = StoryboardPreviewEngine.class.getSimpleName();
+    private static final int MAX_CACHE_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_POOL_SIZE = 32;
+    private static final int MAX_PREFETCH_SHEETS = 4;
+    private static final int MAX_QUEUE_DISTANCE = MAX_PREFETCH_SHEETS + 1; // queued sheets that far from the current are dropped
+    private static final long PREFETCH_HORIZON_MS = 2_000; // scrub time covered by the prefetch
+    private static final int NO_TILE = -1;
+    private final Context mContext;
+    private final ImageView mImageView;
+    private final Storyboard mStoryboard;
+    private final int mTileDurationMS;
+    private final int mColCount;
+    private final int mTilesPerSheet;
+    private final LruCache<Integer, Bitmap> mTiles;
+    private final ArrayDeque<Bitmap> mPool = new ArrayDeque<>();
+    private final Set<Integer> mCachedSheets = new HashSet<>(); // guarded by mTiles, sheets with all tiles in the cache
+    private final LinkedBlockingDeque<Integer> mQueue = new LinkedBlockingDeque<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Thread mWorker;
+    private volatile boolean mReleased;
+    private volatile int mLoadingSheet = -1;
+    private Bitmap mShownTile; // guarded by mTiles, never reused while on the screen
+    private int mPendingTile = NO_TILE;
+    private long mLastPositionMs = -1;
+    private long mLastTimeMs;
+    private float mVelocity; // media ms per real ms
+
+    public StoryboardPreviewEngine(ImageView imageView, Storyboard storyboard) {
+        mContext = imageView.getContext().getApplicationContext();
+        mImageView = imageView;
+        mStoryboard = storyboard;
+
+        Size size = storyboard.getGroupSize();
+        mTileDurationMS = size.getDurationEachMS();
+        mColCount = size.getColCount();
+        mTilesPerSheet = size.getRowCount() * size.getColCount();
+
+        int maxBytes = (int) Math.min(MAX_CACHE_BYTES, Runtime.getRuntime().maxMemory() / 16);
+
+        mTiles = new LruCache<Integer, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap tile) {
+                return tile.getRowBytes() * tile.getHeight();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Integer key, Bitmap oldTile, Bitmap newTile) {
+                if (!evicted) {
+                    return; // replaced by the same sheet's slice
+                }
+
+                mCachedSheets.remove(key / mTilesPerSheet);
+
+                if (oldTile != mShownTile && mPool.size() < MAX_POOL_SIZE) {
+                    mPool.add(oldTile);
+                }
+            }
+        };
+
+        mWorker = new Thread(this::runWorker, TAG);
+        mWorker.setDaemon(true);
+        mWorker.start();
+    }
+
+    /**
+     * Shows tile for the position if it's ready. Otherwise tile is shown as soon as its sheet is sliced.
+     */
+    public void showPreview(long positionMs, long durationMs) {
+        if (mReleased || mTileDurationMS <= 0 || mTilesPerSheet <= 0) {
+            return;
+        }
+
+        int tile = (int) (positionMs / mTileDurationMS);
+        int sheet = tile / mTilesPerSheet;
+        int lastSheet = (int) (durationMs / mTileDurationMS) / mTilesPerSheet;
+
+        updateVelocity(positionMs);
+
+        if (showTile(tile)) {
+            mPendingTile = NO_TILE;
+        } else {
+            mPendingTile = tile;
+            request(sheet, true);
+        }
+
+        prefetch(sheet, lastSheet);
+    }
+
+    public void release() {
+        mReleased = true;
+        mWorker.interrupt();
+        mQueue.clear();
+        mHandler.removeCallbacksAndMessages(null);
+
+        synchronized (mTiles) {
+            mTiles.evictAll();
+            mPool.clear();
+        }
+    }
+
+    private boolean showTile(int tileIdx) {
+        Bitmap tile;
+
+        synchronized (mTiles) {
+            tile = mTiles.get(tileIdx);
+
+            if (tile != null) {
+                mShownTile = tile;
+            }
+        }
+
+        if (tile != null) {
+            mImageView.setImageBitmap(tile);
+        }
+
+        return tile != null;
+    }
+
+    private void updateVelocity(long positionMs) {
+        long now = SystemClock.uptimeMillis();
+
+        if (mLastPositionMs != -1 && now > mLastTimeMs && positionMs != mLastPositionMs) {
+            mVelocity = (float) (positionMs - mLastPositionMs) / (now - mLastTimeMs);
+        }
+
+        mLastPositionMs = positionMs;
+        mLastTimeMs = now;
+    }
+
+    private void prefetch(int sheet, int lastSheet) {
+        int groupDurationMS = mTileDurationMS * mTilesPerSheet;
+        int direction = mVelocity < 0 ? -1 : 1;
+        int count = (int) Math.min(MAX_PREFETCH_SHEETS, 1 + Math.abs(mVelocity) * PREFETCH_HORIZON_MS / groupDurationMS);
+
+        // stale prefetches of the previous scrub position
+        for (Iterator<Integer> iterator = mQueue.iterator(); iterator.hasNext(); ) {
+            if (Math.abs(iterator.next() - sheet) > MAX_QUEUE_DISTANCE) {
+                iterator.remove();
+            }
+        }
+
+        for (int i = 1; i <= count; i++) {
+            int next = sheet + direction * i;
+
+            if (next < 0 || next > lastSheet) {
+                break;
+            }
+
+            request(next, false);
+        }
+    }
+
+    private void request(int sheet, boolean urgent) {
+        if (sheet == mLoadingSheet || isSheetCached(sheet)) {
+            return;
+        }
+
+        if (urgent) {
+            mQueue.remove(sheet);
+            mQueue.offerFirst(sheet);
+        } else if (!mQueue.contains(sheet)) {
+            mQueue.offerLast(sheet);
+        }
+    }
+
+    private boolean isSheetCached(int sheet) {
+        synchronized (mTiles) {
+            return mCachedSheets.contains(sheet);
+        }
+    }
+
+    private void runWorker() {
+        while (!mReleased) {
+            int sheet;
+
+            try {
+                sheet = mQueue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (isSheetCached(sheet)) {
+                continue;
+            }
+
+            mLoadingSheet = sheet;
+            loadSheet(sheet);
+            mLoadingSheet = -1;
+
+            mHandler.post(this::onSheetReady);
+        }
+    }
+
+    private void loadSheet(int sheet) {
+        FutureTarget<Bitmap> target = GlideApp.with(mContext)
+                .asBitmap()
+                .load(mStoryboard.getGroupUrl(sheet))
+                .format(DecodeFormat.PREFER_RGB_565)
+                .submit();
+
+        try {
+            sliceSheet(sheet, target.get());
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Can't load storyboard sheet #" + sheet + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // sheet bitmap goes back to the glide's pool
+            GlideApp.with(mContext).clear(target);
+        }
+    }
+
+    private void sliceSheet(int sheet, Bitmap sheetBitmap) {
+        Size size = mStoryboard.getGroupSize();
+        int width = size.getWidth() > 0 ? size.getWidth() : sheetBitmap.getWidth() / mColCount;
+        int height = size.getHeight() > 0 ? size.getHeight() : sheetBitmap.getHeight() / size.getRowCount();
+        Rect src = new Rect();
+        Rect dst = new Rect(0, 0, width, height);
+        Canvas canvas = new Canvas();
+
+        synchronized (mTiles) {
+            mCachedSheets.add(sheet); // unmarked if any of its tiles is evicted while slicing
+        }
+
+        for (int i = 0; i < mTilesPerSheet && !mReleased; i++) {
+            int x = (i % mColCount) * width;
+            int y = (i / mColCount) * height;
+
+            if (x + width > sheetBitmap.getWidth() || y + height > sheetBitmap.getHeight()) {
+                break; // last sheet of the video is shorter
+            }
+
+            Bitmap tile = obtainTile(width, height);
+            src.set(x, y, x + width, y + height);
+            canvas.setBitmap(tile);
+            canvas.drawBitmap(sheetBitmap, src, dst, null);
+
+            synchronized (mTiles) {
+                mTiles.put(sheet * mTilesPerSheet + i, tile);
+            }
+        }
+    }
+
+    private Bitmap obtainTile(int width, int height) {
+        Bitmap tile;
+
+        synchronized (mTiles) {
+            tile = mPool.poll();
+        }
+
+        if (tile == null || tile.getWidth() != width || tile.getHeight() != height) {
+            tile = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        }
+
+        return tile;
+    }
+
+    private void onSheetReady() {
+        if (mPendingTile != NO_TILE && showTile(mPendingTile)) {
+            mPendingTile = NO_TILE;
+        }
+    }
+}
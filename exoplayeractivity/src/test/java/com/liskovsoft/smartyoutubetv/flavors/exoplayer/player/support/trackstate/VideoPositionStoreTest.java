@@ -0,0 +1,161 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.trackstate;
+
+import com.google.android.exoplayer2.C;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VideoPositionStoreTest {
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mFile = new File(mFolder.getRoot(), "video_positions.log");
+    }
+
+    @Test
+    public void testPositionsAreRestored() {
+        VideoPositionStore store = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+        store.setPosition("video1", 1_000);
+        store.setPosition("video2", 2_000);
+        store.setPosition("video1", 3_000);
+        store.resetPosition("video2");
+
+        VideoPositionStore restored = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+
+        assertEquals(3_000, restored.getPosition("video1"));
+        assertEquals(C.TIME_UNSET, restored.getPosition("video2"));
+    }
+
+    @Test
+    public void testPositionSetWhileLoadingIsKept() throws IOException {
+        writeLog("video1", 1_000, "video2", 2_000);
+
+        QueueExecutor executor = new QueueExecutor();
+        VideoPositionStore store = new VideoPositionStore(mFile, executor);
+        store.setPosition("video1", 5_000);
+        store.resetPosition("video2");
+        executor.runAll();
+
+        assertEquals(5_000, store.getPosition("video1"));
+        assertEquals(C.TIME_UNSET, store.getPosition("video2"));
+
+        VideoPositionStore restored = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+
+        assertEquals(5_000, restored.getPosition("video1"));
+        assertEquals(C.TIME_UNSET, restored.getPosition("video2"));
+    }
+
+    @Test
+    public void testLogIsCompacted() throws IOException {
+        VideoPositionStore store = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+        store.setPosition("video2", 500);
+
+        for (int i = 1; i <= VideoPositionStore.MAX_LOG_RECORDS; i++) {
+            store.setPosition("video1", i);
+        }
+
+        assertEquals(2, readLogRecords());
+
+        VideoPositionStore restored = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+
+        assertEquals(VideoPositionStore.MAX_LOG_RECORDS, restored.getPosition("video1"));
+        assertEquals(500, restored.getPosition("video2"));
+    }
+
+    @Test
+    public void testTruncatedLogIsCompacted() throws IOException {
+        writeLog("video1", 1_000);
+
+        try (FileOutputStream out = new FileOutputStream(mFile, true)) {
+            out.write(new byte[] {0, 6, 'v', 'i'}); // half-written record
+        }
+
+        VideoPositionStore store = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+        store.setPosition("video2", 2_000);
+
+        VideoPositionStore restored = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+
+        assertEquals(1_000, restored.getPosition("video1"));
+        assertEquals(2_000, restored.getPosition("video2"));
+    }
+
+    @Test
+    public void testEldestPositionIsEvicted() {
+        VideoPositionStore store = new VideoPositionStore(mFile, DIRECT_EXECUTOR);
+
+        for (int i = 0; i < VideoPositionStore.CAPACITY; i++) {
+            store.setPosition("video" + i, 1_000 + i);
+        }
+
+        assertEquals(1_000, store.getPosition("video0")); // recently used now
+
+        store.setPosition("new_video", 5_000);
+
+        assertEquals(1_000, store.getPosition("video0"));
+        assertEquals(C.TIME_UNSET, store.getPosition("video1"));
+        assertEquals(1_002, store.getPosition("video2"));
+        assertEquals(5_000, store.getPosition("new_video"));
+    }
+
+    private void writeLog(Object... records) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(mFile))) {
+            for (int i = 0; i < records.length; i += 2) {
+                out.writeUTF((String) records[i]);
+                out.writeLong(((Number) records[i + 1]).longValue());
+            }
+        }
+    }
+
+    private int readLogRecords() throws IOException {
+        int records = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)))) {
+            while (in.available() > 0) {
+                in.readUTF();
+                in.readLong();
+                records++;
+            }
+        }
+
+        assertTrue(records > 0);
+
+        return records;
+    }
+
+    /**
+     * Holds the tasks until {@link #runAll()}, so the store stays in the loading state
+     */
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.remove(0).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Runs batches of commands sent by the app
+ */
+
+console.log("Scripts::Running script command_utils.js");
+
+/**
+ * NOTE: object is used through the java code<br/>
+ * NOTE: if you intend to rename/delete this var don't forget to do the same inside<br/>
+ * <b>JSCommandQueue.java</b><br/>
+ */
+var CommandUtils = {
+    TAG: 'CommandUtils',
+    readyCheckIntervalMS: 50,
+    maxReadyWaitMS: 3000,
+    readinessTests: [],
+
+    /**
+     * Batch is delayed till every test returns true (e.g. player buttons are initialized)
+     */
+    addReadinessTest: function(testFn) {
+        this.readinessTests.push(testFn);
+    },
+
+    isReady: function() {
+        for (var i = 0; i < this.readinessTests.length; i++) {
+            if (!this.readinessTests[i]()) {
+                return false;
+            }
+        }
+
+        return true;
+    },
+
+    /**
+     * Runs commands in order and sends all results back with the single call
+     * @param batchId id of the batch or 0 if app doesn't need the results
+     * @param commands functions, result of each one is converted to string
+     */
+    runBatch: function(batchId, commands) {
+        var $this = this;
+        var startTimeMs = Utils.getCurrentTimeMs();
+
+        function runWhenReady() {
+            var waitTimeMs = Utils.getCurrentTimeMs() - startTimeMs;
+
+            if (!$this.isReady() && waitTimeMs < $this.maxReadyWaitMS) {
+                setTimeout(runWhenReady, $this.readyCheckIntervalMS);
+                return;
+            }
+
+            Log.d($this.TAG, "running batch " + batchId + " of " + commands.length + " commands after " + waitTimeMs + "ms");
+
+            $this.postResults(batchId, $this.runCommands(commands));
+        }
+
+        runWhenReady();
+    },
+
+    runCommands: function(commands) {
+        var results = [];
+
+        for (var i = 0; i < commands.length; i++) {
+            var result = null;
+
+            try {
+                result = commands[i]();
+            } catch (e) {
+                Log.e(this.TAG, "command failed: " + e);
+            }
+
+            results.push(result === undefined || result === null ? null : String(result));
+        }
+
+        return results;
+    },
+
+    postResults: function(batchId, results) {
+        if (!batchId) {
+            return;
+        }
+
+        if (window.app && app.onCommandResults) {
+            app.onCommandResults(JSON.stringify(results), batchId);
+        } else {
+            Log.d(this.TAG, "app not found");
+        }
+    }
+};
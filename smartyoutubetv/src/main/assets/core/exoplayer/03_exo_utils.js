@@ -154,3 +154,8 @@ window.ExoUtils = {
         }
     }
 };
+
+// commands from the app (e.g. GetButtonStatesCommand.java) wait till the player buttons are initialized
+CommandUtils.addReadinessTest(function() {
+    return YouTubeUtils.isPlayerClosed() || Utils.$(PlayerActivityMapping.BUTTON_NEXT) != null;
+});
@@ -164,6 +164,13 @@ public abstract class TwoFragmentsManagerActivity extends FragmentManagerActivit
         mPlayerListener.onPlayerAction(action);
     }
 
+    @Override
+    public void onPlaybackNearEnd() {
+        if (mPlayerListener != null) {
+            mPlayerListener.onPlaybackNearEnd();
+        }
+    }
+
     @Override
     public void openBrowser(boolean pausePrevious) {
         runOnUiThread(() -> setActiveFragment(mBrowserFragment, pausePrevious));
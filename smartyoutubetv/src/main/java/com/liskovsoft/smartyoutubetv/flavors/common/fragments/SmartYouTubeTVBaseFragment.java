@@ -21,6 +21,7 @@ import com.liskovsoft.smartyoutubetv.keytranslator.BrowserKeyTranslator;
 import com.liskovsoft.smartyoutubetv.keytranslator.KeyTranslator;
 import com.liskovsoft.smartyoutubetv.misc.youtubeintenttranslator.ServiceFinder;
 import com.liskovsoft.smartyoutubetv.misc.UserAgentManager;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 import com.liskovsoft.smartyoutubetv.misc.youtubeintenttranslator.YouTubeServiceFinder;
 
 public abstract class SmartYouTubeTVBaseFragment extends MainBrowserFragment {
@@ -35,6 +36,9 @@ public abstract class SmartYouTubeTVBaseFragment extends MainBrowserFragment {
     public void onActivityCreated(Bundle icicle) {
         Log.i(TAG, "SmartYouTubeTVActivityBase::init");
 
+        // connections are opened while the page is loading
+        OkHttpManager.getInstance().warmUp();
+
         setupUA();
         super.onActivityCreated(icicle);
 
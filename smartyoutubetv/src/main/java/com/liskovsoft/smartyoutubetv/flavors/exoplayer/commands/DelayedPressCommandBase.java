@@ -1,6 +1,7 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.commands;
 
 import android.os.Handler;
+import com.liskovsoft.smartyoutubetv.injectors.PendingResults.Callback;
 
 public abstract class DelayedPressCommandBase extends PressCommandBase {
     private final int mDelayMillis;
@@ -10,11 +11,11 @@ public abstract class DelayedPressCommandBase extends PressCommandBase {
     }
 
     @Override
-    protected void passToBrowser(final String hugeFunction) {
+    protected void passToBrowser(final String hugeFunction, final Callback<String> callback) {
         new Handler().postDelayed(new Runnable() {
             @Override
             public void run() {
-                DelayedPressCommandBase.super.passToBrowser(hugeFunction);
+                DelayedPressCommandBase.super.passToBrowser(hugeFunction, callback);
             }
         }, mDelayMillis);
     }
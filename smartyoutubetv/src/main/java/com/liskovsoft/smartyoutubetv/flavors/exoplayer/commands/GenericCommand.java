@@ -1,11 +1,26 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.commands;
 
-import com.liskovsoft.browser.Browser;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.injectors.GenericEventResourceInjector;
+import com.liskovsoft.smartyoutubetv.injectors.PendingResults.Callback;
+import com.liskovsoft.smartyoutubetv.injectors.WebViewChannel;
 
 public abstract class GenericCommand {
     public abstract boolean call();
     protected void passToBrowser(String hugeFunction) {
-        Browser.getBus().post(new GenericEventResourceInjector.JSResourceEvent(hugeFunction));
+        passToBrowser(hugeFunction, null);
+    }
+
+    /**
+     * Commands are sent in batches, see {@link com.liskovsoft.smartyoutubetv.injectors.JSCommandQueue}
+     * @param callback gets value of the <em>return</em> statement or null if WebView doesn't answer
+     */
+    protected void passToBrowser(String hugeFunction, Callback<String> callback) {
+        WebViewChannel.instance().getCommandQueue().post(getCoalesceKey(hugeFunction), hugeFunction, callback);
+    }
+
+    /**
+     * Pending commands with the same key are merged (only the latest one runs)
+     */
+    protected String getCoalesceKey(String hugeFunction) {
+        return hugeFunction;
     }
 }
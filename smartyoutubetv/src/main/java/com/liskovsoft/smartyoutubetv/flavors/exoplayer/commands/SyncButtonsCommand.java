@@ -30,6 +30,14 @@ public class SyncButtonsCommand extends GenericCommand {
         passToBrowser(String.format(pattern, command, concatParams));
     }
 
+    /**
+     * Only the latest states are sent
+     */
+    @Override
+    protected String getCoalesceKey(String hugeFunction) {
+        return COMMAND;
+    }
+
     private String toJson(Map<String, Object> states) {
         Gson gson = new Gson();
         return gson.toJson(states);
@@ -2,27 +2,45 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors;
 
 import android.content.Context;
 import android.webkit.WebResourceResponse;
-import com.liskovsoft.browser.Browser;
+import com.jakewharton.disklrucache.DiskLruCache;
+import com.liskovsoft.sharedutils.helpers.CacheHelpers;
+import com.liskovsoft.sharedutils.helpers.FileHelpers;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.CommonApplication;
+import com.liskovsoft.smartyoutubetv.injectors.PendingResults.Callback;
+import com.liskovsoft.smartyoutubetv.injectors.WebViewChannel;
 import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherRoutineHolder;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherUtils;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.GetDecipherCodeDoneEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.GetDecipherCodeEvent;
-import com.squareup.otto.Subscribe;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 import okhttp3.Response;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * intercepts "tv-player.js", "tv-player-ias.js"
+ * intercepts "tv-player.js", "tv-player-ias.js"<br/>
+ * Extracted routine is persisted in the disk cache. Key is the player's url (url contains player version).<br/>
+ * So the script is downloaded only when player version changes.
  */
-public class DecipherInterceptor extends RequestInterceptor {
+public class DecipherInterceptor extends RequestInterceptor implements WebViewChannel.DecipherCodeProvider {
+    private static final String TAG = DecipherInterceptor.class.getSimpleName();
+    private static final String DECIPHER_CODE_KEY = "decipher_code";
+    private static final String LAST_DECIPHER_CODE_KEY = "decipher_code_last";
+    private final DiskLruCache mCache;
     private String mJSDecipherCode;
+    private String mPlayerUrl;
+    private boolean mIsLoading;
+    private final List<Callback<String>> mPendingCallbacks = new ArrayList<>();
 
     public DecipherInterceptor(Context context) {
         super(context);
 
-        Browser.getBus().register(this);
+        mCache = CommonApplication.getCache();
+
+        WebViewChannel.instance().setDecipherCodeProvider(this);
     }
 
     @Override
@@ -32,8 +50,15 @@ public class DecipherInterceptor extends RequestInterceptor {
 
     @Override
     public WebResourceResponse intercept(String url) {
-        if (mJSDecipherCode != null) { // run once
-            return null;
+        synchronized (this) {
+            if (url.equals(mPlayerUrl) && (mIsLoading || mJSDecipherCode != null)) { // run once per player version, retry failed loads
+                return null;
+            }
+
+            mPlayerUrl = url;
+            mJSDecipherCode = null;
+            mIsLoading = true;
+            DecipherRoutineHolder.getInstance().setCode(null);
         }
 
         runInOtherThread(url);
@@ -42,21 +67,103 @@ public class DecipherInterceptor extends RequestInterceptor {
     }
 
     private void runInOtherThread(final String url) {
-        new Thread(() -> cacheResponse(url)).start();
+        new Thread(() -> loadDecipherCode(url)).start();
+    }
+
+    private void loadDecipherCode(String url) {
+        String key = getCacheKey(url);
+        String code = readFromCache(key);
+
+        if (code != null) {
+            Log.d(TAG, "Decipher routine found in cache: " + url);
+        } else {
+            Log.d(TAG, "New player version. Extracting decipher routine: " + url);
+
+            code = fetchDecipherCode(url);
+
+            if (code != null) {
+                saveToCache(key, code);
+                saveToCache(LAST_DECIPHER_CODE_KEY, code);
+            }
+        }
+
+        onDecipherCodeLoaded(url, code);
     }
 
-    private void cacheResponse(String url) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+    private String fetchDecipherCode(String url) {
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
         if (response == null) {
-            return;
+            return null;
         }
 
         InputStream is = response.body().byteStream();
-        mJSDecipherCode = DecipherUtils.extractDecipherCode(is);
+        return DecipherUtils.extractDecipherCode(is);
+    }
+
+    private void onDecipherCodeLoaded(String url, String code) {
+        List<Callback<String>> callbacks;
+
+        synchronized (this) {
+            if (!url.equals(mPlayerUrl)) { // player has been changed while loading
+                return;
+            }
+
+            mJSDecipherCode = code;
+            mIsLoading = false;
+            DecipherRoutineHolder.getInstance().setCode(code);
+
+            callbacks = new ArrayList<>(mPendingCallbacks);
+            mPendingCallbacks.clear();
+        }
+
+        for (Callback<String> callback : callbacks) {
+            callback.onResult(code);
+        }
+    }
+
+    /**
+     * If the routine is loading at this moment, the answer is delayed till the load is finished<br/>
+     * Last known routine is used only when the player script isn't intercepted yet: it belongs to the older player.
+     */
+    @Override
+    public void getDecipherCode(Callback<String> callback) {
+        String result;
+
+        synchronized (this) {
+            if (mJSDecipherCode == null && mIsLoading) {
+                mPendingCallbacks.add(callback);
+                return;
+            }
+
+            if (mJSDecipherCode == null && mPlayerUrl == null) { // video is opened before the player script is intercepted
+                mJSDecipherCode = readFromCache(LAST_DECIPHER_CODE_KEY);
+                DecipherRoutineHolder.getInstance().setCode(mJSDecipherCode);
+            }
+
+            result = mJSDecipherCode;
+        }
+
+        callback.onResult(result);
     }
 
-    @Subscribe
-    public void getDecipherCode(GetDecipherCodeEvent event) {
-        Browser.getBus().post(new GetDecipherCodeDoneEvent(mJSDecipherCode));
+    private static String getCacheKey(String url) {
+        return String.format("%s_%s", DECIPHER_CODE_KEY, url.hashCode());
+    }
+
+    private String readFromCache(String key) {
+        if (mCache == null || !CacheHelpers.exists(mCache, key)) {
+            return null;
+        }
+
+        return Helpers.toString(CacheHelpers.returnFromCache(mCache, key));
+    }
+
+    private void saveToCache(String key, String code) {
+        if (mCache == null) {
+            return;
+        }
+
+        InputStream is = CacheHelpers.saveToCache(mCache, Helpers.toStream(code), key);
+        FileHelpers.closeStream(is);
     }
 }
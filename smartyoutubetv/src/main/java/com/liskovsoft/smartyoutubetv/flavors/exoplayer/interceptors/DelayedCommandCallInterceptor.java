@@ -9,7 +9,6 @@ import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
 
 public class DelayedCommandCallInterceptor extends RequestInterceptor {
     private GenericCommand mCommand;
-    private long mPrevTime;
     private boolean mInterceptReceived;
     private boolean mForceRun;
 
@@ -56,18 +55,17 @@ public class DelayedCommandCallInterceptor extends RequestInterceptor {
         mCommand = command;
     }
 
+    /**
+     * No time based throttling here: duplicate commands are merged by the
+     * {@link com.liskovsoft.smartyoutubetv.injectors.JSCommandQueue}
+     */
     protected void throttledCommandCall() {
         if (!mForceRun)
             return;
         mInterceptReceived = false;
         mForceRun = false;
 
-        long currentTime = System.currentTimeMillis();
-        long timeDelta = currentTime - mPrevTime;
-        mPrevTime = currentTime;
-        if (timeDelta > 1000) {
-            actuallyCallCommand();
-        }
+        actuallyCallCommand();
     }
 
     protected void actuallyCallCommand() {
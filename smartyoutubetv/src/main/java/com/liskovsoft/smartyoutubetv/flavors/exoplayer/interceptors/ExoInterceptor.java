@@ -5,6 +5,7 @@ import android.content.Intent;
 import android.webkit.WebResourceResponse;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.commands.GenericCommand;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors.NextVideoPrefetcher.PrefetchedVideo;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.wrappers.exoplayer.ExoPlayerWrapper;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.wrappers.externalplayer.ExternalPlayerWrapper;
@@ -13,10 +14,11 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeInfoParser;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeMediaParser;
 import com.liskovsoft.smartyoutubetv.fragments.TwoFragmentManager;
+import com.liskovsoft.smartyoutubetv.interceptors.BufferedResponse;
 import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
 import com.liskovsoft.smartyoutubetv.prefs.SmartPreferences;
-
-import java.io.InputStream;
+import okhttp3.Call;
+import okhttp3.Callback;
 
 public class ExoInterceptor extends RequestInterceptor {
     private final Context mContext;
@@ -29,8 +31,12 @@ public class ExoInterceptor extends RequestInterceptor {
     private final HistoryInterceptor mHistoryInterceptor;
     private final SmartPreferences mPrefs;
     private final ActionsSender mSender;
-    private InputStream mResponseStreamSimple;
+    private final PipelineTimer mTimer;
+    private final NextVideoPrefetcher mPrefetcher;
+    private final VideoInfoVariantsFetcher mVariantsFetcher;
+    private BufferedResponse[] mResponses;
     private String mCurrentUrl;
+    private volatile int mRequestId;
     public static final String URL_VIDEO_DATA = "get_video_info";
     public static final String URL_TV_TRANSPORT = "gen_204";
 
@@ -48,6 +54,9 @@ public class ExoInterceptor extends RequestInterceptor {
         mManager = new BackgroundActionManager();
         mPrefs = SmartPreferences.instance(mContext);
         mSender = new ActionsSender(mContext, this);
+        mTimer = new PipelineTimer();
+        mPrefetcher = new NextVideoPrefetcher(this);
+        mVariantsFetcher = new VideoInfoVariantsFetcher(this);
         
         boolean useExternalPlayer = mPrefs.getUseExternalPlayer();
 
@@ -63,6 +72,9 @@ public class ExoInterceptor extends RequestInterceptor {
         return true;
     }
 
+    /**
+     * Video info is fetched once: the same bytes are parsed and returned to the WebView
+     */
     @Override
     public WebResourceResponse intercept(String url) {
         Log.d(TAG, "Video intercepted: " + url);
@@ -71,6 +83,8 @@ public class ExoInterceptor extends RequestInterceptor {
 
         mManager.init(url);
 
+        mNextInterceptor.onVideoIntercepted(mManager.getVideoId(url));
+
         // 'next' should not be fired at this point
         if (mManager.cancelPlayback()) {
             Log.d(TAG, "Video canceled: " + url);
@@ -79,13 +93,44 @@ public class ExoInterceptor extends RequestInterceptor {
             return null;
         }
 
+        mTimer.start(mManager.getVideoId(mCurrentUrl));
+
         mExoCallback.onStart();
-        mExoCallback.onMetadata(mNextInterceptor.getMetadata(mManager.getVideoId(mCurrentUrl), mManager.getPlaylistId(mCurrentUrl)));
-        
-        prepareResponseStream(url);
-        parseAndOpenExoPlayer();
 
-        return null;
+        // 'next' and 'get_video_info' are fetched in parallel
+        // metadata will be merged into the player whenever it lands
+        fetchMetadataAsync(mManager.getVideoId(mCurrentUrl), mManager.getPlaylistId(mCurrentUrl));
+
+        PrefetchedVideo prefetched = mPrefetcher.take(mManager.getVideoId(mCurrentUrl));
+        BufferedResponse response;
+
+        if (prefetched != null) {
+            Log.d(TAG, "Video info is prefetched already: " + url);
+            mTimer.mark("prefetched");
+            prefetched.replay(mExoCallback);
+            response = prefetched.getResponse();
+        } else {
+            prepareResponseStream(url);
+            parseAndOpenExoPlayer();
+            response = mResponses[0];
+        }
+
+        // null: WebView will fetch it by itself
+        return response != null ? createResponse(response) : null;
+    }
+
+    private void fetchMetadataAsync(final String videoId, final String playlistId) {
+        final int requestId = ++mRequestId;
+
+        mNextInterceptor.getMetadataAsync(videoId, playlistId, metadata -> {
+            if (requestId != mRequestId) {
+                Log.d(TAG, "Metadata is outdated. Another video is intercepted already: " + videoId);
+                return;
+            }
+
+            mTimer.mark("next");
+            mExoCallback.onMetadata(metadata);
+        });
     }
 
     // We also try looking in get_video_info since it may contain different dashmpd
@@ -95,16 +140,36 @@ public class ExoInterceptor extends RequestInterceptor {
     // The general idea is to take a union of itags of both DASH manifests (for example
     // video with such 'manifest behavior' see https://github.com/rg3/youtube-dl/issues/6093)
     private void prepareResponseStream(String url) {
-        mResponseStreamSimple = getUrlData(url);
+        mResponses = mVariantsFetcher.fetch(url);
+        mTimer.mark("get_video_info");
     }
 
     /**
      * For parsing details see {@link YouTubeMediaParser}
      */
     private void parseAndOpenExoPlayer() {
-        final YouTubeInfoParser dataParser = new SimpleYouTubeInfoParser(mResponseStreamSimple);
+        final YouTubeInfoParser dataParser = new SimpleYouTubeInfoParser(VideoInfoVariantsFetcher.open(mResponses));
         Log.d(TAG, "Video manifest received");
         dataParser.parse(mExoCallback);
+        mTimer.mark("get_video_info parse"); // deciphering could finish later, see 'parse' stage of the player wrapper
+    }
+
+    /**
+     * Resolve the next video in background while the current one is playing
+     */
+    public void prefetchNextVideo(String videoId) {
+        mPrefetcher.prefetch(mCurrentUrl, videoId);
+    }
+
+    Call fetchVideoInfoAsync(String url, Callback callback) {
+        return getUrlDataAsync(url, callback);
+    }
+
+    /**
+     * All variants of the video info, see {@link VideoInfoVariantsFetcher}
+     */
+    BufferedResponse[] fetchVideoInfoVariants(String url) {
+        return mVariantsFetcher.fetch(url);
     }
 
     public void updateLastCommand(GenericCommand command) {
@@ -135,4 +200,8 @@ public class ExoInterceptor extends RequestInterceptor {
     public HistoryInterceptor getHistoryInterceptor() {
         return mHistoryInterceptor;
     }
+
+    public PipelineTimer getPipelineTimer() {
+        return mTimer;
+    }
 }
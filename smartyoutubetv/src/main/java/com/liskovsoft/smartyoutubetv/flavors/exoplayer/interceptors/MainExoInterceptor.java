@@ -3,15 +3,30 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors;
 import android.content.Context;
 import android.webkit.WebResourceResponse;
 import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
+import com.liskovsoft.smartyoutubetv.interceptors.UrlRouter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class MainExoInterceptor extends RequestInterceptor {
+    private static final String[] DECIPHER_PATTERNS = {"tv-player"};
+    private static final String[] VIDEO_INFO_PATTERNS = {"get_video_info"};
+    private static final String[] NEXT_PATTERNS = {"youtube.com/youtubei/v1/next", "youtube.com/youtubei/v1/browse"};
+    // useful places: ptracking, log_event, log_interaction
+    // at this moment video should be added to history
+    // attention: not working when WebView restored
+    private static final String[] PLAY_END_PATTERNS = {"ptracking"};
+    // history is tracked via YouTubeTracker
+    private static final String[] HISTORY_PATTERNS = {"watchtime"};
     private final Context mContext;
     private final ExoInterceptor mExoInterceptor;
     private final DecipherInterceptor mCipherInterceptor;
     private final DelayedCommandCallInterceptor mDoOnPlayEndInterceptor;
     private final ExoNextInterceptor mExoNextInterceptor;
     private final HistoryInterceptor mHistoryInterceptor;
-    private RequestInterceptor mCurrentInterceptor;
+    private final UrlRouter mRouter;
+    private final String[] mUrlPatterns;
 
     public MainExoInterceptor(Context context) {
         super(context);
@@ -22,54 +37,46 @@ public class MainExoInterceptor extends RequestInterceptor {
         mCipherInterceptor = new DecipherInterceptor(context);
         mHistoryInterceptor = new HistoryInterceptor(context);
         mExoInterceptor = new ExoInterceptor(context, mDoOnPlayEndInterceptor, mExoNextInterceptor, mHistoryInterceptor);
-    }
-
-    @Override
-    public boolean test(String url) {
-        if (url.contains("tv-player")) {
-            mCurrentInterceptor = mCipherInterceptor;
-            return true;
-        }
 
-        if (url.contains("get_video_info")) {
-            mCurrentInterceptor = mExoInterceptor;
-            return true;
-        }
+        // order matters: first matched interceptor handles the url
+        mRouter = new UrlRouter.Builder()
+                .add(mCipherInterceptor, DECIPHER_PATTERNS)
+                .add(mExoInterceptor, VIDEO_INFO_PATTERNS)
+                .add(mExoNextInterceptor, NEXT_PATTERNS)
+                .add(mDoOnPlayEndInterceptor, PLAY_END_PATTERNS)
+                .add(mHistoryInterceptor, HISTORY_PATTERNS)
+                .build();
 
-        if (url.contains("youtube.com/youtubei/v1/next") ||
-            url.contains("youtube.com/youtubei/v1/browse")) {
-            mCurrentInterceptor = mExoNextInterceptor;
-            return true;
-        }
-
-        // useful places: ptracking, log_event, log_interaction
-        // at this moment video should be added to history
-        // attention: not working when WebView restored
-        if (url.contains("ptracking")) {
-            mCurrentInterceptor = mDoOnPlayEndInterceptor;
-            return true;
-        }
+        List<String> patterns = new ArrayList<>();
+        patterns.addAll(Arrays.asList(DECIPHER_PATTERNS));
+        patterns.addAll(Arrays.asList(VIDEO_INFO_PATTERNS));
+        patterns.addAll(Arrays.asList(NEXT_PATTERNS));
+        patterns.addAll(Arrays.asList(PLAY_END_PATTERNS));
+        patterns.addAll(Arrays.asList(HISTORY_PATTERNS));
+        mUrlPatterns = patterns.toArray(new String[0]);
+    }
 
-        // history is tracked via YouTubeTracker
-        if (url.contains("watchtime")) {
-            mCurrentInterceptor = mHistoryInterceptor;
-            return true;
-        }
+    @Override
+    public String[] getUrlPatterns() {
+        return mUrlPatterns;
+    }
 
-        return false;
+    @Override
+    public boolean test(String url) {
+        return mRouter.route(url) != 0;
     }
 
+    /**
+     * Handler is resolved per call: the method is called from multiple WebView threads
+     */
     @Override
     public WebResourceResponse intercept(String url) {
-        if (!test(url)) {
-            return null;
-        }
+        RequestInterceptor interceptor = mRouter.findFirst(url);
 
-        if (mCurrentInterceptor == null) {
-            // block url
-            return new WebResourceResponse(null, null, null);
+        if (interceptor == null) {
+            return null;
         }
 
-        return mCurrentInterceptor.intercept(url);
+        return interceptor.intercept(url);
     }
 }
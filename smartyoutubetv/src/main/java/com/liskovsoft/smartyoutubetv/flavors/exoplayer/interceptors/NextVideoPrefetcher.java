@@ -0,0 +1,248 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.OnMediaFoundCallback;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.SimpleYouTubeInfoParser;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeMediaParser.GenericInfo;
+import com.liskovsoft.smartyoutubetv.interceptors.BufferedResponse;
+import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyUrlEncodedQueryString;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
+import okhttp3.Headers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the autoplay target while the current video is still playing<br/>
+ * get_video_info of the next video is fetched and parsed (signatures deciphered, MPD built) in background.
+ * When WebView requests the same video, {@link ExoInterceptor} replays the ready result instead of the network round trip.
+ * Connection to the media host is warmed by the tiny range request of the first format.
+ */
+public class NextVideoPrefetcher {
+    private static final String TAG = NextVideoPrefetcher.class.getSimpleName();
+    private static final String PARAM_VIDEO_ID = "video_id";
+    private static final long MAX_AGE_MS = 30 * 60 * 1000; // media urls live much longer
+    private static final long PREFETCH_TIMEOUT_MS = 30_000; // signatures could be deciphered by the WebView
+    private static final Pattern BASE_URL = Pattern.compile("<BaseURL>([^<]+)</BaseURL>");
+    private static final Headers WARM_UP_HEADERS = Headers.of("Range", "bytes=0-0");
+    private final ExoInterceptor mInterceptor;
+    private final ScheduledExecutorService mExecutor = Executors.newSingleThreadScheduledExecutor();
+    private PrefetchedVideo mVideo;
+    private String mPendingVideoId;
+    private int mPendingRequest;
+
+    public NextVideoPrefetcher(ExoInterceptor interceptor) {
+        mInterceptor = interceptor;
+    }
+
+    /**
+     * @param currentUrl get_video_info url of the current video (used as a template)
+     * @param videoId next video
+     */
+    public synchronized void prefetch(String currentUrl, String videoId) {
+        if (currentUrl == null || videoId == null || videoId.equals(mPendingVideoId)) {
+            return;
+        }
+
+        if (mVideo != null && videoId.equals(mVideo.mVideoId) && !mVideo.isExpired()) {
+            return;
+        }
+
+        Log.d(TAG, "Prefetching next video: " + videoId);
+
+        mVideo = null;
+        mPendingVideoId = videoId;
+        int request = ++mPendingRequest;
+
+        MyUrlEncodedQueryString query = MyUrlEncodedQueryString.parse(currentUrl);
+        query.set(PARAM_VIDEO_ID, videoId);
+        String url = query.toString();
+
+        mExecutor.execute(() -> load(request, videoId, url));
+        // parser may never call back (e.g. WebView is gone): video could be prefetched again
+        mExecutor.schedule(() -> onLoaded(request, videoId, null), PREFETCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return ready result of the video (only once) or null
+     */
+    public synchronized PrefetchedVideo take(String videoId) {
+        PrefetchedVideo video = mVideo;
+
+        if (video == null || !video.mVideoId.equals(videoId) || video.isExpired()) {
+            return null;
+        }
+
+        mVideo = null;
+
+        return video;
+    }
+
+    private void load(int request, String videoId, String url) {
+        try {
+            BufferedResponse[] responses = mInterceptor.fetchVideoInfoVariants(url);
+
+            if (responses[0] == null) {
+                onLoaded(request, videoId, null);
+                return;
+            }
+
+            // parsing could continue on the decipher callback thread
+            new SimpleYouTubeInfoParser(VideoInfoVariantsFetcher.open(responses)).parse(new PrefetchedVideo(videoId, responses[0]) {
+                @Override
+                public void onDone() {
+                    onLoaded(request, videoId, isValid() ? this : null);
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Next video prefetch error: " + e.getMessage());
+            onLoaded(request, videoId, null);
+        }
+    }
+
+    private synchronized void onLoaded(int request, String videoId, PrefetchedVideo video) {
+        if (request != mPendingRequest || mPendingVideoId == null) {
+            return; // another video requested in the meantime or timed out
+        }
+
+        mPendingVideoId = null;
+        mVideo = video;
+
+        Log.d(TAG, "Next video prefetch " + (video != null ? "done: " : "failed: ") + videoId);
+
+        if (video != null) {
+            video.warmUp();
+        }
+    }
+
+    /**
+     * Stores parser callbacks to replay them later
+     */
+    public static class PrefetchedVideo extends OnMediaFoundCallback {
+        private final String mVideoId;
+        private final BufferedResponse mResponse;
+        private final long mCreatedMs = SystemClock.elapsedRealtime();
+        private GenericInfo mInfo;
+        private Uri mHlsUrl;
+        private Uri mDashUrl;
+        private Uri mTrackingUrl;
+        private String mSpec;
+        private byte[] mMpd;
+        private List<String> mUrlList;
+
+        private PrefetchedVideo(String videoId, BufferedResponse response) {
+            mVideoId = videoId;
+            mResponse = response;
+        }
+
+        @Override
+        public void onInfoFound(GenericInfo info) {
+            mInfo = info;
+        }
+
+        @Override
+        public void onHLSFound(Uri hlsUrl) {
+            mHlsUrl = hlsUrl;
+        }
+
+        @Override
+        public void onDashUrlFound(Uri dashUrl) {
+            mDashUrl = dashUrl;
+        }
+
+        @Override
+        public void onDashMPDFound(InputStream mpdContent) {
+            mMpd = VideoInfoVariantsFetcher.readBytes(mpdContent);
+        }
+
+        @Override
+        public void onUrlListFound(List<String> uriList) {
+            mUrlList = uriList;
+        }
+
+        @Override
+        public void onTrackingUrlFound(Uri trackingUrl) {
+            mTrackingUrl = trackingUrl;
+        }
+
+        @Override
+        public void onStorySpecFound(String spec) {
+            mSpec = spec;
+        }
+
+        @Override
+        public void onDone() {
+        }
+
+        /**
+         * Same order as {@link SimpleYouTubeInfoParser} uses
+         */
+        public void replay(OnMediaFoundCallback callback) {
+            if (mInfo != null) {
+                callback.onInfoFound(mInfo);
+            }
+
+            if (mTrackingUrl != null) {
+                callback.onTrackingUrlFound(mTrackingUrl);
+            }
+
+            if (mSpec != null) {
+                callback.onStorySpecFound(mSpec);
+            }
+
+            if (mHlsUrl != null) {
+                callback.onHLSFound(mHlsUrl);
+            } else if (mDashUrl != null) {
+                callback.onDashUrlFound(mDashUrl);
+            } else if (mMpd != null) {
+                callback.onDashMPDFound(new ByteArrayInputStream(mMpd));
+            } else if (mUrlList != null) {
+                callback.onUrlListFound(mUrlList);
+            }
+
+            callback.onDone();
+        }
+
+        /**
+         * Raw video info: WebView is answered without the second request
+         */
+        public BufferedResponse getResponse() {
+            return mResponse;
+        }
+
+        boolean isValid() {
+            return mInfo != null && (mHlsUrl != null || mDashUrl != null || mMpd != null || mUrlList != null);
+        }
+
+        private boolean isExpired() {
+            return SystemClock.elapsedRealtime() - mCreatedMs > MAX_AGE_MS;
+        }
+
+        /**
+         * Opens the connection to the media host, so the player doesn't wait for the handshake
+         */
+        private void warmUp() {
+            String url = null;
+
+            if (mMpd != null) {
+                Matcher matcher = BASE_URL.matcher(new String(mMpd, Charset.forName("UTF-8")));
+                url = matcher.find() ? matcher.group(1).replace("&amp;", "&") : null;
+            } else if (mUrlList != null && !mUrlList.isEmpty()) {
+                url = mUrlList.get(0);
+            }
+
+            if (url != null) {
+                OkHttpManager.getInstance().doGetRequestAsync(url, WARM_UP_HEADERS);
+            }
+        }
+    }
+}
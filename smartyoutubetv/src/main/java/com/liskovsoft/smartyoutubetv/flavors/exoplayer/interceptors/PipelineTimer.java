@@ -0,0 +1,74 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-stage timing breakdown of the video start path<br/>
+ * Stages could be marked from different threads (e.g. metadata and get_video_info are fetched in parallel)<br/>
+ * Each stage is measured from the moment video has been intercepted
+ */
+public class PipelineTimer {
+    private static final String TAG = PipelineTimer.class.getSimpleName();
+    private final List<String> mStages = new ArrayList<>();
+    private final List<Long> mTimes = new ArrayList<>();
+    private String mVideoId;
+    private long mStartTimeMs;
+
+    public synchronized void start(String videoId) {
+        mVideoId = videoId;
+        mStartTimeMs = System.currentTimeMillis();
+        mStages.clear();
+        mTimes.clear();
+    }
+
+    public synchronized void mark(String stage) {
+        if (mStartTimeMs == 0) {
+            return;
+        }
+
+        long elapsedMs = System.currentTimeMillis() - mStartTimeMs;
+        mStages.add(stage);
+        mTimes.add(elapsedMs);
+
+        Log.d(TAG, String.format("Video %s: stage '%s' done at +%s ms", mVideoId, stage, elapsedMs));
+    }
+
+    /**
+     * @return wall time (ms) when video has been intercepted or 0
+     */
+    public synchronized long getStartTimeMs() {
+        return mStartTimeMs;
+    }
+
+    /**
+     * @return wall time (ms) when stage has been done or 0
+     */
+    public synchronized long getStageTimeMs(String stage) {
+        int idx = mStages.lastIndexOf(stage);
+
+        return idx == -1 ? 0 : mStartTimeMs + mTimes.get(idx);
+    }
+
+    /**
+     * Prints all stages that are done at this moment
+     */
+    public synchronized void dump() {
+        if (mStartTimeMs == 0) {
+            return;
+        }
+
+        StringBuilder result = new StringBuilder();
+        long prevTimeMs = 0;
+
+        for (int i = 0; i < mStages.size(); i++) {
+            long timeMs = mTimes.get(i);
+            result.append(String.format("%s: +%s ms (%s ms); ", mStages.get(i), timeMs, timeMs - prevTimeMs));
+            prevTimeMs = timeMs;
+        }
+
+        Log.d(TAG, String.format("Video %s start timings: %stotal: %s ms", mVideoId, result, System.currentTimeMillis() - mStartTimeMs));
+    }
+}
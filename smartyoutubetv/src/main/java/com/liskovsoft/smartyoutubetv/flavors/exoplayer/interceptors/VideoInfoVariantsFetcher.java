@@ -0,0 +1,164 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors;
+
+import android.os.SystemClock;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.interceptors.BufferedResponse;
+import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyUrlEncodedQueryString;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches several <em>get_video_info</em> variants (el=leanback, el=detailpage, el=embedded) in parallel on the shared dispatcher<br/>
+ * Itag sets differ between them (e.g. 4K/HDR formats are missing in some), so the parser merges all of them.
+ * Intercepted variant is always awaited. The rest are taken only if they arrive within the latency budget.
+ */
+class VideoInfoVariantsFetcher {
+    private static final String TAG = VideoInfoVariantsFetcher.class.getSimpleName();
+    private static final String PARAM_EL = "el";
+    private static final String PARAM_EURL = "eurl";
+    private static final String PARAM_VIDEO_ID = "video_id";
+    private static final String[] VARIANTS = {"leanback", "detailpage", "embedded"};
+    private static final String EMBEDDED_URL = "https://youtube.googleapis.com/v/";
+    private static final long LATENCY_BUDGET_MS = 1_000;
+    private final ExoInterceptor mInterceptor;
+
+    private static class Variant implements Callback {
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private volatile BufferedResponse mResponse;
+        private Call mCall;
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            if (!call.isCanceled()) {
+                Log.e(TAG, "Video info variant failed: " + e.getMessage());
+            }
+
+            mDone.countDown();
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            mResponse = BufferedResponse.from(response);
+            mDone.countDown();
+        }
+
+        /**
+         * @return response or null if failed or not arrived within the timeout
+         */
+        private BufferedResponse await(long timeoutMs) {
+            try {
+                if (mDone.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    return mResponse;
+                }
+            } catch (InterruptedException e) {
+                Log.e(TAG, "Video info variant interrupted");
+            }
+
+            mCall.cancel(); // too late: don't delay the playback
+            return null;
+        }
+    }
+
+    VideoInfoVariantsFetcher(ExoInterceptor interceptor) {
+        mInterceptor = interceptor;
+    }
+
+    /**
+     * @param url intercepted get_video_info url
+     * @return variants in the same order (intercepted one goes first), null if failed or arrived too late
+     */
+    BufferedResponse[] fetch(String url) {
+        long deadlineMs = SystemClock.elapsedRealtime() + LATENCY_BUDGET_MS;
+        List<Variant> variants = new ArrayList<>();
+
+        for (String variantUrl : buildVariants(url)) {
+            Variant variant = new Variant();
+            variant.mCall = mInterceptor.fetchVideoInfoAsync(variantUrl, variant);
+            variants.add(variant);
+        }
+
+        BufferedResponse[] result = new BufferedResponse[variants.size()];
+        int arrived = 0;
+
+        for (int i = 0; i < variants.size(); i++) {
+            // no timeout for the intercepted variant: nothing to play without it (call timeouts still apply)
+            long timeoutMs = i == 0 ? Long.MAX_VALUE : Math.max(0, deadlineMs - SystemClock.elapsedRealtime());
+            result[i] = variants.get(i).await(timeoutMs);
+
+            if (result[i] != null) {
+                arrived++;
+            }
+        }
+
+        Log.d(TAG, String.format("Video info variants arrived: %s of %s", arrived, variants.size()));
+
+        return result;
+    }
+
+    static InputStream[] open(BufferedResponse[] responses) {
+        InputStream[] result = new InputStream[responses.length];
+
+        for (int i = 0; i < responses.length; i++) {
+            result[i] = responses[i] == null ? null : responses[i].open();
+        }
+
+        return result;
+    }
+
+    private static List<String> buildVariants(String url) {
+        List<String> urls = new ArrayList<>();
+        urls.add(url);
+
+        MyUrlEncodedQueryString query = MyUrlEncodedQueryString.parse(url);
+        String origin = query.get(PARAM_EL);
+        String videoId = query.get(PARAM_VIDEO_ID);
+
+        for (String variant : VARIANTS) {
+            if (variant.equals(origin)) {
+                continue;
+            }
+
+            MyUrlEncodedQueryString variantQuery = MyUrlEncodedQueryString.parse(url);
+            variantQuery.set(PARAM_EL, variant);
+
+            if ("embedded".equals(variant) && videoId != null) {
+                variantQuery.set(PARAM_EURL, EMBEDDED_URL + videoId);
+            }
+
+            urls.add(variantQuery.toString());
+        }
+
+        return urls;
+    }
+
+    static byte[] readBytes(InputStream content) {
+        if (content == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = content) {
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read content: " + e.getMessage());
+            return null;
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -15,6 +15,7 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.interceptors.HistoryInter
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.SampleHelpers;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.SampleHelpers.Sample;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.support.qoe.QoeCollector;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.injectors.GenericEventResourceInjector.GenericStringResultEvent;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonNextParser.VideoMetadata;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.OnMediaFoundCallback;
@@ -49,6 +50,10 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
     private final Handler mHandler;
     private boolean mBlockHandlers;
     private VideoMetadata mMetadata;
+    /**
+     * Player intent has been sent before metadata arrived
+     */
+    private boolean mMetadataPending;
 
     private class SuggestionsWatcher {
         SuggestionsWatcher() {
@@ -104,8 +109,10 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
     }
 
     @Override
-    public void onStart() {
+    public synchronized void onStart() {
         mBlockHandlers = true;
+        mMetadata = null;
+        mMetadataPending = false;
         clearPendingEvents();
         mFragmentsManager.openExoPlayer(null, false);
     }
@@ -150,13 +157,40 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
         mSpec = spec;
     }
 
+    /**
+     * Metadata is fetched in parallel with the video info so it could arrive after the player has been opened
+     */
     @Override
-    public void onMetadata(VideoMetadata metadata) {
+    public synchronized void onMetadata(VideoMetadata metadata) {
         mMetadata = metadata;
+
+        if (metadata == null || !mMetadataPending) {
+            return;
+        }
+
+        mMetadataPending = false;
+
+        Intent metadataIntent = metadata.toIntent();
+
+        if (!mBlockHandlers && mManager.isOpened()) {
+            Log.d(TAG, "Late metadata received... updating running player...");
+            mFragmentsManager.openExoPlayer(metadataIntent, false); // state intent: merged into the current one
+        } else if (mCachedIntent != null) {
+            Helpers.mergeIntents(mCachedIntent, metadataIntent); // will be used on return to the player
+        }
     }
 
+    /**
+     * Player intent is built on the background thread (mpd is parsed there).<br/>
+     * Only the fragment switch is done on the main thread.
+     */
     @Override
     public void onDone() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            new Thread(this::onDone).start();
+            return;
+        }
+
         if (mSample == null || mInfo == null) {
             mManager.onCancel();
             mFragmentsManager.openBrowser(true);
@@ -165,10 +199,25 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
 
         Log.d(TAG, "Video info has been parsed... opening exoplayer...");
 
-        Intent exoIntent = createExoIntent(mSample, mInfo);
+        mInterceptor.getPipelineTimer().mark("parse");
+
+        Intent exoIntent;
+
+        try {
+            exoIntent = createExoIntent(mSample, mInfo);
+        } catch (IllegalStateException e) {
+            Log.e(TAG, e.getMessage());
+            mSample = null;
+            mManager.onCancel();
+            mFragmentsManager.openBrowser(true);
+            return;
+        }
+
         prepareAndOpenExoPlayer(exoIntent);
         mSample = null;
         mSpec = null;
+
+        mInterceptor.getPipelineTimer().dump();
     }
 
     private Intent createExoIntent(Sample sample, GenericInfo info) {
@@ -178,6 +227,8 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
         playerIntent.putExtra(ExoPlayerFragment.VIDEO_VIEW_COUNT, info.getViewCount());
         playerIntent.putExtra(ExoPlayerFragment.VIDEO_ID, extractVideoId());
         playerIntent.putExtra(ExoPlayerFragment.STORYBOARD_SPEC, mSpec);
+        playerIntent.putExtra(QoeCollector.INTERCEPT_TIME_MS, mInterceptor.getPipelineTimer().getStartTimeMs());
+        playerIntent.putExtra(QoeCollector.PARSE_TIME_MS, mInterceptor.getPipelineTimer().getStageTimeMs("parse"));
         mCachedIntent = playerIntent;
         return playerIntent;
     }
@@ -187,13 +238,15 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
         return query.get(PARAM_VIDEO_ID);
     }
 
-    private void prepareAndOpenExoPlayer(final Intent playerIntent) {
+    private synchronized void prepareAndOpenExoPlayer(final Intent playerIntent) {
         mBlockHandlers = false;
         clearPendingEvents();
 
         if (playerIntent != null) {
             if (mMetadata != null) {
                 Helpers.mergeIntents(playerIntent, mMetadata.toIntent());
+            } else {
+                mMetadataPending = true; // 'next' is still running
             }
 
             mManager.onOpen(); // about to open new video
@@ -228,6 +281,15 @@ public class ExoPlayerWrapper extends OnMediaFoundCallback implements PlayerList
         mActionSender.bindActions(intent, mMetadata);
     }
 
+    @Override
+    public synchronized void onPlaybackNearEnd() {
+        VideoMetadata next = mMetadata != null ? mMetadata.getNextVideo() : null;
+
+        if (next != null && next.getVideoId() != null) {
+            mInterceptor.prefetchNextVideo(next.getVideoId());
+        }
+    }
+
     private void clearPendingEvents() {
         mHandler.removeCallbacks(mPauseBrowser);
     }
@@ -9,7 +9,7 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeMediaParser.GenericInfo;
 import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyUrlEncodedQueryString;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,8 +49,8 @@ public abstract class MPDExtractInterceptor extends RequestInterceptor {
     // The general idea is to take a union of itags of both DASH manifests (for example
     // video with such 'manifest behavior' see https://github.com/rg3/youtube-dl/issues/6093)
     private void prepareResponseStream(String url) {
-        Response response30Fps = OkHttpHelpers.doOkHttpRequest(unlockRegularFormats(url));
-        Response response60Fps = OkHttpHelpers.doOkHttpRequest(unlock60FpsFormats(url));
+        Response response30Fps = OkHttpManager.getInstance().doGetRequest(unlockRegularFormats(url));
+        Response response60Fps = OkHttpManager.getInstance().doGetRequest(unlock60FpsFormats(url));
         mResponseStream30Fps = response30Fps == null ? null : response30Fps.body().byteStream();
         mResponseStream60Fps = response60Fps == null ? null : response60Fps.body().byteStream();
     }
@@ -1,4 +0,0 @@
-package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events;
-
-public class GetDecipherCodeEvent {
-}
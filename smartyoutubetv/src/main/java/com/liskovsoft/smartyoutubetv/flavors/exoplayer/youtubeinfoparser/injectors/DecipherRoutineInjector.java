@@ -3,89 +3,54 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.inject
 import android.content.Context;
 import android.text.TextUtils;
 import android.webkit.WebView;
-import com.liskovsoft.browser.Browser;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.DecipherOnlySignaturesDoneEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.DecipherOnlySignaturesEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.GetDecipherCodeDoneEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.GetDecipherCodeEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.PostDecipheredSignaturesEvent;
 import com.liskovsoft.smartyoutubetv.injectors.ResourceInjectorBase;
-import com.squareup.otto.Subscribe;
+import com.liskovsoft.smartyoutubetv.injectors.WebViewChannel;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
-public class DecipherRoutineInjector extends ResourceInjectorBase {
-    private String mCombinedSignatures;
-    private ArrayList<String> mSignatures;
-    private String mDecipherRoutine;
-    private String mDecipherCode;
-    private List<String> mRawSignatures;
-    private String mEventId;
-    private int mId;
-
+/**
+ * Deciphers signatures inside the WebView (fallback when the routine couldn't be compiled on the app side)<br/>
+ * Every request carries its own signatures and id, so concurrent requests don't interfere.
+ */
+public class DecipherRoutineInjector extends ResourceInjectorBase implements WebViewChannel.Decipherer {
     public DecipherRoutineInjector(Context context) {
         this(context, null);
     }
 
     public DecipherRoutineInjector(Context context, WebView webView) {
         super(context, webView);
-        Browser.getBus().register(this);
-    }
-
-    @Subscribe
-    public void decipherSignature(DecipherOnlySignaturesEvent event) {
-        mRawSignatures = event.getSignatures();
-        mId = event.getId();
-        if (signaturesAreNotCiphered()) {
-            Browser.getBus().post(new DecipherOnlySignaturesDoneEvent(mRawSignatures, mId));
-            return;
-        }
-
-        Browser.getBus().post(new GetDecipherCodeEvent());
+        WebViewChannel.instance().setDecipherer(this);
     }
 
-    @Subscribe
-    public void getDecipherCodeDone(GetDecipherCodeDoneEvent event) {
-        mDecipherCode = event.getCode();
+    @Override
+    public void decipher(List<String> signatures, int id) {
+        WebViewChannel channel = WebViewChannel.instance();
 
-        extractSignatures();
-        combineSignatures();
-        combineId();
-        combineDecipherRoutine();
-        injectJSContentUnicode(mDecipherRoutine);
-    }
+        channel.getDecipherCode(code -> {
+            if (code == null) {
+                channel.getSignatureResults().complete(id, null);
+                return;
+            }
 
-    @Subscribe
-    public void receiveDecipheredSignatures(PostDecipheredSignaturesEvent event) {
-        String[] signatures = event.getSignatures();
-        Browser.getBus().post(new DecipherOnlySignaturesDoneEvent(Arrays.asList(signatures), event.getId()));
+            injectJSContentUnicode(combineDecipherRoutine(code, signatures, id));
+        });
     }
 
-    private void combineDecipherRoutine() {
-        mDecipherRoutine = mDecipherCode + ";";
-        mDecipherRoutine += mCombinedSignatures;
-        mDecipherRoutine += mEventId;
-        mDecipherRoutine += "for (var i = 0; i < rawSignatures.length; i++) {rawSignatures[i] = decipherSignature(rawSignatures[i]);}; app.postDecipheredSignatures(rawSignatures, eventId);";
+    private static String combineDecipherRoutine(String decipherCode, List<String> rawSignatures, int id) {
+        String decipherRoutine = decipherCode + ";";
+        decipherRoutine += combineSignatures(rawSignatures);
+        decipherRoutine += "var eventId = " + id + ";";
+        decipherRoutine += "for (var i = 0; i < rawSignatures.length; i++) {rawSignatures[i] = decipherSignature(rawSignatures[i]);}; app.postDecipheredSignatures(rawSignatures, eventId);";
+        return decipherRoutine;
     }
 
-    private void extractSignatures() {
-        mSignatures = new ArrayList<>();
-        for (String rawSignature : mRawSignatures) {
-            mSignatures.add(String.format("\"%s\"", rawSignature));
+    private static String combineSignatures(List<String> rawSignatures) {
+        List<String> signatures = new ArrayList<>();
+        for (String rawSignature : rawSignatures) {
+            signatures.add(String.format("\"%s\"", rawSignature));
         }
-    }
-
-    private void combineSignatures() {
-        mCombinedSignatures = "var rawSignatures = [" + TextUtils.join(",", mSignatures) + "];";
-    }
-
-    private void combineId() {
-        mEventId = "var eventId = " + mId + ";";
-    }
 
-    private boolean signaturesAreNotCiphered() {
-        return mRawSignatures.size() == 0 || mRawSignatures.get(0) == null;
+        return "var rawSignatures = [" + TextUtils.join(",", signatures) + "];";
     }
 }
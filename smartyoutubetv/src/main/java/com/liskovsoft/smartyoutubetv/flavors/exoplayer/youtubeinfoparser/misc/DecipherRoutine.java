@@ -0,0 +1,223 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pure java replacement of the YouTube's decipher routine<br/>
+ * Compiles the code extracted by {@link DecipherUtils#extractDecipherCode} into the list of operations.<br/>
+ * Supported operations: reverse, splice (remove from start), swap (first item with item at position)<br/>
+ * Swap always reads {@code a[b%a.length]}, but the write differs between players: {@code a[b%a.length]=c},
+ * {@code a[b]=c} or {@code a.splice(b,1,c)}. Last two grow the array when b isn't less than its length.<br/>
+ * Example of the routine:<br/>
+ * <pre>
+ * var EQ={F2:function(a,b){a.splice(0,b)},
+ * Xy:function(a,b){var c=a[0];a[0]=a[b%a.length];a[b]=c},
+ * LN:function(a){a.reverse()}};
+ * function decipherSignature(a){a=a.split("");EQ.LN(a,23);EQ.F2(a,2);EQ.Xy(a,1);return a.join("")}
+ * </pre>
+ */
+public class DecipherRoutine {
+    private static final int OP_REVERSE = 0;
+    private static final int OP_SPLICE = 1;
+    private static final int OP_SWAP = 2;
+    private static final int OP_SWAP_AT = 3;
+    private static final int OP_SWAP_SPLICE = 4;
+    /**
+     * Empty item of the grown js array, joined as an empty string
+     */
+    private static final char HOLE = '\0';
+    private static final Pattern HELPER_OBJECT = Pattern.compile("var ([_$A-Za-z0-9]+)=\\{(.*?)\\};\\s*function", Pattern.DOTALL);
+    private static final Pattern HELPER_FUNCTION = Pattern.compile("([_$A-Za-z0-9]+):function\\(a(?:,b)?\\)\\{([^}]*)\\}");
+    private static final Pattern ROUTINE_BODY = Pattern.compile("function [_$A-Za-z0-9]+\\(a\\)\\{a=a\\.split\\(\"\"\\);(.*);return a\\.join\\(\"\"\\)\\}");
+    private static final Pattern ROUTINE_CALL = Pattern.compile("([_$A-Za-z0-9]+)\\.([_$A-Za-z0-9]+)\\(a,(\\d+)\\)");
+    private final int[] mOps;
+    private final int[] mArgs;
+
+    private DecipherRoutine(int[] ops, int[] args) {
+        mOps = ops;
+        mArgs = args;
+    }
+
+    /**
+     * Compiles js routine into the list of operations
+     * @param jsCode code extracted from the player script
+     * @return compiled routine or null if the code has unknown format
+     */
+    public static DecipherRoutine compile(String jsCode) {
+        if (jsCode == null) {
+            return null;
+        }
+
+        Matcher objectMatcher = HELPER_OBJECT.matcher(jsCode);
+
+        if (!objectMatcher.find()) {
+            return null;
+        }
+
+        String objectName = objectMatcher.group(1);
+        Map<String, Integer> helpers = new HashMap<>();
+
+        Matcher functionMatcher = HELPER_FUNCTION.matcher(objectMatcher.group(2));
+
+        while (functionMatcher.find()) {
+            int op = toOperation(functionMatcher.group(2));
+
+            if (op == -1) {
+                return null;
+            }
+
+            helpers.put(functionMatcher.group(1), op);
+        }
+
+        Matcher bodyMatcher = ROUTINE_BODY.matcher(jsCode);
+
+        if (!bodyMatcher.find()) {
+            return null;
+        }
+
+        List<int[]> operations = new ArrayList<>();
+
+        for (String statement : bodyMatcher.group(1).split(";")) {
+            Matcher callMatcher = ROUTINE_CALL.matcher(statement.trim());
+
+            if (!callMatcher.matches() || !objectName.equals(callMatcher.group(1))) {
+                return null; // unknown statement
+            }
+
+            Integer op = helpers.get(callMatcher.group(2));
+
+            if (op == null) {
+                return null;
+            }
+
+            operations.add(new int[]{op, Integer.parseInt(callMatcher.group(3))});
+        }
+
+        int[] ops = new int[operations.size()];
+        int[] args = new int[operations.size()];
+
+        for (int i = 0; i < operations.size(); i++) {
+            ops[i] = operations.get(i)[0];
+            args[i] = operations.get(i)[1];
+        }
+
+        return new DecipherRoutine(ops, args);
+    }
+
+    private static int toOperation(String functionBody) {
+        if (functionBody.contains("var c=a[0];a[0]=a[b%a.length]")) {
+            if (functionBody.contains("a[b%a.length]=c")) {
+                return OP_SWAP;
+            }
+
+            if (functionBody.contains("a[b]=c")) {
+                return OP_SWAP_AT;
+            }
+
+            if (functionBody.contains("splice(b,1,c)")) {
+                return OP_SWAP_SPLICE;
+            }
+
+            return -1;
+        }
+
+        if (functionBody.contains("reverse()")) {
+            return OP_REVERSE;
+        }
+
+        if (functionBody.contains("splice(0,b)")) {
+            return OP_SPLICE;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Deciphers signature in place. The only allocations are the working buffer and the result.
+     * @param signature ciphered signature
+     * @return deciphered signature or null if signature is null
+     */
+    public String decipher(String signature) {
+        if (signature == null) {
+            return null;
+        }
+
+        char[] chars = signature.toCharArray();
+        int start = 0;
+        int length = chars.length;
+        boolean hasHoles = false;
+
+        for (int i = 0; i < mOps.length; i++) {
+            if (length == 0) {
+                break;
+            }
+
+            int arg = mArgs[i];
+
+            switch (mOps[i]) {
+                case OP_REVERSE:
+                    for (int left = start, right = start + length - 1; left < right; left++, right--) {
+                        char tmp = chars[left];
+                        chars[left] = chars[right];
+                        chars[right] = tmp;
+                    }
+                    break;
+                case OP_SPLICE:
+                    int count = Math.min(arg, length);
+                    start += count;
+                    length -= count;
+                    break;
+                case OP_SWAP:
+                case OP_SWAP_AT:
+                case OP_SWAP_SPLICE:
+                    char first = chars[start];
+                    chars[start] = chars[start + arg % length];
+
+                    if (mOps[i] == OP_SWAP || arg < length) {
+                        chars[start + arg % length] = first;
+                        break;
+                    }
+
+                    // a[b]=c leaves holes up to b, a.splice(b,1,c) appends c
+                    length = mOps[i] == OP_SWAP_AT ? arg + 1 : length + 1;
+                    chars = Arrays.copyOf(chars, start + length); // the buffer always ends with the array
+                    chars[start + length - 1] = first;
+                    hasHoles = true;
+                    break;
+            }
+        }
+
+        return hasHoles ? join(chars, start, length) : new String(chars, start, length);
+    }
+
+    private static String join(char[] chars, int start, int length) {
+        StringBuilder result = new StringBuilder(length);
+
+        for (int i = start; i < start + length; i++) {
+            if (chars[i] != HOLE) {
+                result.append(chars[i]);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Deciphers signatures list. Null signatures are stay untouched.
+     */
+    public List<String> decipher(List<String> signatures) {
+        List<String> result = new ArrayList<>(signatures.size());
+
+        for (String signature : signatures) {
+            result.add(decipher(signature));
+        }
+
+        return result;
+    }
+}
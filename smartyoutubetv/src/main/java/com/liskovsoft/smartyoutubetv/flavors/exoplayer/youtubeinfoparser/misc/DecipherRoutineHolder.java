@@ -0,0 +1,37 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc;
+
+/**
+ * Keeps compiled decipher routine of the current player version<br/>
+ * Routine is compiled once per player version and shared between all video parsers
+ */
+public class DecipherRoutineHolder {
+    private static final DecipherRoutineHolder sInstance = new DecipherRoutineHolder();
+    private String mJSCode;
+    private DecipherRoutine mRoutine;
+
+    private DecipherRoutineHolder() {
+    }
+
+    public static DecipherRoutineHolder getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * @param jsCode code extracted from the player script or null to reset routine
+     */
+    public synchronized void setCode(String jsCode) {
+        if (jsCode != null && jsCode.equals(mJSCode)) {
+            return;
+        }
+
+        mJSCode = jsCode;
+        mRoutine = DecipherRoutine.compile(jsCode);
+    }
+
+    /**
+     * @return compiled routine or null if routine isn't loaded yet or couldn't be compiled
+     */
+    public synchronized DecipherRoutine getRoutine() {
+        return mRoutine;
+    }
+}
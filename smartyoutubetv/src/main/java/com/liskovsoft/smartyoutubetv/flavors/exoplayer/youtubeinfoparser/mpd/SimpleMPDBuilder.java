@@ -1,7 +1,6 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.mpd;
 
 import android.util.Xml;
-import com.liskovsoft.sharedutils.helpers.FileHelpers;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.ITag;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.Subtitle;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeMediaParser.GenericInfo;
@@ -12,9 +11,11 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.Si
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import org.xmlpull.v1.XmlSerializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -32,9 +33,13 @@ public class SimpleMPDBuilder implements MPDBuilder {
     private static final String MIME_MP4_VIDEO = "video/mp4";
     private static final String NULL_INDEX_RANGE = "0-0";
     private static final String NULL_CONTENT_LENGTH = "0";
+    /**
+     * Typical mpd with all formats and several subtitles fits without resizing
+     */
+    private static final int INITIAL_BUFFER_SIZE = 32 * 1024;
     private final GenericInfo mInfo;
     private XmlSerializer mXmlSerializer;
-    private StringWriter mWriter;
+    private MPDBuffer mBuffer;
     private int mId;
     private Set<MediaItem> mMP4Audios;
     private Set<MediaItem> mMP4Videos;
@@ -60,12 +65,12 @@ public class SimpleMPDBuilder implements MPDBuilder {
 
     private void initXmlSerializer() {
         mXmlSerializer = Xml.newSerializer();
-        mWriter = new StringWriter();
+        mBuffer = new MPDBuffer(INITIAL_BUFFER_SIZE);
 
-        setOutput(mXmlSerializer, mWriter);
+        // NOTE: no indentation: player is the only reader, so whitespace only adds parsing work
+        setOutput(mXmlSerializer, mBuffer);
 
         startDocument(mXmlSerializer);
-        mXmlSerializer.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
     }
 
     private void writePrologue() {
@@ -221,9 +226,9 @@ public class SimpleMPDBuilder implements MPDBuilder {
         }
     }
 
-    private void setOutput(XmlSerializer xmlSerializer, StringWriter writer) {
+    private void setOutput(XmlSerializer xmlSerializer, OutputStream output) {
         try {
-            xmlSerializer.setOutput(writer);
+            xmlSerializer.setOutput(output, "UTF-8");
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
@@ -549,7 +554,7 @@ public class SimpleMPDBuilder implements MPDBuilder {
 
         writeEpilogue();
 
-        return FileHelpers.toStream(mWriter.toString());
+        return mBuffer.toInputStream();
     }
 
     @Override
@@ -581,4 +586,17 @@ public class SimpleMPDBuilder implements MPDBuilder {
 
         return isLive;
     }
+
+    /**
+     * Serialized mpd is read straight from the internal array without intermediate String or copy
+     */
+    private static class MPDBuffer extends ByteArrayOutputStream {
+        MPDBuffer(int size) {
+            super(size);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
 }
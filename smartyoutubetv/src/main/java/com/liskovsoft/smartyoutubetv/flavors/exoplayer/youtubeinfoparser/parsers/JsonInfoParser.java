@@ -1,104 +1,255 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
-import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.PathNotFoundException;
-import com.jayway.jsonpath.TypeRef;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.SimpleYouTubeMediaItem;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Pulls needed fields from the <em>player_response</em> in a single streaming pass. Other fields are skipped without parsing.<br/>
+ * Fields:<br/>
+ * <pre>
+ * streamingData.adaptiveFormats
+ * streamingData.dashManifestUrl
+ * streamingData.hlsManifestUrl
+ * playbackTracking.videostatsWatchtimeUrl.baseUrl
+ * captions.playerCaptionsTracklistRenderer.captionTracks
+ * storyboards.playerStoryboardSpecRenderer.spec
+ * </pre>
+ */
 public class JsonInfoParser {
     private static final String TAG = JsonInfoParser.class.getSimpleName();
     private static final String JSON_INFO = "player_response";
-    private static final String JSON_INFO_REGULAR_FORMATS = "$.streamingData.formats";
-    private static final String JSON_INFO_DASH_FORMATS = "$.streamingData.adaptiveFormats";
-    private static final String JSON_INFO_DASH_URL = "$.streamingData.dashManifestUrl";
-    private static final String JSON_INFO_HLS_URL = "$.streamingData.hlsManifestUrl";
-    private static final String JSON_INFO_TRACKING_URL = "$.playbackTracking.videostatsWatchtimeUrl.baseUrl";
-    private static final String JSON_INFO_ALL_SUBS = "$.captions.playerCaptionsTracklistRenderer.captionTracks";
-    private static final String JSON_INFO_SINGLE_SUB_URL = "$.captions.playerCaptionsTracklistRenderer.captionTracks[0].baseUrl";
-    private static final String JSON_INFO_STORY_SPEC = "$.storyboards.playerStoryboardSpecRenderer.spec";
-    private final DocumentContext mParser;
+    private static final Type MEDIA_ITEMS_TYPE = new TypeToken<List<SimpleYouTubeMediaItem>>() {}.getType();
+    private static final Type SUBTITLES_TYPE = new TypeToken<List<Subtitle>>() {}.getType();
+    private static final Gson sGson = new Gson();
+    private boolean mIsParsed;
+    private List<MediaItem> mDashMediaItems;
+    private String mDashUrl;
+    private String mHlsUrl;
+    private String mTrackingUrl;
+    private List<Subtitle> mSubs;
+    private String mStorySpec;
 
     public JsonInfoParser(String content) {
-        String jsonInfo = ParserUtils.extractParam(content, JSON_INFO);
-        mParser = ParserUtils.createJsonInfoParser(jsonInfo);
+        this(UrlEncodedIndex.parse(content));
     }
 
-    private List<MediaItem> extractMediaItems(String jsonPath) {
-        TypeRef<List<SimpleYouTubeMediaItem>> typeRef = new TypeRef<List<SimpleYouTubeMediaItem>>() {};
+    public JsonInfoParser(UrlEncodedIndex videoInfo) {
+        Reader jsonInfo = videoInfo.getReader(JSON_INFO);
 
-        List<MediaItem> list = new ArrayList<>();
+        if (jsonInfo != null) {
+            parse(new JsonReader(jsonInfo));
+        }
+    }
 
+    private void parse(JsonReader reader) {
         try {
-            list.addAll(mParser.read(jsonPath, typeRef));
-        } catch (PathNotFoundException e) {
-            String msg = "It is ok. JSON content doesn't contains param: " + jsonPath;
-            Log.d(TAG, msg);
+            if (!beginObject(reader)) {
+                return;
+            }
+
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "streamingData":
+                        readStreamingData(reader);
+                        break;
+                    case "playbackTracking":
+                        readPlaybackTracking(reader);
+                        break;
+                    case "captions":
+                        readCaptions(reader);
+                        break;
+                    case "storyboards":
+                        readStoryboards(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+
+            mIsParsed = true;
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            Log.e(TAG, "Malformed player_response: " + e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // NOP
+            }
         }
+    }
 
-        return list;
+    private void readStreamingData(JsonReader reader) throws IOException {
+        if (!beginObject(reader)) {
+            return;
+        }
+
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "adaptiveFormats":
+                    mDashMediaItems = sGson.fromJson(reader, MEDIA_ITEMS_TYPE);
+                    break;
+                case "dashManifestUrl":
+                    mDashUrl = nextString(reader);
+                    break;
+                case "hlsManifestUrl":
+                    mHlsUrl = nextString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+
+        reader.endObject();
     }
 
-    public List<Subtitle> extractAllSubs() {
-        if (mParser == null) {
-            return null;
+    private void readPlaybackTracking(JsonReader reader) throws IOException {
+        if (!beginObject(reader)) {
+            return;
         }
 
-        TypeRef<List<Subtitle>> typeRef = new TypeRef<List<Subtitle>>() {};
+        while (reader.hasNext()) {
+            if ("videostatsWatchtimeUrl".equals(reader.nextName()) && beginObject(reader)) {
+                while (reader.hasNext()) {
+                    if ("baseUrl".equals(reader.nextName())) {
+                        mTrackingUrl = nextString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
 
-        try {
-            List<Subtitle> subs = mParser.read(JSON_INFO_ALL_SUBS, typeRef);
-            return subs;
-        } catch (PathNotFoundException e) {
-            String msg = "It is ok. Video does not have a subtitles";
-            Log.i(TAG, msg);
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
         }
 
-        return null;
+        reader.endObject();
     }
 
-    public String extractHlsUrl() {
-        if (mParser == null) {
-            return null;
+    private void readCaptions(JsonReader reader) throws IOException {
+        if (!beginObject(reader)) {
+            return;
         }
 
-        return ParserUtils.extractString(JSON_INFO_HLS_URL, mParser);
+        while (reader.hasNext()) {
+            if ("playerCaptionsTracklistRenderer".equals(reader.nextName()) && beginObject(reader)) {
+                while (reader.hasNext()) {
+                    if ("captionTracks".equals(reader.nextName())) {
+                        mSubs = sGson.fromJson(reader, SUBTITLES_TYPE);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
     }
 
-    public String extractTrackingUrl() {
-        if (mParser == null) {
-            return null;
+    private void readStoryboards(JsonReader reader) throws IOException {
+        if (!beginObject(reader)) {
+            return;
         }
 
-        return ParserUtils.extractString(JSON_INFO_TRACKING_URL, mParser);
+        while (reader.hasNext()) {
+            if ("playerStoryboardSpecRenderer".equals(reader.nextName()) && beginObject(reader)) {
+                while (reader.hasNext()) {
+                    if ("spec".equals(reader.nextName())) {
+                        mStorySpec = nextString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
     }
 
-    public String extractDashUrl() {
-        if (mParser == null) {
-            return null;
+    /**
+     * Skips value if it isn't an object
+     * @return true if object has been opened
+     */
+    private static boolean beginObject(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
         }
 
-        return ParserUtils.extractString(JSON_INFO_DASH_URL, mParser);
+        reader.beginObject();
+        return true;
     }
 
-    public List<MediaItem> extractDashMediaItems() {
-        if (mParser == null) {
+    /**
+     * Skips value if it isn't a string
+     */
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.STRING) {
+            reader.skipValue();
             return null;
         }
 
-        return extractMediaItems(JSON_INFO_DASH_FORMATS);
+        return reader.nextString();
     }
 
-    public String extractStorySpec() {
-        if (mParser == null) {
+    public List<Subtitle> extractAllSubs() {
+        if (mIsParsed && mSubs == null) {
+            Log.i(TAG, "It is ok. Video does not have a subtitles");
+        }
+
+        return mSubs;
+    }
+
+    public String extractHlsUrl() {
+        return mHlsUrl;
+    }
+
+    public String extractTrackingUrl() {
+        return mTrackingUrl;
+    }
+
+    public String extractDashUrl() {
+        return mDashUrl;
+    }
+
+    public List<MediaItem> extractDashMediaItems() {
+        if (!mIsParsed) {
             return null;
         }
 
-        return ParserUtils.extractString(JSON_INFO_STORY_SPEC, mParser);
+        List<MediaItem> list = new ArrayList<>();
+
+        if (mDashMediaItems != null) {
+            list.addAll(mDashMediaItems);
+        }
+
+        return list;
+    }
+
+    public String extractStorySpec() {
+        return mStorySpec;
     }
 
     public class Subtitle {
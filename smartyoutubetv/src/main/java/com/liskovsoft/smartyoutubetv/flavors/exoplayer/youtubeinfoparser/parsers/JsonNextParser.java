@@ -1,11 +1,17 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers;
 
 import android.content.Intent;
-import com.jayway.jsonpath.DocumentContext;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.player.ExoPlayerFragment;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 public class JsonNextParser {
     private static final String TAG = JsonNextParser.class.getSimpleName();
@@ -45,10 +51,28 @@ public class JsonNextParser {
     private static final String LIKE_STATUS_LIKE = "LIKE";
     private static final String LIKE_STATUS_DISLIKE = "DISLIKE";
     private static final String LIKE_STATUS_INDIFFERENT = "INDIFFERENT";
-    private final DocumentContext mParser;
+    /**
+     * All paths are compiled once and extracted in a single pass
+     */
+    private static final JsonPathTree sPathTree = new JsonPathTree(
+            VIDEO_TITLE, VIDEO_AUTHOR, VIEW_COUNT, VIEW_COUNT_FULL, LIKES_COUNT, DISLIKES_COUNT, DESCRIPTION, PUBLISHED_DATE,
+            PUBLISHED_DATE_FULL, VIDEO_ID, NEXT_VIDEO_ID, NEXT_VIDEO_ID_2, NEXT_VIDEO_PLAYLIST_ID, NEXT_VIDEO_TITLE, IS_SUBSCRIBED,
+            LIKE_STATUS, CHANNEL_ID);
+    private final Map<String, Object> mValues;
 
     public JsonNextParser(String nextContent) {
-        mParser = ParserUtils.createJsonInfoParser(nextContent);
+        this(nextContent == null ? null : new StringReader(nextContent));
+    }
+
+    /**
+     * Reads the response without buffering it into the string. Stream is closed afterwards.
+     */
+    public JsonNextParser(InputStream nextContent) {
+        this(nextContent == null ? null : new InputStreamReader(nextContent, Charset.forName("UTF-8")));
+    }
+
+    private JsonNextParser(Reader nextContent) {
+        mValues = nextContent == null ? Collections.<String, Object>emptyMap() : sPathTree.read(nextContent);
     }
 
     public VideoMetadata extractVideoMetadata() {
@@ -109,7 +133,8 @@ public class JsonNextParser {
         Boolean result = null;
 
         for (String path : paths) {
-            result = ParserUtils.extractBool(path, mParser);
+            Object value = mValues.get(path);
+            result = value instanceof Boolean ? (Boolean) value : null;
             if (result != null) {
                 break;
             }
@@ -126,7 +151,8 @@ public class JsonNextParser {
         String result = null;
 
         for (String path : paths) {
-            result = ParserUtils.extractString(path, mParser);
+            Object value = mValues.get(path);
+            result = value instanceof String ? (String) value : null;
             if (result != null) {
                 break;
             }
@@ -0,0 +1,207 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of simple json paths compiled into the prefix tree<br/>
+ * Json is read once by the streaming reader. Subtrees that aren't needed by any path are skipped without parsing.
+ * Reading stops as soon as all the paths are found.<br/>
+ * Supported syntax: <em>$.field.array[0].field</em>
+ */
+public class JsonPathTree {
+    private static final String TAG = JsonPathTree.class.getSimpleName();
+    private final Node mRoot = new Node();
+    private final String[] mPaths;
+
+    private static class Node {
+        private Map<String, Node> mFields;
+        private Map<Integer, Node> mItems;
+        /**
+         * Index of the path that ends at this node or -1
+         */
+        private int mPathIndex = -1;
+    }
+
+    private static class State {
+        private final Object[] mValues;
+        private int mRemaining;
+
+        private State(int size) {
+            mValues = new Object[size];
+            mRemaining = size;
+        }
+    }
+
+    public JsonPathTree(String... paths) {
+        mPaths = paths;
+
+        for (int i = 0; i < paths.length; i++) {
+            add(paths[i], i);
+        }
+    }
+
+    private void add(String path, int index) {
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException("Path should start with $: " + path);
+        }
+
+        Node node = mRoot;
+        int pos = 1;
+
+        while (pos < path.length()) {
+            char c = path.charAt(pos);
+
+            if (c == '.') {
+                int end = pos + 1;
+
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+
+                String field = path.substring(pos + 1, end);
+
+                if (node.mFields == null) {
+                    node.mFields = new HashMap<>();
+                }
+
+                Node child = node.mFields.get(field);
+
+                if (child == null) {
+                    child = new Node();
+                    node.mFields.put(field, child);
+                }
+
+                node = child;
+                pos = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', pos);
+
+                if (end == -1) {
+                    throw new IllegalArgumentException("Unclosed bracket: " + path);
+                }
+
+                int item = Integer.parseInt(path.substring(pos + 1, end));
+
+                if (node.mItems == null) {
+                    node.mItems = new HashMap<>();
+                }
+
+                Node child = node.mItems.get(item);
+
+                if (child == null) {
+                    child = new Node();
+                    node.mItems.put(item, child);
+                }
+
+                node = child;
+                pos = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unsupported path syntax: " + path);
+            }
+        }
+
+        if (node.mPathIndex != -1) {
+            throw new IllegalArgumentException("Duplicated path: " + path);
+        }
+
+        node.mPathIndex = index;
+    }
+
+    /**
+     * Reader is closed afterwards
+     * @return found values (String, Boolean or number as String) by path
+     */
+    public Map<String, Object> read(Reader json) {
+        State state = new State(mPaths.length);
+        JsonReader reader = new JsonReader(json);
+
+        try {
+            read(reader, mRoot, state);
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            Log.e(TAG, "Error while reading json: " + e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // NOP
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+
+        for (int i = 0; i < mPaths.length; i++) {
+            if (state.mValues[i] != null) {
+                result.put(mPaths[i], state.mValues[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return false when all the paths are found and reading could be stopped
+     */
+    private static boolean read(JsonReader reader, Node node, State state) throws IOException {
+        JsonToken token = reader.peek();
+
+        if (node.mPathIndex != -1) {
+            state.mValues[node.mPathIndex] = readPrimitive(reader, token);
+            return --state.mRemaining > 0;
+        }
+
+        if (token == JsonToken.BEGIN_OBJECT && node.mFields != null) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                Node child = node.mFields.get(reader.nextName());
+
+                if (child == null) {
+                    reader.skipValue();
+                } else if (!read(reader, child, state)) {
+                    return false;
+                }
+            }
+
+            reader.endObject();
+        } else if (token == JsonToken.BEGIN_ARRAY && node.mItems != null) {
+            reader.beginArray();
+
+            for (int i = 0; reader.hasNext(); i++) {
+                Node child = node.mItems.get(i);
+
+                if (child == null) {
+                    reader.skipValue();
+                } else if (!read(reader, child, state)) {
+                    return false;
+                }
+            }
+
+            reader.endArray();
+        } else {
+            reader.skipValue();
+        }
+
+        return true;
+    }
+
+    private static Object readPrimitive(JsonReader reader, JsonToken token) throws IOException {
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+}
@@ -14,9 +14,13 @@ public class SimpleYouTubeInfoManager implements YouTubeInfoVisitable {
     private YouTubeInfoVisitor mVisitor;
 
     public SimpleYouTubeInfoManager(String content) {
-        mParser = new JsonInfoParser(content);
-        mMediaParser = new YouTubeMediaParser(content, mParser);
-        mSubParser = new YouTubeSubParser(content, mParser);
+        this(UrlEncodedIndex.parse(content));
+    }
+
+    public SimpleYouTubeInfoManager(UrlEncodedIndex videoInfo) {
+        mParser = new JsonInfoParser(videoInfo);
+        mMediaParser = new YouTubeMediaParser(videoInfo, mParser);
+        mSubParser = new YouTubeSubParser(videoInfo, mParser);
     }
 
     @Override
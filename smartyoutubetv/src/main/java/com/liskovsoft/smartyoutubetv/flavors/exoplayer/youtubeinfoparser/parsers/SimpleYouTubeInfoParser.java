@@ -8,51 +8,47 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.mpd.Sim
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeMediaParser.GenericInfo;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.MediaItem;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.Subtitle;
-import com.liskovsoft.sharedutils.helpers.Helpers;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SimpleYouTubeInfoParser implements YouTubeInfoParser {
-    private final String[] mContent;
+    private static final String NULL_INDEX_RANGE = "0-0";
+    private final UrlEncodedIndex[] mContent;
 
-    private class MergeMediaVisitor extends YouTubeInfoVisitor {
-        private final OnMediaFoundCallback mMediaFoundCallback;
-        private MPDBuilder mMPDBuilder;
-        private UrlListBuilder mUrlListBuilder;
-        private int mCounter = 1;
+    /**
+     * Results of one get_video_info (deciphering could finish on any thread)
+     */
+    private static class SourceVisitor extends YouTubeInfoVisitor {
+        private final MergeMediaVisitor mMergeVisitor;
+        private final List<MediaItem> mItems = new ArrayList<>();
+        private final List<Subtitle> mSubs = new ArrayList<>();
         private GenericInfo mInfo;
         private Uri mHlsUrl;
         private Uri mDashUrl;
         private Uri mTrackingUrl;
         private String mSpec;
 
-        public MergeMediaVisitor(OnMediaFoundCallback mediaFoundCallback) {
-            mMediaFoundCallback = mediaFoundCallback;
+        private SourceVisitor(MergeMediaVisitor mergeVisitor) {
+            mMergeVisitor = mergeVisitor;
         }
 
         @Override
         public void onGenericInfo(GenericInfo info) {
-            if (mMPDBuilder == null) {
-                mMPDBuilder = new SimpleMPDBuilder(info);
-            }
-
-            if (mUrlListBuilder == null) {
-                mUrlListBuilder = new SimpleUrlListBuilder();
-            }
-
             mInfo = info;
         }
 
         @Override
         public void onMediaItem(MediaItem mediaItem) {
-            mMPDBuilder.append(mediaItem);
-
-            mUrlListBuilder.append(mediaItem);
+            mItems.add(mediaItem);
         }
 
         @Override
         public void onSubItem(Subtitle item) {
-            mMPDBuilder.append(item);
+            mSubs.add(item);
         }
 
         @Override
@@ -77,37 +73,122 @@ public class SimpleYouTubeInfoParser implements YouTubeInfoParser {
 
         @Override
         public void doneVisiting() {
-            if (mCounter != mContent.length) {
-                mCounter++;
-                return;
+            mMergeVisitor.onSourceDone();
+        }
+
+        /**
+         * Failed variant (e.g. embedding is disabled) contains no media
+         */
+        private boolean hasMedia() {
+            return !mItems.isEmpty() || mHlsUrl != null || mDashUrl != null;
+        }
+    }
+
+    /**
+     * Waits for every source, then unions formats by itag. Sources are ordered by priority.
+     */
+    private static class MergeMediaVisitor {
+        private final OnMediaFoundCallback mMediaFoundCallback;
+        private final List<SourceVisitor> mSources = new ArrayList<>();
+        private int mPending;
+
+        private MergeMediaVisitor(OnMediaFoundCallback mediaFoundCallback) {
+            mMediaFoundCallback = mediaFoundCallback;
+        }
+
+        private SourceVisitor createSource() {
+            SourceVisitor source = new SourceVisitor(this);
+            mSources.add(source);
+            mPending++;
+            return source;
+        }
+
+        private void onSourceDone() {
+            synchronized (this) {
+                if (--mPending > 0) {
+                    return;
+                }
             }
 
-            // callback on the last loop (resolve problems with async processing)
+            done();
+        }
+
+        private void done() {
+            GenericInfo info = null;
+            Uri hlsUrl = null;
+            Uri dashUrl = null;
+            Uri trackingUrl = null;
+            String spec = null;
+            List<Subtitle> subs = null;
+            Map<String, MediaItem> items = new LinkedHashMap<>();
+
+            for (SourceVisitor source : mSources) {
+                if (!source.hasMedia()) {
+                    continue;
+                }
+
+                info = info != null ? info : source.mInfo;
+                hlsUrl = hlsUrl != null ? hlsUrl : source.mHlsUrl;
+                dashUrl = dashUrl != null ? dashUrl : source.mDashUrl;
+                trackingUrl = trackingUrl != null ? trackingUrl : source.mTrackingUrl;
+                spec = spec != null ? spec : source.mSpec;
+                subs = subs != null && !subs.isEmpty() ? subs : source.mSubs; // same tracks in every source
+
+                for (MediaItem item : source.mItems) {
+                    MediaItem existing = items.get(item.getITag());
+
+                    if (existing == null || (!hasRanges(existing) && hasRanges(item))) {
+                        items.put(item.getITag(), item);
+                    }
+                }
+            }
 
-            if (mInfo != null) {
-                mMediaFoundCallback.onInfoFound(mInfo);
+            if (info != null) {
+                mMediaFoundCallback.onInfoFound(info);
             }
 
-            if (mTrackingUrl != null) {
-                mMediaFoundCallback.onTrackingUrlFound(mTrackingUrl);
+            if (trackingUrl != null) {
+                mMediaFoundCallback.onTrackingUrlFound(trackingUrl);
+            }
+
+            if (spec != null) {
+                mMediaFoundCallback.onStorySpecFound(spec);
+            }
+
+            MPDBuilder mpdBuilder = info != null ? new SimpleMPDBuilder(info) : null;
+            UrlListBuilder urlListBuilder = new SimpleUrlListBuilder();
+
+            for (MediaItem item : items.values()) {
+                if (mpdBuilder != null) {
+                    mpdBuilder.append(item);
+                }
+
+                urlListBuilder.append(item);
             }
 
-            if (mSpec != null) {
-                mMediaFoundCallback.onStorySpecFound(mSpec);
+            if (mpdBuilder != null && subs != null) {
+                mpdBuilder.append(subs);
             }
 
-            if (mHlsUrl != null) { // live stream usually
-                mMediaFoundCallback.onHLSFound(mHlsUrl);
-            } else if (mDashUrl != null) { // dash live stream, contains more formats
-                mMediaFoundCallback.onDashUrlFound(mDashUrl);
-            } else if (!mMPDBuilder.isEmpty()) {
-                mMediaFoundCallback.onDashMPDFound(mMPDBuilder.build());
-            } else if (!mUrlListBuilder.isEmpty()) { // fallback to the simple formats
-                mMediaFoundCallback.onUrlListFound(mUrlListBuilder.buildUriList());
+            if (hlsUrl != null) { // live stream usually
+                mMediaFoundCallback.onHLSFound(hlsUrl);
+            } else if (dashUrl != null) { // dash live stream, contains more formats
+                mMediaFoundCallback.onDashUrlFound(dashUrl);
+            } else if (mpdBuilder != null && !mpdBuilder.isEmpty()) {
+                mMediaFoundCallback.onDashMPDFound(mpdBuilder.build());
+            } else if (!urlListBuilder.isEmpty()) { // fallback to the simple formats
+                mMediaFoundCallback.onUrlListFound(urlListBuilder.buildUriList());
             }
 
             mMediaFoundCallback.onDone();
         }
+
+        /**
+         * Item could be played without the extra requests for the index
+         */
+        private static boolean hasRanges(MediaItem item) {
+            return item.getInit() != null && item.getIndex() != null && !NULL_INDEX_RANGE.equals(item.getIndex());
+        }
     }
 
     /**
@@ -115,26 +196,43 @@ public class SimpleYouTubeInfoParser implements YouTubeInfoParser {
      * @param content get_video_info content
      */
     public SimpleYouTubeInfoParser(InputStream ...content) {
-        mContent = new String[content.length];
+        mContent = new UrlEncodedIndex[content.length];
         readContent(content);
     }
 
+    /**
+     * Content is indexed while reading, whole body string isn't created
+     */
     private void readContent(InputStream[] content) {
         for (int i = 0; i < content.length; i++) {
-            mContent[i] = Helpers.toString(content[i]);
+            mContent[i] = content[i] == null ? null : UrlEncodedIndex.parse(content[i]);
         }
     }
 
+    /**
+     * Sources are parsed one by one, deciphering of each could finish asynchronously
+     */
     @Override
     public void parse(OnMediaFoundCallback mpdFoundCallback) {
-        YouTubeInfoVisitor visitor = new MergeMediaVisitor(mpdFoundCallback);
+        MergeMediaVisitor visitor = new MergeMediaVisitor(mpdFoundCallback);
+        List<YouTubeInfoVisitable> visitables = new ArrayList<>();
+        List<SourceVisitor> sources = new ArrayList<>();
 
-        for (String content : mContent) {
+        for (UrlEncodedIndex content : mContent) {
             if (content == null)
                 continue;
 
-            YouTubeInfoVisitable visitable = new SimpleYouTubeInfoManager(content);
-            visitable.accept(visitor);
+            visitables.add(new SimpleYouTubeInfoManager(content));
+            sources.add(visitor.createSource());
+        }
+
+        if (visitables.isEmpty()) {
+            mpdFoundCallback.onDone();
+            return;
+        }
+
+        for (int i = 0; i < visitables.size(); i++) {
+            visitables.get(i).accept(sources.get(i));
         }
     }
 }
@@ -0,0 +1,294 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Url-encoded content (e.g. <em>get_video_info</em>) split once into the key-value index<br/>
+ * Values are kept encoded and decoded only when requested.
+ * Big values (e.g. <em>player_response</em>) could be read through the decoding {@link Reader} without extra copies.
+ */
+public class UrlEncodedIndex {
+    private static final String TAG = UrlEncodedIndex.class.getSimpleName();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+    private static final int BUFFER_SIZE = 8192;
+    private final Map<String, String> mValues = new LinkedHashMap<>();
+
+    private UrlEncodedIndex() {
+    }
+
+    /**
+     * @param content query string or url with query string
+     */
+    public static UrlEncodedIndex parse(String content) {
+        UrlEncodedIndex index = new UrlEncodedIndex();
+
+        if (content == null) {
+            return index;
+        }
+
+        int start = 0;
+
+        if (content.startsWith("http")) {
+            start = content.indexOf('?') + 1;
+
+            if (start == 0) {
+                return index;
+            }
+        }
+
+        int end = content.indexOf('#', start);
+        end = end == -1 ? content.length() : end;
+
+        while (start < end) {
+            int next = content.indexOf('&', start);
+            next = next == -1 || next > end ? end : next;
+            int separator = content.indexOf('=', start);
+
+            if (separator == -1 || separator > next) {
+                index.put(content.substring(start, next), "");
+            } else {
+                index.put(content.substring(start, separator), content.substring(separator + 1, next));
+            }
+
+            start = next + 1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Builds index while reading the stream. Stream is closed afterwards.
+     */
+    public static UrlEncodedIndex parse(InputStream content) {
+        UrlEncodedIndex index = new UrlEncodedIndex();
+
+        if (content == null) {
+            return index;
+        }
+
+        Token key = new Token();
+        Token value = new Token();
+        Token current = key;
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try {
+            int len;
+
+            while ((len = content.read(buffer)) != -1) {
+                int start = 0;
+
+                for (int i = 0; i < len; i++) {
+                    byte b = buffer[i];
+
+                    if (b == '&') {
+                        current.append(buffer, start, i);
+                        index.put(key, value);
+                        current = key;
+                        start = i + 1;
+                    } else if (b == '=' && current == key) {
+                        current.append(buffer, start, i);
+                        current = value;
+                        start = i + 1;
+                    }
+                }
+
+                current.append(buffer, start, len);
+            }
+
+            index.put(key, value);
+        } catch (IOException e) {
+            Log.e(TAG, "Error while reading url-encoded content: " + e.getMessage());
+        } finally {
+            try {
+                content.close();
+            } catch (IOException e) {
+                // NOP
+            }
+        }
+
+        return index;
+    }
+
+    private void put(Token key, Token value) {
+        if (key.mLength != 0) {
+            put(key.toString(), value.toString());
+        }
+
+        key.mLength = 0;
+        value.mLength = 0;
+    }
+
+    private void put(String rawKey, String rawValue) {
+        if (rawKey.isEmpty()) {
+            return;
+        }
+
+        String key = decode(rawKey);
+
+        // like Uri.getQueryParameter: first value wins
+        if (!mValues.containsKey(key)) {
+            mValues.put(key, rawValue);
+        }
+    }
+
+    /**
+     * @return decoded value, empty string if value is empty or null if there is no such key
+     */
+    public String get(String key) {
+        String value = mValues.get(key);
+
+        return value == null ? null : decode(value);
+    }
+
+    /**
+     * @return decoded value or null if value is empty or there is no such key
+     */
+    public String getNonEmpty(String key) {
+        String value = mValues.get(key);
+
+        return value == null || value.isEmpty() ? null : decode(value);
+    }
+
+    /**
+     * Decodes value on the fly
+     * @return reader or null if value is empty or there is no such key
+     */
+    public Reader getReader(String key) {
+        String value = mValues.get(key);
+
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        return new InputStreamReader(new DecodingInputStream(value), UTF_8);
+    }
+
+    public boolean contains(String key) {
+        return mValues.containsKey(key);
+    }
+
+    public boolean isEmpty() {
+        return mValues.isEmpty();
+    }
+
+    /**
+     * @return original (encoded) content
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+
+        for (Entry<String, String> entry : mValues.entrySet()) {
+            if (result.length() != 0) {
+                result.append('&');
+            }
+
+            result.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+
+        return result.toString();
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+            return value;
+        }
+
+        byte[] result = new byte[value.length()];
+        int len = new DecodingInputStream(value).read(result, 0, result.length);
+
+        return len <= 0 ? "" : new String(result, 0, len, UTF_8);
+    }
+
+    /**
+     * Growable byte buffer. Url-encoded content is ascii, so bytes are converted to chars as is.
+     */
+    private static class Token {
+        private byte[] mBytes = new byte[64];
+        private int mLength;
+
+        void append(byte[] buffer, int start, int end) {
+            int len = end - start;
+
+            if (len <= 0) {
+                return;
+            }
+
+            if (mLength + len > mBytes.length) {
+                byte[] bytes = new byte[Math.max(mBytes.length * 2, mLength + len)];
+                System.arraycopy(mBytes, 0, bytes, 0, mLength);
+                mBytes = bytes;
+            }
+
+            System.arraycopy(buffer, start, mBytes, mLength, len);
+            mLength += len;
+        }
+
+        @Override
+        public String toString() {
+            return new String(mBytes, 0, mLength, ISO_8859_1);
+        }
+    }
+
+    /**
+     * Percent-decoder. Malformed sequences are left as is. Plus is treated as space.
+     */
+    private static class DecodingInputStream extends InputStream {
+        private final String mValue;
+        private int mPosition;
+
+        DecodingInputStream(String value) {
+            mValue = value;
+        }
+
+        @Override
+        public int read() {
+            if (mPosition >= mValue.length()) {
+                return -1;
+            }
+
+            char c = mValue.charAt(mPosition++);
+
+            if (c == '+') {
+                return ' ';
+            }
+
+            if (c == '%' && mPosition + 1 < mValue.length()) {
+                int high = Character.digit(mValue.charAt(mPosition), 16);
+                int low = Character.digit(mValue.charAt(mPosition + 1), 16);
+
+                if (high != -1 && low != -1) {
+                    mPosition += 2;
+                    return (high << 4) | low;
+                }
+            }
+
+            return c & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            int count = 0;
+
+            while (count < length && mPosition < mValue.length()) {
+                buffer[offset + count++] = (byte) read();
+            }
+
+            return count == 0 ? -1 : count;
+        }
+    }
+}
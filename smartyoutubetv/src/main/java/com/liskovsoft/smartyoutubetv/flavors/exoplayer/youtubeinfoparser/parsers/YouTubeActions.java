@@ -2,12 +2,10 @@ package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parser
 
 import android.content.Context;
 import android.os.Handler;
-import android.os.Looper;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonNextParser.VideoMetadata;
 import com.liskovsoft.smartyoutubetv.misc.HeaderManager;
-import okhttp3.Response;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 
 public class YouTubeActions {
     private static final String TAG = YouTubeActions.class.getSimpleName();
@@ -31,7 +29,7 @@ public class YouTubeActions {
 
     public YouTubeActions(Context context) {
         mContext = context;
-        mManager = new HeaderManager(mContext);
+        mManager = HeaderManager.instance(mContext);
         mLikePostBody = POST_BODY.replace("%DATA_OBJ%", VIDEO_ID_OBJ);
         mSubPostBody = POST_BODY.replace("%DATA_OBJ%", CHANNEL_ID_OBJ);
     }
@@ -109,14 +107,7 @@ public class YouTubeActions {
     }
 
     private void postUrlData(String url, String body) {
-        if (Looper.myLooper() == Looper.getMainLooper()) { // we are on the main thread
-            new Thread(() -> postUrlDataReal(url, body)).start();
-        } else {
-            postUrlDataReal(url, body);
-        }
-    }
-
-    private void postUrlDataReal(String url, String body) {
-        OkHttpHelpers.doPostOkHttpRequest(url, mManager.getHeaders(), body, "application/json");
+        // result isn't used, so don't block the caller (could be the main thread)
+        OkHttpManager.getInstance().doPostRequestAsync(url, mManager.getHeaders(), body, "application/json");
     }
 }
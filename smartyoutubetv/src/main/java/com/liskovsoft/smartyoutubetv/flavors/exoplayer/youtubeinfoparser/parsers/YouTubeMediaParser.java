@@ -1,25 +1,23 @@
 package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers;
 
 import android.net.Uri;
-import com.liskovsoft.browser.Browser;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.DecipherOnlySignaturesDoneEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.DecipherOnlySignaturesEvent;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherRoutine;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherRoutineHolder;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.SimpleYouTubeGenericInfo;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.SimpleYouTubeMediaItem;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.MediaItem;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.tmp.CipherUtils;
+import com.liskovsoft.smartyoutubetv.injectors.WebViewChannel;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyPathQueryString;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryString;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryStringFactory;
-import com.squareup.otto.Subscribe;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Parses input (get_video_info) to {@link MediaItem}
@@ -33,8 +31,7 @@ public class YouTubeMediaParser {
     private static final String FORMATS_DELIM = ","; // %2C
     private static final int DECIPHERED_SIGNATURE_LENGTH = 81;
 
-    private final String mContent;
-    private final int mId;
+    private final UrlEncodedIndex mVideoInfo;
     private ParserListener mListener;
     private List<MediaItem> mMediaItems;
     /**
@@ -46,12 +43,11 @@ public class YouTubeMediaParser {
     private List<MediaItem> mNewMediaItems;
     private JsonInfoParser mParser;
 
-    public YouTubeMediaParser(String content, JsonInfoParser parser) {
-        mContent = content;
-        mId = new Random().nextInt();
+    public YouTubeMediaParser(UrlEncodedIndex videoInfo, JsonInfoParser parser) {
+        mVideoInfo = videoInfo;
 
         if (Log.getLogType() == Log.LOG_TYPE_FILE) {
-            Log.d(TAG, content);
+            Log.d(TAG, videoInfo.toString());
         }
 
         mParser = parser;
@@ -59,17 +55,16 @@ public class YouTubeMediaParser {
 
     public GenericInfo extractGenericInfo() {
         GenericInfo info = new SimpleYouTubeGenericInfo();
-        Uri videoInfo = ParserUtils.parseUri(mContent);
-        info.setLengthSeconds(videoInfo.getQueryParameter(GenericInfo.LENGTH_SECONDS));
-        info.setTitle(videoInfo.getQueryParameter(GenericInfo.TITLE));
-        info.setAuthor(videoInfo.getQueryParameter(GenericInfo.AUTHOR));
-        info.setViewCount(videoInfo.getQueryParameter(GenericInfo.VIEW_COUNT));
-        info.setTimestamp(videoInfo.getQueryParameter(GenericInfo.TIMESTAMP));
+        info.setLengthSeconds(mVideoInfo.get(GenericInfo.LENGTH_SECONDS));
+        info.setTitle(mVideoInfo.get(GenericInfo.TITLE));
+        info.setAuthor(mVideoInfo.get(GenericInfo.AUTHOR));
+        info.setViewCount(mVideoInfo.get(GenericInfo.VIEW_COUNT));
+        info.setTimestamp(mVideoInfo.get(GenericInfo.TIMESTAMP));
         return info;
     }
 
     private void extractHlsUrl() {
-        String url = ParserUtils.extractParam(mContent, HLS_URL);
+        String url = mVideoInfo.getNonEmpty(HLS_URL);
 
         if (url == null) {
             url = mParser.extractHlsUrl();
@@ -86,7 +81,7 @@ public class YouTubeMediaParser {
     }
 
     private void extractDashMPDUrl() {
-        String url = ParserUtils.extractParam(mContent, DASH_MPD_URL);
+        String url = mVideoInfo.getNonEmpty(DASH_MPD_URL);
 
         if (url == null) {
             url = mParser.extractDashUrl();
@@ -96,11 +91,11 @@ public class YouTubeMediaParser {
         mDashMPDUrl = new MyPathQueryString(url);
     }
 
-    private List<MediaItem> extractUrlEncodedMediaItems(String content, String queryParam) {
+    private List<MediaItem> extractUrlEncodedMediaItems(String queryParam) {
         List<MediaItem> list = new ArrayList<>();
         List<String> items = new ArrayList<>();
 
-        String formats = ParserUtils.extractParam(content, queryParam);
+        String formats = mVideoInfo.getNonEmpty(queryParam);
 
         // stream may not contain formats
         if (formats != null) {
@@ -115,12 +110,12 @@ public class YouTubeMediaParser {
         return list;
     }
 
-    private List<MediaItem> extractDashMediaItems(String content) {
-        return extractUrlEncodedMediaItems(content, DASH_FORMATS);
+    private List<MediaItem> extractDashMediaItems() {
+        return extractUrlEncodedMediaItems(DASH_FORMATS);
     }
 
-    private List<MediaItem> extractRegularMediaItems(String content) {
-        return extractUrlEncodedMediaItems(content, REGULAR_FORMATS);
+    private List<MediaItem> extractRegularMediaItems() {
+        return extractUrlEncodedMediaItems(REGULAR_FORMATS);
     }
 
     /**
@@ -152,10 +147,10 @@ public class YouTubeMediaParser {
         // TODO: signature bug on the VEVO videos
         if (mMediaItems.isEmpty()) {
             Log.d(TAG, "JSON section doesn't contain dash formats... Trying to get ones from url-encoded section...");
-            mMediaItems.addAll(extractDashMediaItems(mContent));
+            mMediaItems.addAll(extractDashMediaItems());
         }
 
-        mMediaItems.addAll(extractRegularMediaItems(mContent));
+        mMediaItems.addAll(extractRegularMediaItems());
     }
 
     private MediaItem createMediaItem(Map<String, Object> content) {
@@ -174,18 +169,18 @@ public class YouTubeMediaParser {
     }
 
     private MediaItem createMediaItem(String content) {
-        Uri mediaUrl = ParserUtils.parseUri(content);
+        UrlEncodedIndex mediaUrl = UrlEncodedIndex.parse(content);
         SimpleYouTubeMediaItem mediaItem = new SimpleYouTubeMediaItem();
-        mediaItem.setBitrate(mediaUrl.getQueryParameter(MediaItem.BITRATE));
-        mediaItem.setUrl(mediaUrl.getQueryParameter(MediaItem.URL));
-        mediaItem.setITag(mediaUrl.getQueryParameter(MediaItem.ITAG));
-        mediaItem.setType(mediaUrl.getQueryParameter(MediaItem.TYPE));
-        mediaItem.setS(mediaUrl.getQueryParameter(MediaItem.S));
-        mediaItem.setClen(mediaUrl.getQueryParameter(MediaItem.CLEN));
-        mediaItem.setFps(mediaUrl.getQueryParameter(MediaItem.FPS));
-        mediaItem.setIndex(mediaUrl.getQueryParameter(MediaItem.INDEX));
-        mediaItem.setInit(mediaUrl.getQueryParameter(MediaItem.INIT));
-        mediaItem.setSize(mediaUrl.getQueryParameter(MediaItem.SIZE));
+        mediaItem.setBitrate(mediaUrl.get(MediaItem.BITRATE));
+        mediaItem.setUrl(mediaUrl.get(MediaItem.URL));
+        mediaItem.setITag(mediaUrl.get(MediaItem.ITAG));
+        mediaItem.setType(mediaUrl.get(MediaItem.TYPE));
+        mediaItem.setS(mediaUrl.get(MediaItem.S));
+        mediaItem.setClen(mediaUrl.get(MediaItem.CLEN));
+        mediaItem.setFps(mediaUrl.get(MediaItem.FPS));
+        mediaItem.setIndex(mediaUrl.get(MediaItem.INDEX));
+        mediaItem.setInit(mediaUrl.get(MediaItem.INIT));
+        mediaItem.setSize(mediaUrl.get(MediaItem.SIZE));
         return mediaItem;
     }
 
@@ -194,8 +189,26 @@ public class YouTubeMediaParser {
             throw new IllegalStateException("No media items found!");
         }
 
-        Browser.getBus().register(this);
-        Browser.getBus().post(new DecipherOnlySignaturesEvent(extractSignatures(), mId));
+        List<String> signatures = extractSignatures();
+
+        DecipherRoutine routine = DecipherRoutineHolder.getInstance().getRoutine();
+
+        if (routine != null) { // fast path: no WebView round trip
+            onSignaturesDeciphered(routine.decipher(signatures));
+            return;
+        }
+
+        // fallback: routine isn't loaded yet or couldn't be compiled
+        WebViewChannel.instance().decipher(signatures, result -> {
+            if (result == null) {
+                Log.e(TAG, "Signatures weren't deciphered. Skipping formats...");
+                mMediaItems.clear();
+                mListener.onExtractMediaItemsAndDecipher(mMediaItems);
+                return;
+            }
+
+            onSignaturesDeciphered(result);
+        });
     }
 
     private List<String> extractSignatures() {
@@ -224,16 +237,7 @@ public class YouTubeMediaParser {
                 query.get(MediaItem.S));
     }
 
-    // NOTE: don't delete
-    @Subscribe
-    public void decipherSignaturesDone(DecipherOnlySignaturesDoneEvent doneEvent) {
-        if (doneEvent.getId() != mId) {
-            return;
-        }
-
-        Browser.getBus().unregister(this);
-
-        List<String> signatures = doneEvent.getSignatures();
+    private void onSignaturesDeciphered(List<String> signatures) {
         String lastSignature = signatures.get(signatures.size() - 1);
 
         doCallbackOnDashMPDUrl(lastSignature);
@@ -387,9 +391,9 @@ public class YouTubeMediaParser {
         }
 
         // music video
-        Uri parseUri = ParserUtils.parseUri(item.getCipher());
-        String cipher = parseUri.getQueryParameter(MediaItem.S);
-        String url = parseUri.getQueryParameter(MediaItem.URL);
+        UrlEncodedIndex cipherInfo = UrlEncodedIndex.parse(item.getCipher());
+        String cipher = cipherInfo.get(MediaItem.S);
+        String url = cipherInfo.get(MediaItem.URL);
         item.setS(cipher);
         item.setUrl(url);
     }
@@ -18,10 +18,11 @@ public class YouTubeSubParser {
      * Extracts subtitle, images and other objects from the <em>get_video_info</em> file
      * <br/>
      * For video object parsing use {@link SimpleYouTubeInfoParser}
-     * @param content get_video_info file content
+     * @param videoInfo get_video_info file content
+     * @param parser parser of the same content
      */
-    public YouTubeSubParser(String content, JsonInfoParser parser) {
-        if (content == null) {
+    public YouTubeSubParser(UrlEncodedIndex videoInfo, JsonInfoParser parser) {
+        if (videoInfo == null) {
             throw new IllegalStateException("content cannot be null");
         }
 
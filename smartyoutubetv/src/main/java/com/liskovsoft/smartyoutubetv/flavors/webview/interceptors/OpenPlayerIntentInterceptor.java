@@ -9,7 +9,7 @@ import android.webkit.WebResourceResponse;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyUrlEncodedQueryString;
 import com.liskovsoft.smartyoutubetv.interceptors.RequestInterceptor;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
 import okhttp3.Response;
 
 import java.io.ByteArrayInputStream;
@@ -18,6 +18,7 @@ import java.nio.charset.Charset;
 import java.util.Scanner;
 
 public class OpenPlayerIntentInterceptor extends RequestInterceptor {
+    private static final String[] URL_PATTERNS = {"get_video_info", "googlevideo"};
     private final Context mContext;
     private final String[] mDevicesToProcess = {
             //"mibox_mini (forrestgump)",
@@ -33,6 +34,11 @@ public class OpenPlayerIntentInterceptor extends RequestInterceptor {
         mContext = context;
     }
 
+    @Override
+    public String[] getUrlPatterns() {
+        return URL_PATTERNS;
+    }
+
     @Override
     public boolean test(String url) {
         if (url.contains("get_video_info") || url.contains("googlevideo")) {
@@ -61,7 +67,7 @@ public class OpenPlayerIntentInterceptor extends RequestInterceptor {
     }
 
     private WebResourceResponse cleanupDashInfo(String url) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
 
         if (response == null) // network error
             return null;
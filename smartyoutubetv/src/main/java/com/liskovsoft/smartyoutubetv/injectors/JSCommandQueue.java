@@ -0,0 +1,142 @@
+package com.liskovsoft.smartyoutubetv.injectors;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.injectors.PendingResults.Callback;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Commands posted within one frame are sent to the WebView as the single script<br/>
+ * Page runs the batch once it's ready (see CommandUtils.runBatch in the common scripts)
+ * and returns results of all commands with the single bridge call.
+ * Pending commands with the same key are merged: the latest code runs at the position of the latest post, every caller gets its result.
+ */
+public final class JSCommandQueue {
+    private static final String TAG = JSCommandQueue.class.getSimpleName();
+    private static final long FRAME_MS = 16;
+    private static final long RESULT_TIMEOUT_MS = 10_000;
+    private static final String BATCH_TEMPLATE = "CommandUtils.runBatch(%s, [%s]);";
+    private static final String COMMAND_TEMPLATE = "function(){%s\n}";
+    private static final int NO_RESULTS_ID = 0;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final PendingResults<String[]> mBatchResults = new PendingResults<>("Command results", RESULT_TIMEOUT_MS);
+    private final Map<Object, Command> mPending = new LinkedHashMap<>();
+    private final WebViewChannel mChannel;
+    private final Runnable mFlush = this::flush;
+    private boolean mFlushScheduled;
+
+    private static class Command {
+        private String mCode;
+        private final List<Callback<String>> mCallbacks = new ArrayList<>();
+
+        private Command(String code) {
+            mCode = code;
+        }
+
+        private void onResult(String result) {
+            for (Callback<String> callback : mCallbacks) {
+                callback.onResult(result);
+            }
+        }
+    }
+
+    JSCommandQueue(WebViewChannel channel) {
+        mChannel = channel;
+    }
+
+    public void post(String code) {
+        post(null, code, null);
+    }
+
+    /**
+     * @param key commands with the same key are merged, null if command shouldn't be merged
+     * @param code function body, value of the <em>return</em> statement is passed to the callback
+     * @param callback result converted to string, null if there is no result or WebView doesn't answer
+     */
+    public void post(String key, String code, Callback<String> callback) {
+        synchronized (mPending) {
+            Object commandKey = key != null ? key : new Object();
+            Command command = mPending.get(commandKey);
+
+            if (command == null) {
+                command = new Command(code);
+                mPending.put(commandKey, command);
+            } else {
+                command.mCode = code; // superseded by the newer one
+                mPending.remove(commandKey); // runs in the order of the latest post
+                mPending.put(commandKey, command);
+            }
+
+            if (callback != null) {
+                command.mCallbacks.add(callback);
+            }
+
+            if (!mFlushScheduled) {
+                mFlushScheduled = true;
+                mHandler.postDelayed(mFlush, FRAME_MS);
+            }
+        }
+    }
+
+    /**
+     * Called from the JS bridge thread
+     * @param results JSON array of strings
+     */
+    public void onResults(String results, int batchId) {
+        String[] parsed = null;
+
+        try {
+            parsed = new Gson().fromJson(results, String[].class);
+        } catch (JsonParseException e) {
+            Log.e(TAG, "Malformed command results: " + results);
+        }
+
+        mBatchResults.complete(batchId, parsed);
+    }
+
+    private void flush() {
+        List<Command> batch;
+
+        synchronized (mPending) {
+            mFlushScheduled = false;
+            batch = new ArrayList<>(mPending.values());
+            mPending.clear();
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        StringBuilder commands = new StringBuilder();
+        boolean hasCallbacks = false;
+
+        for (Command command : batch) {
+            if (commands.length() > 0) {
+                commands.append(",");
+            }
+
+            commands.append(String.format(COMMAND_TEMPLATE, command.mCode));
+            hasCallbacks |= !command.mCallbacks.isEmpty();
+        }
+
+        int batchId = hasCallbacks ? mBatchResults.add(results -> dispatch(batch, results)) : NO_RESULTS_ID;
+
+        Log.d(TAG, String.format("Running %s commands. Batch id: %s", batch.size(), batchId));
+
+        mChannel.runJS(String.format(BATCH_TEMPLATE, batchId, commands));
+    }
+
+    private static void dispatch(List<Command> batch, String[] results) {
+        for (int i = 0; i < batch.size(); i++) {
+            String result = results != null && i < results.length ? results[i] : null;
+            batch.get(i).onResult(result);
+        }
+    }
+}
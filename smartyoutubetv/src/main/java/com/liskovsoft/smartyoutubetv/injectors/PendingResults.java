@@ -0,0 +1,80 @@
+package com.liskovsoft.smartyoutubetv.injectors;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Callbacks waiting for the WebView's answers, keyed by correlation id<br/>
+ * Result is delivered straight from the JS bridge thread. If WebView never answers,
+ * the callback gets null after the timeout (on the main thread) and is dropped, so nothing leaks.
+ */
+public final class PendingResults<T> {
+    private static final String TAG = PendingResults.class.getSimpleName();
+    private static final Handler sTimeoutHandler = new Handler(Looper.getMainLooper());
+    private final Map<Integer, Pending> mPending = new ConcurrentHashMap<>();
+    private final AtomicInteger mLastId = new AtomicInteger();
+    private final String mName;
+    private final long mTimeoutMs;
+
+    public interface Callback<T> {
+        /**
+         * @param result WebView's answer or null on timeout
+         */
+        void onResult(@Nullable T result);
+    }
+
+    private class Pending implements Runnable {
+        private final int mId;
+        private final Callback<T> mCallback;
+
+        private Pending(int id, Callback<T> callback) {
+            mId = id;
+            mCallback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (mPending.remove(mId) != null) {
+                Log.e(TAG, String.format("%s: WebView doesn't answer. Id: %s", mName, mId));
+                mCallback.onResult(null);
+            }
+        }
+    }
+
+    public PendingResults(String name, long timeoutMs) {
+        mName = name;
+        mTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return correlation id that should be passed to the WebView and returned back with the result
+     */
+    public int add(Callback<T> callback) {
+        int id = mLastId.incrementAndGet();
+        Pending pending = new Pending(id, callback);
+        mPending.put(id, pending);
+        sTimeoutHandler.postDelayed(pending, mTimeoutMs);
+        return id;
+    }
+
+    /**
+     * @return false if result is late or unknown
+     */
+    public boolean complete(int id, T result) {
+        Pending pending = mPending.remove(id);
+
+        if (pending == null) {
+            return false;
+        }
+
+        sTimeoutHandler.removeCallbacks(pending);
+        pending.mCallback.onResult(result);
+        return true;
+    }
+}
@@ -1,18 +1,19 @@
 package com.liskovsoft.smartyoutubetv.injectors;
 
 import android.util.Log;
-import com.liskovsoft.browser.Browser;
-import com.liskovsoft.smartyoutubetv.events.AssetFileInjectEvent;
-import com.squareup.otto.Subscribe;
 
-import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class ResourceInjectorWatcher {
     private static final String TAG = ResourceInjectorWatcher.class.getSimpleName();
     private static ResourceInjectorWatcher sInstance;
-    private HashSet<Listener> mListeners = new HashSet<>();
+    /**
+     * Key is the listener's hash that is baked into the injected test script
+     */
+    private final Map<String, Listener> mListeners = new ConcurrentHashMap<>();
 
-    public static ResourceInjectorWatcher instance() {
+    public static synchronized ResourceInjectorWatcher instance() {
         if (sInstance == null) {
             sInstance = new ResourceInjectorWatcher();
         }
@@ -24,23 +25,24 @@ final class ResourceInjectorWatcher {
     }
 
     private ResourceInjectorWatcher() {
-        Browser.getBus().register(this);
     }
 
-    @Subscribe
-    public void onAssetFileInjectEvent(AssetFileInjectEvent event) {
-        final String fileName = event.getFileName();
-        final String targetHash = event.getListenerHash();
-        Log.d(TAG, "Injecting asset: " + fileName);
+    /**
+     * Called from the JS bridge thread
+     */
+    public void onAssetFileInject(String fileName, String listenerHash) {
+        Listener listener = listenerHash == null ? null : mListeners.get(listenerHash);
 
-        for (Listener listener : mListeners) {
-            String hash = String.valueOf(listener.hashCode());
-            if (hash.equals(targetHash))
-                listener.onAssetFileInjectEvent(fileName);
+        if (listener == null) {
+            Log.e(TAG, "Unknown listener. Skipping asset: " + fileName);
+            return;
         }
+
+        Log.d(TAG, "Injecting asset: " + fileName);
+        listener.onAssetFileInjectEvent(fileName);
     }
 
     public void addListener(Listener listener) {
-        mListeners.add(listener);
+        mListeners.put(String.valueOf(listener.hashCode()), listener);
     }
 }
@@ -0,0 +1,111 @@
+package com.liskovsoft.smartyoutubetv.injectors;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.injectors.PendingResults.Callback;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Typed requests between the app and the WebView (replaces the bus on the hot paths)<br/>
+ * Every request kind has a single handler slot, so dispatch is a field read: no reflection and no per-request receivers.
+ * Answers from the JS bridge complete the matching {@link PendingResults} by id.
+ * Page commands go through the {@link JSCommandQueue}.
+ */
+public final class WebViewChannel {
+    private static final String TAG = WebViewChannel.class.getSimpleName();
+    private static final long DECIPHER_TIMEOUT_MS = 20_000; // player script could still be loading
+    private static final WebViewChannel sInstance = new WebViewChannel();
+    private final PendingResults<String[]> mSignatureResults = new PendingResults<>("Deciphered signatures", DECIPHER_TIMEOUT_MS);
+    private final JSCommandQueue mCommandQueue = new JSCommandQueue(this);
+    private volatile JSRunner mJSRunner;
+    private volatile Decipherer mDecipherer;
+    private volatile DecipherCodeProvider mDecipherCodeProvider;
+
+    public interface JSRunner {
+        void runJS(String code);
+    }
+
+    public interface Decipherer {
+        /**
+         * Answer should be passed to the {@link #getSignatureResults()} with the same id
+         */
+        void decipher(List<String> signatures, int id);
+    }
+
+    public interface DecipherCodeProvider {
+        /**
+         * @param callback code of the current player version or null if it couldn't be loaded
+         */
+        void getDecipherCode(Callback<String> callback);
+    }
+
+    private WebViewChannel() {
+    }
+
+    public static WebViewChannel instance() {
+        return sInstance;
+    }
+
+    public void setJSRunner(JSRunner runner) {
+        mJSRunner = runner;
+    }
+
+    public void setDecipherer(Decipherer decipherer) {
+        mDecipherer = decipherer;
+    }
+
+    public void setDecipherCodeProvider(DecipherCodeProvider provider) {
+        mDecipherCodeProvider = provider;
+    }
+
+    public void runJS(String code) {
+        JSRunner runner = mJSRunner;
+
+        if (runner == null) {
+            Log.e(TAG, "WebView isn't ready. Skipping js code...");
+            return;
+        }
+
+        runner.runJS(code);
+    }
+
+    /**
+     * @param callback deciphered signatures or null if WebView couldn't do this
+     */
+    public void decipher(List<String> signatures, Callback<List<String>> callback) {
+        if (signatures.isEmpty() || signatures.get(0) == null) { // signatures aren't ciphered
+            callback.onResult(signatures);
+            return;
+        }
+
+        int id = mSignatureResults.add(result -> callback.onResult(result == null ? null : Arrays.asList(result)));
+        Decipherer decipherer = mDecipherer;
+
+        if (decipherer == null) {
+            mSignatureResults.complete(id, null);
+            return;
+        }
+
+        decipherer.decipher(signatures, id);
+    }
+
+    public void getDecipherCode(Callback<String> callback) {
+        DecipherCodeProvider provider = mDecipherCodeProvider;
+
+        if (provider == null) {
+            callback.onResult(null);
+            return;
+        }
+
+        provider.getDecipherCode(callback);
+    }
+
+    public JSCommandQueue getCommandQueue() {
+        return mCommandQueue;
+    }
+
+    public PendingResults<String[]> getSignatureResults() {
+        return mSignatureResults;
+    }
+}
@@ -15,12 +15,8 @@ import com.liskovsoft.sharedutils.helpers.AppInfoHelpers;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.helpers.MessageHelpers;
 import com.liskovsoft.smartyoutubetv.prefs.SmartPreferences;
-import com.liskovsoft.smartyoutubetv.events.AssetFileInjectEvent;
 import com.liskovsoft.smartyoutubetv.flavors.common.TwoFragmentsManagerActivity;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.events.PostDecipheredSignaturesEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.injectors.GenericEventResourceInjector.GenericBooleanResultEvent;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.injectors.GenericEventResourceInjector.GenericStringResultEvent;
-import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.injectors.GenericEventResourceInjector.GenericStringResultEventWithId;
 import com.liskovsoft.smartyoutubetv.misc.CodecSelectorAddon;
 import com.liskovsoft.smartyoutubetv.misc.oldyoutubeinfoparser.events.SwitchResolutionEvent;
 
@@ -119,8 +115,7 @@ public class WebViewJavaScriptInterface {
     @org.xwalk.core.JavascriptInterface
     public void onAssetFileInject(String fileName, String listenerHash) {
         if (fileName != null) {
-            Log.d(TAG, "Posting event: " + fileName);
-            Browser.getBus().post(new AssetFileInjectEvent(fileName, listenerHash));
+            ResourceInjectorWatcher.instance().onAssetFileInject(fileName, listenerHash);
         }
     }
 
@@ -128,14 +123,14 @@ public class WebViewJavaScriptInterface {
     @org.xwalk.core.JavascriptInterface
     public void postDecipheredSignatures(String[] signatures, int id) {
         Log.i(TAG, "Just now received deciphered signatures from webview.");
-        Browser.getBus().post(new PostDecipheredSignaturesEvent(signatures, id));
+        WebViewChannel.instance().getSignatureResults().complete(id, signatures);
     }
 
     @JavascriptInterface
     @org.xwalk.core.JavascriptInterface
-    public void onGenericBooleanResult(boolean result, int id) {
-        Log.i(TAG, "Received generic boolean result from webview.");
-        Browser.getBus().post(new GenericBooleanResultEvent(result, id));
+    public void onCommandResults(String results, int batchId) {
+        Log.i(TAG, "Received command results from webview.");
+        WebViewChannel.instance().getCommandQueue().onResults(results, batchId);
     }
 
     @JavascriptInterface
@@ -145,13 +140,6 @@ public class WebViewJavaScriptInterface {
         Browser.getBus().post(new GenericStringResultEvent(result));
     }
 
-    @JavascriptInterface
-    @org.xwalk.core.JavascriptInterface
-    public void onGenericStringResultWithId(String result, int id) {
-        Log.i(TAG, "Received generic string result from webview.");
-        Browser.getBus().post(new GenericStringResultEventWithId(result, id));
-    }
-
     @JavascriptInterface
     @org.xwalk.core.JavascriptInterface
     public void showExitMsg() {
@@ -0,0 +1,65 @@
+package com.liskovsoft.smartyoutubetv.interceptors;
+
+import android.os.SystemClock;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Whole response body kept in memory<br/>
+ * Fetched once, then read by the app's parsers and returned to the WebView as many times as needed.
+ */
+public final class BufferedResponse {
+    private static final String TAG = BufferedResponse.class.getSimpleName();
+    private static final MediaType DEFAULT_TYPE = MediaType.parse("text/plain");
+    private final MediaType mContentType;
+    private final byte[] mContent;
+    private final long mCreatedMs;
+
+    private BufferedResponse(MediaType contentType, byte[] content) {
+        mContentType = contentType != null ? contentType : DEFAULT_TYPE;
+        mContent = content;
+        mCreatedMs = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * @return buffered body or null if request is failed
+     */
+    public static BufferedResponse from(Response response) {
+        if (response == null) {
+            return null;
+        }
+
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful() || body == null) {
+                Log.e(TAG, "Bad response: " + response.code() + " " + response.request().url());
+                return null;
+            }
+
+            return new BufferedResponse(body.contentType(), body.bytes());
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read response: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public MediaType getContentType() {
+        return mContentType;
+    }
+
+    /**
+     * Every call returns new independent stream
+     */
+    public InputStream open() {
+        return new ByteArrayInputStream(mContent);
+    }
+
+    public boolean isOlderThan(long ageMs) {
+        return SystemClock.elapsedRealtime() - mCreatedMs > ageMs;
+    }
+}
@@ -4,23 +4,22 @@ import android.content.Context;
 import android.webkit.WebResourceResponse;
 import com.liskovsoft.sharedutils.mylogger.Log;
 
-import java.util.ArrayList;
-
 public class MainRequestInterceptor extends RequestInterceptor {
     private static final String TAG = MainRequestInterceptor.class.getSimpleName();
     private Context mContext;
-    private final ArrayList<RequestInterceptor> mInterceptors;
+    private final UrlRouter mRouter;
 
     public MainRequestInterceptor(Context context) {
         super(context);
 
         mContext = context;
-        mInterceptors = new ArrayList<>();
-        //mInterceptors.add(new ContentSecurityPolicyInterceptor(context));
-        mInterceptors.add(new PlaybackStatsInterceptor(context));
-        mInterceptors.add(new MainScriptManagerInterceptor(context));
-        mInterceptors.add(new OpenExternalPlayerInterceptor(context));
-        mInterceptors.add(new AdAwayInterceptor(context));
+        mRouter = new UrlRouter.Builder()
+                //.add(new ContentSecurityPolicyInterceptor(context))
+                .add(new PlaybackStatsInterceptor(context))
+                .add(new MainScriptManagerInterceptor(context))
+                .add(new OpenExternalPlayerInterceptor(context))
+                .add(new AdAwayInterceptor(context))
+                .build();
     }
 
     @Override
@@ -29,7 +28,7 @@ public class MainRequestInterceptor extends RequestInterceptor {
     }
 
     /**
-     * all interceptors are called<br/>
+     * all interceptors which patterns match the url are called<br/>
      * first non-null response is the result of all intercept operation
      */
     @Override
@@ -38,7 +37,12 @@ public class MainRequestInterceptor extends RequestInterceptor {
 
         WebResourceResponse result = null;
 
-        for (RequestInterceptor interceptor : mInterceptors) {
+        long candidates = mRouter.route(url);
+
+        while (candidates != 0) {
+            RequestInterceptor interceptor = mRouter.get(Long.numberOfTrailingZeros(candidates));
+            candidates &= candidates - 1;
+
             // all interceptors are called
             // first non-null response is the result of all intercept operation
             if (interceptor.test(url)) {
@@ -3,6 +3,10 @@ package com.liskovsoft.smartyoutubetv.interceptors;
 import android.content.Context;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  *  1) live.js<br/>
  *  2) airstream-prod-css.css
@@ -14,11 +18,20 @@ public class MainScriptManagerInterceptor extends ScriptManagerInterceptor {
     private static final String[] SECOND_SCRIPT_NAME = {"app-prod.js"};
     private static final String[] THIRD_SCRIPT_NAME = {"tv-player.js", "tv-player-ias.js"};
     private static final String[] MAIN_STYLE_NAME = {"airstream-prod-css.css"};
+    /**
+     * Names that are checked by {@link #test}, so router and interceptor can't drift apart
+     */
+    private static final String[] URL_PATTERNS = concat(FIRST_SCRIPT_NAME, THIRD_SCRIPT_NAME, MAIN_STYLE_NAME);
 
     public MainScriptManagerInterceptor(Context context) {
         super(context);
     }
 
+    @Override
+    public String[] getUrlPatterns() {
+        return URL_PATTERNS;
+    }
+
     protected boolean isFirstScript(String url) {
         return Helpers.endsWith(url, FIRST_SCRIPT_NAME);
     }
@@ -30,4 +43,14 @@ public class MainScriptManagerInterceptor extends ScriptManagerInterceptor {
     protected boolean isStyle(String url) {
         return Helpers.endsWith(url, MAIN_STYLE_NAME);
     }
+
+    private static String[] concat(String[]... names) {
+        List<String> result = new ArrayList<>();
+
+        for (String[] name : names) {
+            result.addAll(Arrays.asList(name));
+        }
+
+        return result.toArray(new String[0]);
+    }
 }
@@ -26,6 +26,13 @@ public class OpenExternalPlayerInterceptor extends RequestInterceptor {
         }
     }
 
+    @Override
+    public String[] getUrlPatterns() {
+        if (mInterceptor == null)
+            return new String[0];
+        return mInterceptor.getUrlPatterns();
+    }
+
     @Override
     public boolean test(String url) {
         if (mInterceptor == null)
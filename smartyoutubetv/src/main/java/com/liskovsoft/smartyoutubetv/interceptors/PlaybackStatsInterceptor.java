@@ -17,6 +17,7 @@ public class PlaybackStatsInterceptor extends RequestInterceptor {
     private static final String PLAYBACK_URL2 = "youtube.com/api/stats/playback";
     private static final String START_VIDEO_URL = "youtube.com/get_midroll_info";
     private static final String PRESTART_VIDEO_URL = "youtube.com/get_video_info";
+    private static final String[] URL_PATTERNS = {PRESTART_VIDEO_URL, START_VIDEO_URL, PLAYBACK_URL};
     private static final String TAG = PlaybackStatsInterceptor.class.getSimpleName();
     private final Context mContext;
     private final SmartPreferences mPrefs;
@@ -32,6 +33,11 @@ public class PlaybackStatsInterceptor extends RequestInterceptor {
         mPrefs = SmartPreferences.instance(context);
     }
 
+    @Override
+    public String[] getUrlPatterns() {
+        return URL_PATTERNS;
+    }
+
     @Override
     public boolean test(String url) {
         if (mPrefs.isAppJustInstalled() || (BuildConfig.DEBUG && mRunCount++ <= 1)) {
@@ -5,9 +5,11 @@ import android.webkit.WebResourceResponse;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.helpers.MessageHelpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
 import com.liskovsoft.smartyoutubetv.R;
 import com.liskovsoft.smartyoutubetv.misc.HeaderManager;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.Response;
 
@@ -21,9 +23,17 @@ public abstract class RequestInterceptor {
     public abstract boolean test(String url);
     public abstract WebResourceResponse intercept(String url);
 
+    /**
+     * Url substrings that are needed for {@link #test} to succeed. Used by {@link UrlRouter} to skip url without calling {@link #test}.<br/>
+     * Null means that every url should be tested.
+     */
+    public String[] getUrlPatterns() {
+        return null;
+    }
+
     public RequestInterceptor(Context context) {
         mContext = context;
-        mManager = new HeaderManager(context);
+        mManager = HeaderManager.instance(context);
     }
 
     private String getMimeType(MediaType contentType) {
@@ -48,8 +58,15 @@ public abstract class RequestInterceptor {
         return resourceResponse;
     }
 
+    /**
+     * Same response could be returned to the WebView multiple times
+     */
+    protected WebResourceResponse createResponse(BufferedResponse response) {
+        return createResponse(response.getContentType(), response.open());
+    }
+
     protected WebResourceResponse wrapResponse(String url, InputStream before, InputStream after) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
 
         if (response == null) {
             MessageHelpers.showLongMessageEndPause(mContext, R.string.fix_clock_msg);
@@ -60,7 +77,7 @@ public abstract class RequestInterceptor {
     }
 
     protected WebResourceResponse prependResponse(String url, InputStream toPrepend) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
 
         if (response == null) {
             MessageHelpers.showLongMessageEndPause(mContext, R.string.fix_clock_msg);
@@ -71,7 +88,7 @@ public abstract class RequestInterceptor {
     }
 
     protected WebResourceResponse appendResponse(String url, InputStream toAppend) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
 
         if (response == null) {
             MessageHelpers.showLongMessageEndPause(mContext, R.string.fix_clock_msg);
@@ -82,19 +99,41 @@ public abstract class RequestInterceptor {
     }
 
     protected InputStream getUrlData(String url) {
-        Response response = OkHttpHelpers.doGetOkHttpRequest(url, mManager.getHeaders());
+        Response response = OkHttpManager.getInstance().doGetRequest(url, mManager.getHeaders());
 
         return response == null ? null : response.body().byteStream();
     }
 
     protected InputStream postUrlData(String url, String body) {
-        Response response = OkHttpHelpers.doPostOkHttpRequest(url, mManager.getHeaders(), body, "application/json");
+        Response response = OkHttpManager.getInstance().doPostRequest(url, mManager.getHeaders(), body, "application/json");
 
         return response == null ? null : response.body().byteStream();
     }
 
+    /**
+     * Whole body is read, so it could be parsed by the app and shared with the WebView (no second request)
+     */
+    protected BufferedResponse getBufferedUrlData(String url) {
+        return BufferedResponse.from(OkHttpManager.getInstance().doGetRequest(url, mManager.getHeaders()));
+    }
+
+    /**
+     * Runs on the shared dispatcher instead of the calling thread
+     */
+    protected Call getUrlDataAsync(String url, Callback callback) {
+        return OkHttpManager.getInstance().doGetRequestAsync(url, mManager.getHeaders(), callback);
+    }
+
+    protected Call postUrlDataAsync(String url, String body, Callback callback) {
+        return OkHttpManager.getInstance().doPostRequestAsync(url, mManager.getHeaders(), body, "application/json", callback);
+    }
+
+    protected BufferedResponse postBufferedUrlData(String url, String body) {
+        return BufferedResponse.from(OkHttpManager.getInstance().doPostRequest(url, mManager.getHeaders(), body, "application/json"));
+    }
+
     protected Response getResponse(String url) {
-        Response response = OkHttpHelpers.doOkHttpRequest(url);
+        Response response = OkHttpManager.getInstance().doGetRequest(url);
 
         if (response == null) {
             MessageHelpers.showLongMessageEndPause(mContext, R.string.fix_clock_msg);
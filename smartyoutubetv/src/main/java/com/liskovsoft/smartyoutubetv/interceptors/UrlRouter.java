@@ -0,0 +1,132 @@
+package com.liskovsoft.smartyoutubetv.interceptors;
+
+import com.liskovsoft.smartyoutubetv.misc.AhoCorasickMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies url in a single pass over all interceptors' patterns<br/>
+ * Interceptor without patterns receives every url.<br/>
+ * Router is immutable, so it's safe to use from multiple WebView threads.
+ */
+public class UrlRouter {
+    private final RequestInterceptor[] mInterceptors;
+    private final AhoCorasickMatcher mMatcher;
+    /**
+     * Interceptors that own the pattern with the same index
+     */
+    private final long[] mPatternOwners;
+    /**
+     * Interceptors without patterns
+     */
+    private final long mDefaultMask;
+
+    private UrlRouter(List<RequestInterceptor> interceptors, List<String> patterns, List<Long> owners, long defaultMask) {
+        mInterceptors = interceptors.toArray(new RequestInterceptor[0]);
+        mMatcher = new AhoCorasickMatcher(patterns);
+        mPatternOwners = new long[owners.size()];
+        mDefaultMask = defaultMask;
+
+        for (int i = 0; i < owners.size(); i++) {
+            mPatternOwners[i] = owners.get(i);
+        }
+    }
+
+    /**
+     * @return bit mask of the interceptors that match the url (bit index is the order in which interceptor was added)
+     */
+    public long route(String url) {
+        long result = mDefaultMask;
+
+        if (url == null || mMatcher.isEmpty()) {
+            return result;
+        }
+
+        long patterns = mMatcher.matchMask(url);
+
+        while (patterns != 0) {
+            int index = Long.numberOfTrailingZeros(patterns);
+            result |= mPatternOwners[index];
+            patterns &= patterns - 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return first added interceptor that matches the url or null
+     */
+    public RequestInterceptor findFirst(String url) {
+        long mask = route(url);
+
+        return mask == 0 ? null : mInterceptors[Long.numberOfTrailingZeros(mask)];
+    }
+
+    public RequestInterceptor get(int index) {
+        return mInterceptors[index];
+    }
+
+    public int size() {
+        return mInterceptors.length;
+    }
+
+    public static class Builder {
+        private final List<RequestInterceptor> mInterceptors = new ArrayList<>();
+        private final List<String> mPatterns = new ArrayList<>();
+        private final List<Long> mOwners = new ArrayList<>();
+        private final Map<String, Integer> mPatternIndexes = new HashMap<>();
+        private long mDefaultMask;
+
+        /**
+         * Uses patterns declared by the interceptor itself
+         */
+        public Builder add(RequestInterceptor interceptor) {
+            return add(interceptor, interceptor.getUrlPatterns());
+        }
+
+        /**
+         * @param patterns url substrings (<em>*</em> matches multiple chars), null to receive every url, empty to receive nothing
+         */
+        public Builder add(RequestInterceptor interceptor, String... patterns) {
+            int index = mInterceptors.size();
+
+            if (index == Long.SIZE) {
+                throw new IllegalStateException("Too many interceptors. Max is " + Long.SIZE);
+            }
+
+            mInterceptors.add(interceptor);
+            long bit = 1L << index;
+
+            if (patterns == null) {
+                mDefaultMask |= bit;
+                return this;
+            }
+
+            for (String pattern : patterns) {
+                Integer patternIndex = mPatternIndexes.get(pattern);
+
+                if (patternIndex == null) {
+                    if (mPatterns.size() == AhoCorasickMatcher.MASK_SIZE) {
+                        throw new IllegalStateException("Too many url patterns. Max is " + AhoCorasickMatcher.MASK_SIZE);
+                    }
+
+                    patternIndex = mPatterns.size();
+                    mPatternIndexes.put(pattern, patternIndex);
+                    mPatterns.add(pattern);
+                    mOwners.add(0L);
+                }
+
+                mOwners.set(patternIndex, mOwners.get(patternIndex) | bit);
+            }
+
+            return this;
+        }
+
+        public UrlRouter build() {
+            return new UrlRouter(mInterceptors, mPatterns, mOwners, mDefaultMask);
+        }
+    }
+}
@@ -1,32 +1,54 @@
 package com.liskovsoft.smartyoutubetv.misc;
 
 import android.content.Context;
-import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.misc.adblock.AdBlockMatcher;
 import com.liskovsoft.smartyoutubetv.prefs.CommonParams;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 public class AdAwayClient {
+    private static final String TAG = AdAwayClient.class.getSimpleName();
+    /**
+     * Optional hosts file (e.g. from AdAway project) that is merged with the ads.properties rules
+     */
+    private static final String HOSTS_FILE_NAME = "ads_hosts.txt";
+    private static AdBlockMatcher sMatcher;
     private final Context mContext;
     /**
-     * Couple of ads have been taken from <a href="https://www.reddit.com/r/dropgoogle/comments/5tnjxl/block_youtube_ads_2017_hosts_file/">this post</a>
+     * Couple of ads have been taken from <a href="https://www.reddit.com/r/dropgoogle/comments/5tnjxl/block_youtube_ads_2017_hosts_file/">this post</a><br/>
+     * Rules are compiled once per app launch
      */
-    private final String[] mAdList;
+    private final AdBlockMatcher mMatcher;
 
     public AdAwayClient(Context context) {
         mContext = context;
-        mAdList = CommonParams.instance(context).getAdsUrls();
+        mMatcher = getMatcher(context);
     }
 
-    public boolean isAd(String url) {
-        if (mAdList != null) {
-            for (String subUrl : mAdList) {
-                boolean contains = Helpers.matchSubstr(url, subUrl);
-                if (contains) {
-                    return true;
-                }
-            }
+    private static synchronized AdBlockMatcher getMatcher(Context context) {
+        if (sMatcher == null) {
+            sMatcher = new AdBlockMatcher.Builder()
+                    .addRules(CommonParams.instance(context).getAdsUrls())
+                    .addRules(openHostsFile(context))
+                    .build();
+        }
+
+        return sMatcher;
+    }
+
+    private static InputStream openHostsFile(Context context) {
+        try {
+            return context.getAssets().open(HOSTS_FILE_NAME);
+        } catch (IOException e) {
+            Log.d(TAG, "Hosts file not found: " + HOSTS_FILE_NAME);
+            return null;
         }
+    }
 
-        return false;
+    public boolean isAd(String url) {
+        return mMatcher.isAd(url);
     }
 
 }
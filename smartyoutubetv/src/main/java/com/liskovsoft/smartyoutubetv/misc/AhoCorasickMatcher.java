@@ -0,0 +1,289 @@
+package com.liskovsoft.smartyoutubetv.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over substring rules<br/>
+ * Rules may contain wildcard <em>*</em> (multiple chars). First rule's segment goes into the automaton,
+ * the rest segments are checked after the first one is found.<br/>
+ * Text is scanned once regardless of rules count.
+ */
+public class AhoCorasickMatcher {
+    /**
+     * Max rules count supported by {@link #matchMask(String)}
+     */
+    public static final int MASK_SIZE = 64;
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+    private char[][] mChildKeys;
+    private int[][] mChildNodes;
+    private int[] mChildCount;
+    private int[] mFail;
+    /**
+     * First rule that ends at the node or -1
+     */
+    private int[] mRule;
+    /**
+     * Next rule that ends at the same node or -1
+     */
+    private final int[] mNextRule;
+    /**
+     * Nearest node (by fail links) that ends some rule or -1
+     */
+    private int[] mDictLink;
+    private int mNodeCount;
+    /**
+     * Wildcard segments that follow the first one (null for plain rules)
+     */
+    private final String[][] mTails;
+    private boolean mIsEmpty = true;
+
+    /**
+     * @param rules rule index in the list is the index that is used by {@link #matchMask(String)}
+     */
+    public AhoCorasickMatcher(List<String> rules) {
+        mTails = new String[rules.size()][];
+        mNextRule = new int[rules.size()];
+
+        int capacity = 16;
+        mChildKeys = new char[capacity][];
+        mChildNodes = new int[capacity][];
+        mChildCount = new int[capacity];
+        mRule = new int[capacity];
+        mNodeCount = 1; // root
+        mRule[ROOT] = NO_NODE;
+
+        for (int i = 0; i < rules.size(); i++) {
+            addRule(rules.get(i), i);
+        }
+
+        buildFailLinks();
+    }
+
+    public boolean isEmpty() {
+        return mIsEmpty;
+    }
+
+    private void addRule(String rule, int index) {
+        String[] segments = rule.split("\\*");
+        String head = null;
+        int headIndex = 0;
+
+        // rule could start with wildcard
+        for (; headIndex < segments.length; headIndex++) {
+            if (!segments[headIndex].isEmpty()) {
+                head = segments[headIndex];
+                break;
+            }
+        }
+
+        if (head == null) {
+            return;
+        }
+
+        List<String> tail = new ArrayList<>();
+
+        for (int i = headIndex + 1; i < segments.length; i++) {
+            if (!segments[i].isEmpty()) {
+                tail.add(segments[i]);
+            }
+        }
+
+        int node = ROOT;
+
+        for (int i = 0; i < head.length(); i++) {
+            char c = head.charAt(i);
+            int next = child(node, c);
+
+            if (next == NO_NODE) {
+                next = newNode();
+                addChild(node, c, next);
+            }
+
+            node = next;
+        }
+
+        mTails[index] = tail.isEmpty() ? null : tail.toArray(new String[0]);
+        mNextRule[index] = mRule[node];
+        mRule[node] = index;
+        mIsEmpty = false;
+    }
+
+    private int newNode() {
+        if (mNodeCount == mChildCount.length) {
+            int capacity = mNodeCount * 2;
+            mChildKeys = copyOf(mChildKeys, capacity);
+            mChildNodes = copyOf(mChildNodes, capacity);
+            mChildCount = copyOf(mChildCount, capacity);
+            mRule = copyOf(mRule, capacity);
+        }
+
+        mRule[mNodeCount] = NO_NODE;
+
+        return mNodeCount++;
+    }
+
+    private void addChild(int node, char c, int child) {
+        int count = mChildCount[node];
+
+        if (mChildKeys[node] == null) {
+            mChildKeys[node] = new char[2];
+            mChildNodes[node] = new int[2];
+        } else if (count == mChildKeys[node].length) {
+            char[] keys = new char[count * 2];
+            int[] nodes = new int[count * 2];
+            System.arraycopy(mChildKeys[node], 0, keys, 0, count);
+            System.arraycopy(mChildNodes[node], 0, nodes, 0, count);
+            mChildKeys[node] = keys;
+            mChildNodes[node] = nodes;
+        }
+
+        mChildKeys[node][count] = c;
+        mChildNodes[node][count] = child;
+        mChildCount[node] = count + 1;
+    }
+
+    private int child(int node, char c) {
+        char[] keys = mChildKeys[node];
+        int count = mChildCount[node];
+
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == c) {
+                return mChildNodes[node][i];
+            }
+        }
+
+        return NO_NODE;
+    }
+
+    /**
+     * Breadth-first traversal: fail link of the node points to the longest proper suffix that is present in the trie
+     */
+    private void buildFailLinks() {
+        mFail = new int[mNodeCount];
+        mDictLink = new int[mNodeCount];
+        int[] queue = new int[mNodeCount];
+        int head = 0;
+        int tail = 0;
+
+        mFail[ROOT] = ROOT;
+        mDictLink[ROOT] = NO_NODE;
+
+        for (int i = 0; i < mChildCount[ROOT]; i++) {
+            int node = mChildNodes[ROOT][i];
+            mFail[node] = ROOT;
+            mDictLink[node] = NO_NODE;
+            queue[tail++] = node;
+        }
+
+        while (head < tail) {
+            int node = queue[head++];
+
+            for (int i = 0; i < mChildCount[node]; i++) {
+                char c = mChildKeys[node][i];
+                int next = mChildNodes[node][i];
+
+                int fail = mFail[node];
+
+                while (fail != ROOT && child(fail, c) == NO_NODE) {
+                    fail = mFail[fail];
+                }
+
+                int failNext = child(fail, c);
+                mFail[next] = failNext == NO_NODE ? ROOT : failNext;
+                mDictLink[next] = mRule[mFail[next]] != NO_NODE ? mFail[next] : mDictLink[mFail[next]];
+
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * @return true if text contains any of the rules
+     */
+    public boolean matches(String text) {
+        return scan(text, false) != 0;
+    }
+
+    /**
+     * Finds all the rules in a single pass
+     * @return bit mask of the found rules (bit index is the rule index)
+     */
+    public long matchMask(String text) {
+        return scan(text, true);
+    }
+
+    private long scan(String text, boolean findAll) {
+        long result = 0;
+        int node = ROOT;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = child(node, c);
+
+            while (next == NO_NODE && node != ROOT) {
+                node = mFail[node];
+                next = child(node, c);
+            }
+
+            node = next == NO_NODE ? ROOT : next;
+
+            for (int out = mRule[node] != NO_NODE ? node : mDictLink[node]; out != NO_NODE; out = mDictLink[out]) {
+                for (int rule = mRule[out]; rule != NO_NODE; rule = mNextRule[rule]) {
+                    if (!matchesTail(text, i + 1, mTails[rule])) {
+                        continue;
+                    }
+
+                    if (!findAll) {
+                        return 1;
+                    }
+
+                    if (rule < MASK_SIZE) {
+                        result |= 1L << rule;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean matchesTail(String text, int from, String[] tail) {
+        if (tail == null) {
+            return true;
+        }
+
+        int pos = from;
+
+        for (String segment : tail) {
+            int found = text.indexOf(segment, pos);
+
+            if (found == -1) {
+                return false;
+            }
+
+            pos = found + segment.length();
+        }
+
+        return true;
+    }
+
+    private static char[][] copyOf(char[][] array, int length) {
+        char[][] result = new char[length][];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    private static int[][] copyOf(int[][] array, int length) {
+        int[][] result = new int[length][];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] result = new int[length];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+}
@@ -0,0 +1,202 @@
+package com.liskovsoft.smartyoutubetv.misc;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryString;
+import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryStringFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending tracking pings persisted in the small append-only file<br/>
+ * Newer ping of the same playback (docid + cpn) replaces the older one: only the latest position matters.
+ * File is rewritten after every send, so it never grows much.<br/>
+ * Not thread safe: used from the single worker thread.
+ */
+final class TrackingJournal {
+    private static final String TAG = TrackingJournal.class.getSimpleName();
+    private static final String DELIM = "\t";
+    private static final String DOC_ID = "docid";
+    private static final String CPN = "cpn";
+    private static final int MAX_SIZE = 100;
+    private static final long MAX_AGE_MS = 2 * 24 * 60 * 60 * 1000; // history isn't updated for the old playbacks
+    private final File mFile;
+    private final Map<String, Ping> mPings = new LinkedHashMap<>();
+
+    static final class Ping {
+        private final String mKey;
+        private final String mUrl;
+        private final boolean mWithCookie;
+        private final long mCreatedMs;
+
+        private Ping(String url, boolean withCookie, long createdMs) {
+            MyQueryString query = MyQueryStringFactory.parse(url);
+            String docId = query.get(DOC_ID);
+            String cpn = query.get(CPN);
+
+            mKey = docId != null || cpn != null ? docId + ":" + cpn : url;
+            mUrl = url;
+            mWithCookie = withCookie;
+            mCreatedMs = createdMs;
+        }
+
+        static Ping create(String url, boolean withCookie, long createdMs) {
+            return new Ping(url, withCookie, createdMs);
+        }
+
+        String getUrl() {
+            return mUrl;
+        }
+
+        boolean isWithCookie() {
+            return mWithCookie;
+        }
+
+        private String serialize() {
+            return mCreatedMs + DELIM + (mWithCookie ? 1 : 0) + DELIM + mUrl;
+        }
+
+        /**
+         * @return ping or null if line is malformed (e.g. app is killed while writing)
+         */
+        private static Ping deserialize(String line) {
+            String[] parts = line.split(DELIM, 3);
+
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                return null;
+            }
+
+            try {
+                return new Ping(parts[2], "1".equals(parts[1]), Long.parseLong(parts[0]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    TrackingJournal(File file, long nowMs) {
+        mFile = file;
+
+        load(nowMs);
+    }
+
+    void add(Ping ping) {
+        put(ping);
+        append(ping);
+    }
+
+    /**
+     * @return oldest pings first
+     */
+    List<Ping> peek(int max) {
+        List<Ping> result = new ArrayList<>();
+
+        for (Ping ping : mPings.values()) {
+            if (result.size() == max) {
+                break;
+            }
+
+            result.add(ping);
+        }
+
+        return result;
+    }
+
+    /**
+     * Pings that are superseded while sending stay in the journal
+     */
+    void remove(Collection<Ping> pings) {
+        for (Ping ping : pings) {
+            if (mPings.get(ping.mKey) == ping) {
+                mPings.remove(ping.mKey);
+            }
+        }
+
+        compact();
+    }
+
+    boolean isEmpty() {
+        return mPings.isEmpty();
+    }
+
+    int size() {
+        return mPings.size();
+    }
+
+    private void put(Ping ping) {
+        mPings.remove(ping.mKey); // move to the end
+        mPings.put(ping.mKey, ping);
+
+        if (mPings.size() > MAX_SIZE) {
+            Iterator<String> oldest = mPings.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void load(long nowMs) {
+        if (!mFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(mFile))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                Ping ping = Ping.deserialize(line);
+
+                if (ping != null && nowMs - ping.mCreatedMs < MAX_AGE_MS) {
+                    put(ping);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read tracking journal: " + e.getMessage());
+        }
+
+        compact(); // drop superseded and expired lines
+
+        Log.d(TAG, "Pending pings restored: " + mPings.size());
+    }
+
+    private void append(Ping ping) {
+        try (Writer writer = new FileWriter(mFile, true)) {
+            writer.write(ping.serialize() + "\n");
+        } catch (IOException e) {
+            Log.e(TAG, "Can't persist tracking ping: " + e.getMessage());
+        }
+    }
+
+    private void compact() {
+        if (mPings.isEmpty()) {
+            if (mFile.exists() && !mFile.delete()) {
+                Log.e(TAG, "Can't delete tracking journal");
+            }
+            return;
+        }
+
+        File tmp = new File(mFile.getPath() + ".tmp");
+
+        try (Writer writer = new FileWriter(tmp)) {
+            for (Ping ping : mPings.values()) {
+                writer.write(ping.serialize() + "\n");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't compact tracking journal: " + e.getMessage());
+            return;
+        }
+
+        if (!tmp.renameTo(mFile)) {
+            Log.e(TAG, "Can't replace tracking journal");
+        }
+    }
+}
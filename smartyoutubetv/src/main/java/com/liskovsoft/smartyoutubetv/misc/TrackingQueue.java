@@ -0,0 +1,150 @@
+package com.liskovsoft.smartyoutubetv.misc;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.misc.TrackingJournal.Ping;
+import com.liskovsoft.smartyoutubetv.misc.okhttp.OkHttpManager;
+import okhttp3.Headers;
+import okhttp3.Response;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outgoing watch history and playback stats pings<br/>
+ * Pings are persisted (see {@link TrackingJournal}), so they survive network errors and app restarts.
+ * Single worker sends them in batches over the shared client. On failure the batch is retried with exponential backoff.
+ */
+public final class TrackingQueue {
+    private static final String TAG = TrackingQueue.class.getSimpleName();
+    private static final String JOURNAL_NAME = "tracking_journal";
+    private static final long BATCH_DELAY_MS = 3_000; // collect bursts and superseded pings
+    private static final long MIN_BACKOFF_MS = 10_000;
+    private static final long MAX_BACKOFF_MS = 30 * 60 * 1000;
+    private static final int BATCH_SIZE = 10;
+    private static TrackingQueue sInstance;
+    private final Context mContext;
+    private final Handler mHandler;
+    private final Runnable mSend = this::send;
+    // fields below are accessed from the worker thread only
+    private TrackingJournal mJournal;
+    private boolean mSendScheduled;
+    private long mBackoffMs;
+
+    public static synchronized TrackingQueue instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new TrackingQueue(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    private TrackingQueue(Context context) {
+        mContext = context;
+
+        HandlerThread worker = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        worker.start();
+        mHandler = new Handler(worker.getLooper());
+
+        mHandler.post(() -> {
+            // send pings that are left from the previous run
+            mJournal = new TrackingJournal(new File(mContext.getFilesDir(), JOURNAL_NAME), System.currentTimeMillis());
+            scheduleSend(BATCH_DELAY_MS);
+        });
+    }
+
+    /**
+     * @param withCookie false if ping should be sent without cookie and language headers
+     */
+    public void add(String url, boolean withCookie) {
+        long createdMs = System.currentTimeMillis();
+
+        mHandler.post(() -> {
+            mJournal.add(Ping.create(url, withCookie, createdMs));
+            scheduleSend(BATCH_DELAY_MS);
+        });
+    }
+
+    private void scheduleSend(long delayMs) {
+        if (mSendScheduled || mJournal.isEmpty()) {
+            return;
+        }
+
+        mSendScheduled = true;
+        mHandler.postDelayed(mSend, delayMs);
+    }
+
+    private void send() {
+        mSendScheduled = false;
+
+        List<Ping> batch = mJournal.peek(BATCH_SIZE);
+        List<Ping> done = new ArrayList<>();
+        boolean failed = false;
+
+        for (Ping ping : batch) {
+            if (!send(ping)) {
+                failed = true;
+                break; // network is down: don't waste the rest
+            }
+
+            done.add(ping);
+        }
+
+        mJournal.remove(done);
+
+        if (failed) {
+            mBackoffMs = mBackoffMs == 0 ? MIN_BACKOFF_MS : Math.min(mBackoffMs * 2, MAX_BACKOFF_MS);
+            Log.d(TAG, String.format("Pings sent: %s, pending: %s. Retrying in %s ms", done.size(), mJournal.size(), mBackoffMs));
+            scheduleSend(mBackoffMs);
+        } else {
+            mBackoffMs = 0;
+            Log.d(TAG, String.format("Pings sent: %s, pending: %s", done.size(), mJournal.size()));
+            scheduleSend(0);
+        }
+    }
+
+    /**
+     * @return false if ping should be retried later
+     */
+    private boolean send(Ping ping) {
+        Response response = OkHttpManager.getInstance().doGetRequest(ping.getUrl(), getHeaders(ping));
+
+        if (response == null) {
+            return false;
+        }
+
+        try (Response ignored = response) {
+            int code = response.code();
+
+            if (code >= 500 || code == 429) {
+                return false;
+            }
+
+            if (!response.isSuccessful()) {
+                Log.e(TAG, "Ping is rejected: " + code + " " + ping.getUrl());
+            }
+
+            return true; // permanent errors aren't retried
+        }
+    }
+
+    /**
+     * Current auth data is used, so it's never persisted along with the pings
+     */
+    private Headers getHeaders(Ping ping) {
+        Headers headers = HeaderManager.instance(mContext).getHeaders();
+
+        if (ping.isWithCookie()) {
+            return headers;
+        }
+
+        return headers.newBuilder()
+                .removeAll("Cookie")
+                .removeAll("Accept-Language")
+                .build();
+    }
+}
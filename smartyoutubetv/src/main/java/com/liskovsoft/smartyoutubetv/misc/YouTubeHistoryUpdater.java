@@ -2,12 +2,8 @@ package com.liskovsoft.smartyoutubetv.misc;
 
 import android.content.Context;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryString;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryStringFactory;
-import okhttp3.Response;
-
-import java.util.HashMap;
 
 public class YouTubeHistoryUpdater {
     private static final String TAG = YouTubeHistoryUpdater.class.getSimpleName();
@@ -16,23 +12,18 @@ public class YouTubeHistoryUpdater {
     private static final String ST = "st";
     private static final String ET = "et";
     private final Context mContext;
-    private final HeaderManager mManager;
+    private final TrackingQueue mQueue;
 
     public YouTubeHistoryUpdater(Context context) {
         mContext = context;
-        mManager = new HeaderManager(mContext);
+        mQueue = TrackingQueue.instance(mContext);
     }
 
     public void sync(String trackingUrl, float position, float length) {
         Log.d(TAG, String.format("Start history updating: %s, %s, %s", trackingUrl, position, length));
-        HashMap<String, String> headers = mManager.getHeaders();
         final String fullTrackingUrl = processUrl(trackingUrl, position, length);
         Log.d(TAG, "Full tracking url: " + fullTrackingUrl);
-        Log.d(TAG, "Tracking headers: " + headers);
-        new Thread(() -> {  // avoid NetworkOnMainThreadException
-            Response response = OkHttpHelpers.doGetOkHttpRequest(fullTrackingUrl, headers);
-            Log.d(TAG, "Tracking response: " + response);
-        }).start();
+        mQueue.add(fullTrackingUrl, true);
     }
 
     private String processUrl(String trackingUrl, float position, float length) {
@@ -3,14 +3,9 @@ package com.liskovsoft.smartyoutubetv.misc;
 import android.content.Context;
 import android.os.Handler;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.okhttp.OkHttpHelpers;
 import com.liskovsoft.smartyoutubetv.prefs.SmartPreferences;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryString;
 import com.liskovsoft.smartyoutubetv.misc.myquerystring.MyQueryStringFactory;
-import okhttp3.Response;
-
-import java.util.HashMap;
-import java.util.Map;
 
 public class YouTubeTracker {
     private static final String TAG = YouTubeTracker.class.getSimpleName();
@@ -34,11 +29,11 @@ public class YouTubeTracker {
             "=CAEQARgEKiBITWo5SXpCYUVHNzJXbXVBVl9nWHBfNjJjWFlNQlpKZw&volume=100&subscribed=1&c=TVHTML5&cver=6" +
             ".20180913&cplayer=UNIPLAYER&cbrand=LG&cbr=Safari&cbrver&ctheme=CLASSIC&cmodel=42LA660S-ZA&cnetwork&cos&cosver&cplatform=TV&final=1&hl" +
             "=en_US&cr=UA&len=647&feature=history&afmt=140&idpj=-8&ldpj=-13&muted=0&st=211&et=211&conn=1";
-    private final HeaderManager mManager;
+    private final TrackingQueue mQueue;
 
     public YouTubeTracker(Context context) {
         mContext = context;
-        mManager = new HeaderManager(mContext);
+        mQueue = TrackingQueue.instance(mContext);
     }
 
     public void track(String trackingUrl, String videoUrl) {
@@ -52,16 +47,9 @@ public class YouTubeTracker {
     public void track(String trackingUrl, String videoUrl, float watched, float length) {
         if (checkUrl(trackingUrl)) {
             Log.d(TAG, String.format("Start history tracking: %s, %s, %s, %s", trackingUrl, videoUrl, watched, length));
-            HashMap<String, String> headers = mManager.getHeaders();
-            headers.remove("Cookie");
-            headers.remove("Accept-Language");
             final String fullTrackingUrl = processUrl(trackingUrl, videoUrl, watched, length);
             Log.d(TAG, "Full tracking url: " + fullTrackingUrl);
-            Log.d(TAG, "Tracking headers: " + headers);
-            new Thread(() -> {  // avoid NetworkOnMainThreadException
-                Response response = OkHttpHelpers.doGetOkHttpRequest(fullTrackingUrl, headers);
-                Log.d(TAG, "Tracking response: " + response);
-            }).start();
+            mQueue.add(fullTrackingUrl, false); // without cookie
         } else {
             Log.d(TAG, "This tracking url isn't supported: " + trackingUrl);
         }
@@ -0,0 +1,191 @@
+package com.liskovsoft.smartyoutubetv.misc.adblock;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv.misc.AhoCorasickMatcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled ad rules. Url check cost depends on the url length, not on the rules count.<br/>
+ * Supported rules:<br/>
+ * <ul>
+ *     <li>substring: <em>youtube.com/api/stats/ads</em>, <em>adservice.google</em></li>
+ *     <li>substring with wildcard (multiple chars): <em>youtube.com/get_video_info*AdSense-Viral</em></li>
+ *     <li>hosts file line (host and subdomains): <em>0.0.0.0 ads.example.com</em>, <em>127.0.0.1 ads.example.com</em></li>
+ *     <li>adblock host rule (host and subdomains): <em>||ads.example.com^</em></li>
+ * </ul>
+ * Lines that start with <em>#</em> or <em>!</em> are comments.
+ */
+public class AdBlockMatcher {
+    private static final String TAG = AdBlockMatcher.class.getSimpleName();
+    private static final Set<String> LOCAL_HOSTS = new HashSet<>(Arrays.asList(
+            "localhost", "localhost.localdomain", "local", "broadcasthost", "ip6-localhost", "ip6-loopback", "0.0.0.0"));
+    private final HostSuffixTable mHosts;
+    private final AhoCorasickMatcher mSubstrings;
+
+    private AdBlockMatcher(Set<String> hosts, List<String> substrings) {
+        mHosts = new HostSuffixTable(hosts);
+        mSubstrings = new AhoCorasickMatcher(substrings);
+    }
+
+    public boolean isAd(String url) {
+        if (url == null) {
+            return false;
+        }
+
+        if (!mHosts.isEmpty()) {
+            int start = url.indexOf("://");
+            start = start == -1 ? 0 : start + 3;
+            int end = findHostEnd(url, start);
+
+            if (end > start && mHosts.matches(url, start, end)) {
+                return true;
+            }
+        }
+
+        return !mSubstrings.isEmpty() && mSubstrings.matches(url);
+    }
+
+    private static int findHostEnd(String url, int start) {
+        for (int i = start; i < url.length(); i++) {
+            char c = url.charAt(i);
+
+            if (c == '/' || c == '?' || c == '#' || c == ':') {
+                return i;
+            }
+        }
+
+        return url.length();
+    }
+
+    public static class Builder {
+        private final Set<String> mHosts = new HashSet<>();
+        private final List<String> mSubstrings = new ArrayList<>();
+
+        public Builder addRules(String[] rules) {
+            if (rules != null) {
+                for (String rule : rules) {
+                    addRule(rule);
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Reads rules line by line (e.g. hosts file). Stream is closed afterwards.
+         */
+        public Builder addRules(InputStream rules) {
+            if (rules == null) {
+                return this;
+            }
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(rules, "UTF-8"))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    addRule(line);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Can't read ad rules: " + e.getMessage());
+            }
+
+            return this;
+        }
+
+        public Builder addRule(String rule) {
+            if (rule == null) {
+                return this;
+            }
+
+            String line = rule.trim();
+
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
+                return this;
+            }
+
+            if (line.startsWith("||")) {
+                int end = line.indexOf('^');
+                addHost(line.substring(2, end == -1 ? line.length() : end));
+                return this;
+            }
+
+            int space = indexOfWhitespace(line);
+
+            if (space != -1 && isAddress(line.substring(0, space))) {
+                addHostsLine(line.substring(space + 1));
+                return this;
+            }
+
+            mSubstrings.add(line);
+
+            return this;
+        }
+
+        /**
+         * Hosts file line (without address) could contain multiple hosts and trailing comment
+         */
+        private void addHostsLine(String hosts) {
+            int comment = hosts.indexOf('#');
+
+            if (comment != -1) {
+                hosts = hosts.substring(0, comment);
+            }
+
+            for (String host : hosts.trim().split("\\s+")) {
+                addHost(host);
+            }
+        }
+
+        private void addHost(String host) {
+            host = host.trim().toLowerCase();
+
+            if (host.isEmpty() || LOCAL_HOSTS.contains(host)) {
+                return;
+            }
+
+            mHosts.add(host);
+        }
+
+        private static int indexOfWhitespace(String line) {
+            for (int i = 0; i < line.length(); i++) {
+                if (Character.isWhitespace(line.charAt(i))) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * IPv4 (0.0.0.0) or IPv6 (::1) address
+         */
+        private static boolean isAddress(String token) {
+            boolean isIPv6 = token.indexOf(':') != -1;
+
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                boolean isHex = (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+
+                if (!(Character.isDigit(c) || c == '.' || c == ':' || (isIPv6 && isHex))) {
+                    return false;
+                }
+            }
+
+            return isIPv6 || token.indexOf('.') != -1;
+        }
+
+        public AdBlockMatcher build() {
+            Log.d(TAG, String.format("Compiling ad rules: %s hosts, %s substrings", mHosts.size(), mSubstrings.size()));
+
+            return new AdBlockMatcher(mHosts, mSubstrings);
+        }
+    }
+}
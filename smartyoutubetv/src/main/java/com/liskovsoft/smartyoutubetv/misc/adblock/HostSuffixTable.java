@@ -0,0 +1,88 @@
+package com.liskovsoft.smartyoutubetv.misc.adblock;
+
+import java.util.Collection;
+
+/**
+ * Blocked hosts table. Host is blocked along with all its subdomains.<br/>
+ * Lookup walks the host from the right and probes every label boundary (<em>ads.example.com</em>,
+ * <em>example.com</em>, <em>com</em>) without allocating substrings: hash of the suffix is accumulated
+ * the same way as {@link String#hashCode()} does.
+ */
+class HostSuffixTable {
+    private final String[] mTable;
+    private final int mMask;
+    private int mSize;
+
+    HostSuffixTable(Collection<String> hosts) {
+        int capacity = 16;
+
+        while (capacity < hosts.size() * 2) {
+            capacity <<= 1;
+        }
+
+        mTable = new String[capacity];
+        mMask = capacity - 1;
+
+        for (String host : hosts) {
+            add(host);
+        }
+    }
+
+    private void add(String host) {
+        int index = spread(host.hashCode()) & mMask;
+
+        while (mTable[index] != null) {
+            if (mTable[index].equals(host)) {
+                return;
+            }
+
+            index = (index + 1) & mMask;
+        }
+
+        mTable[index] = host;
+        mSize++;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @param url source string
+     * @param start host start index
+     * @param end host end index (exclusive)
+     */
+    boolean matches(String url, int start, int end) {
+        int hash = 0;
+        int multiplier = 1;
+
+        for (int i = end - 1; i >= start; i--) {
+            hash += Character.toLowerCase(url.charAt(i)) * multiplier;
+            multiplier *= 31;
+
+            if ((i == start || url.charAt(i - 1) == '.') && contains(hash, url, i, end - i)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean contains(int hash, String url, int offset, int length) {
+        int index = spread(hash) & mMask;
+
+        for (String host = mTable[index]; host != null; host = mTable[index]) {
+            if (host.length() == length && url.regionMatches(true, offset, host, 0, length)) {
+                return true;
+            }
+
+            index = (index + 1) & mMask;
+        }
+
+        return false;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,48 @@
+package com.liskovsoft.smartyoutubetv.webscripts;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads buffer from its position to its limit<br/>
+ * Not thread-safe: use {@link ByteBuffer#duplicate()} to share one buffer between streams.
+ */
+class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer mBuffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        mBuffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return mBuffer.hasRemaining() ? mBuffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!mBuffer.hasRemaining()) {
+            return -1;
+        }
+
+        int count = Math.min(len, mBuffer.remaining());
+        mBuffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        int count = (int) Math.max(0, Math.min(n, mBuffer.remaining()));
+        mBuffer.position(mBuffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return mBuffer.remaining();
+    }
+}
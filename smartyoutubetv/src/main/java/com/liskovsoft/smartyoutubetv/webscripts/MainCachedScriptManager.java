@@ -1,55 +1,124 @@
 package com.liskovsoft.smartyoutubetv.webscripts;
 
 import android.content.Context;
-import com.jakewharton.disklrucache.DiskLruCache;
-import com.liskovsoft.sharedutils.helpers.CacheHelpers;
+import com.liskovsoft.browser.BackgroundHandler;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv.BuildConfig;
-import com.liskovsoft.smartyoutubetv.CommonApplication;
 
+import java.io.File;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Serves scripts from the pre-merged, pre-minified {@link MappedScriptBundle}<br/>
+ * Bundle is built once per app build and manager set, then mapped once per process and shared by all interceptors.
+ */
 public class MainCachedScriptManager extends MainScriptManager {
-    private final DiskLruCache mCache;
-    private String ON_INIT_SCRIPTS_KEY;
-    private String ON_LOAD_SCRIPTS_KEY;
-    private String STYLES_KEY;
+    private static final String TAG = MainCachedScriptManager.class.getSimpleName();
+    private static final String BUNDLE_DIR = "ScriptBundles";
+    private static final Map<String, MappedScriptBundle> sBundles = new HashMap<>();
+    private static final Set<String> sPendingBundles = new HashSet<>();
+    private final File mBundleFile;
 
     public MainCachedScriptManager(Context context) {
         super(context);
 
-        mCache = CommonApplication.getCache();
+        File dir = new File(context.getFilesDir(), BUNDLE_DIR);
+        mBundleFile = new File(dir, String.format("%s_%s_%s.bundle", "scripts", getHash(), BuildConfig.TIMESTAMP));
 
-        int hash = getHash();
-        ON_INIT_SCRIPTS_KEY = String.format("%s_%s_%s", "on_init_scripts", hash, BuildConfig.TIMESTAMP);
-        ON_LOAD_SCRIPTS_KEY = String.format("%s_%s_%s", "on_load_scripts", hash, BuildConfig.TIMESTAMP);
-        STYLES_KEY = String.format("%s_%s_%s", "styles", hash, BuildConfig.TIMESTAMP);
+        // bundle in background, scripts are merged on the fly until it's ready
+        BackgroundHandler.execute(this::getBundle);
     }
 
     @Override
     public InputStream getOnInitScripts() {
-        if (CacheHelpers.exists(mCache, ON_INIT_SCRIPTS_KEY)) {
-            return CacheHelpers.returnFromCache(mCache, ON_INIT_SCRIPTS_KEY);
-        }
+        MappedScriptBundle bundle = getBundle();
 
-        return CacheHelpers.saveToCache(mCache, super.getOnInitScripts(), ON_INIT_SCRIPTS_KEY);
+        return bundle != null ? bundle.getPart(MappedScriptBundle.ON_INIT_SCRIPTS) : super.getOnInitScripts();
     }
 
     @Override
     public InputStream getOnLoadScripts() {
-        if (CacheHelpers.exists(mCache, ON_LOAD_SCRIPTS_KEY)) {
-            return CacheHelpers.returnFromCache(mCache, ON_LOAD_SCRIPTS_KEY);
-        }
+        MappedScriptBundle bundle = getBundle();
 
-        return CacheHelpers.saveToCache(mCache, super.getOnLoadScripts(), ON_LOAD_SCRIPTS_KEY);
+        return bundle != null ? bundle.getPart(MappedScriptBundle.ON_LOAD_SCRIPTS) : super.getOnLoadScripts();
     }
 
     @Override
     public InputStream getStyles() {
-        if (CacheHelpers.exists(mCache, STYLES_KEY)) {
-            return CacheHelpers.returnFromCache(mCache, STYLES_KEY);
+        MappedScriptBundle bundle = getBundle();
+
+        return bundle != null ? bundle.getPart(MappedScriptBundle.STYLES) : super.getStyles();
+    }
+
+    /**
+     * Bundle is opened or built outside of the lock and published under it
+     * @return bundle or null if it's being built or can't be built
+     */
+    private MappedScriptBundle getBundle() {
+        String key = mBundleFile.getName();
+
+        synchronized (sBundles) {
+            MappedScriptBundle bundle = sBundles.get(key);
+
+            if (bundle != null || !sPendingBundles.add(key)) {
+                return bundle;
+            }
+        }
+
+        MappedScriptBundle bundle = MappedScriptBundle.open(mBundleFile);
+
+        if (bundle == null) {
+            bundle = createBundle();
+        }
+
+        synchronized (sBundles) {
+            sPendingBundles.remove(key);
+
+            if (bundle != null) {
+                sBundles.put(key, bundle);
+            }
         }
 
-        return CacheHelpers.saveToCache(mCache, super.getStyles(), STYLES_KEY);
+        return bundle;
+    }
+
+    private MappedScriptBundle createBundle() {
+        Log.d(TAG, "Creating script bundle: " + mBundleFile);
+
+        removeStaleBundles();
+
+        return MappedScriptBundle.create(
+                mBundleFile,
+                ScriptMinifier.minifyJS(toString(super.getOnInitScripts())),
+                ScriptMinifier.minifyJS(toString(super.getOnLoadScripts())),
+                ScriptMinifier.minifyCSS(toString(super.getStyles()))
+        );
+    }
+
+    /**
+     * Bundles of the previous app builds
+     */
+    private void removeStaleBundles() {
+        File[] files = mBundleFile.getParentFile().listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (!file.getName().endsWith(String.format("_%s.bundle", BuildConfig.TIMESTAMP))) {
+                file.delete();
+            }
+        }
+    }
+
+    private static String toString(InputStream is) {
+        return is == null ? null : Helpers.toString(is);
     }
 
     private int getHash() {
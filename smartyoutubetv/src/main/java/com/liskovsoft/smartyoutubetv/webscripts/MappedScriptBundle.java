@@ -0,0 +1,136 @@
+package com.liskovsoft.smartyoutubetv.webscripts;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Init scripts, load scripts and styles merged into the single memory-mapped file<br/>
+ * Every intercepted page streams straight from the mapped pages: no per-request merging, disk reads or copies on the heap.
+ * File layout: magic, three part lengths, then part bodies one after another.
+ */
+class MappedScriptBundle {
+    private static final String TAG = MappedScriptBundle.class.getSimpleName();
+    private static final int MAGIC = 0x53424E44;
+    private static final int PARTS_NUM = 3;
+    private static final int HEADER_SIZE = 4 * (1 + PARTS_NUM);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    static final int ON_INIT_SCRIPTS = 0;
+    static final int ON_LOAD_SCRIPTS = 1;
+    static final int STYLES = 2;
+    private final ByteBuffer[] mParts;
+
+    private MappedScriptBundle(ByteBuffer[] parts) {
+        mParts = parts;
+    }
+
+    /**
+     * @return mapped bundle or null if file is missing or broken
+     */
+    static MappedScriptBundle open(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            // mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC) {
+                return null;
+            }
+
+            int[] lengths = new int[PARTS_NUM];
+            long total = HEADER_SIZE;
+
+            for (int i = 0; i < PARTS_NUM; i++) {
+                lengths[i] = buffer.getInt();
+                total += lengths[i];
+            }
+
+            if (total != buffer.capacity()) {
+                Log.e(TAG, "Bundle is truncated: " + file);
+                return null;
+            }
+
+            ByteBuffer[] parts = new ByteBuffer[PARTS_NUM];
+            int offset = HEADER_SIZE;
+
+            for (int i = 0; i < PARTS_NUM; i++) {
+                buffer.limit(offset + lengths[i]).position(offset);
+                parts[i] = buffer.slice();
+                offset += lengths[i];
+            }
+
+            return new MappedScriptBundle(parts);
+        } catch (IOException e) {
+            Log.e(TAG, "Can't map bundle: " + file + ", " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes the parts to the temp file and moves it in place, so concurrent readers never see half-written bundle
+     * @return mapped bundle or null on io error
+     */
+    static MappedScriptBundle create(File file, String onInitScripts, String onLoadScripts, String styles) {
+        byte[][] parts = {toBytes(onInitScripts), toBytes(onLoadScripts), toBytes(styles)};
+        File tmpFile = new File(file.getPath() + ".tmp");
+
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Can't create dir: " + dir);
+            return null;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+            out.writeInt(MAGIC);
+
+            for (byte[] part : parts) {
+                out.writeInt(part.length);
+            }
+
+            for (byte[] part : parts) {
+                out.write(part);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write bundle: " + file + ", " + e.getMessage());
+            tmpFile.delete();
+            return null;
+        }
+
+        if (!tmpFile.renameTo(file)) {
+            Log.e(TAG, "Can't rename bundle: " + tmpFile);
+            tmpFile.delete();
+            return null;
+        }
+
+        return open(file);
+    }
+
+    /**
+     * @return new independent stream over the part or null if part is empty
+     */
+    InputStream getPart(int part) {
+        ByteBuffer buffer = mParts[part];
+
+        if (buffer.capacity() == 0) {
+            return null;
+        }
+
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    private static byte[] toBytes(String content) {
+        return content == null ? new byte[0] : content.getBytes(UTF_8);
+    }
+}
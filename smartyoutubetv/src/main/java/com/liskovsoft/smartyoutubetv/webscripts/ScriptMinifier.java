@@ -0,0 +1,303 @@
+package com.liskovsoft.smartyoutubetv.webscripts;
+
+import java.util.Arrays;
+
+/**
+ * Conservative minifier for the injected scripts and styles<br/>
+ * Strips comments, indentation and blank lines but never joins lines of the script,
+ * so automatic semicolon insertion behaves exactly as in the source.
+ * Strings, template literals and regex literals are copied untouched.
+ */
+public final class ScriptMinifier {
+    private static final String REGEX_PRECEDING_CHARS = "(,=:[!&|?{};+-*%<>~^";
+    private static final String[] REGEX_PRECEDING_WORDS = {"return", "typeof", "case", "do", "else", "in", "instanceof", "new", "delete", "void", "throw", "of", "yield", "await"};
+
+    private ScriptMinifier() {
+    }
+
+    public static String minifyJS(String script) {
+        if (script == null) {
+            return null;
+        }
+
+        StringBuilder out = new StringBuilder(script.length());
+        // brace depth of code inside every open ${...} of the template literals
+        int[] templateDepth = new int[16];
+        int templateLevel = 0;
+        boolean pendingSpace = false;
+        boolean pendingNewLine = false;
+        int len = script.length();
+        int i = 0;
+
+        while (i < len) {
+            char c = script.charAt(i);
+
+            if (c == '\n' || c == '\r') {
+                pendingNewLine = out.length() > 0;
+                pendingSpace = false;
+                i++;
+                continue;
+            }
+
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\u000B') {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < len && script.charAt(i + 1) == '/') {
+                while (i < len && script.charAt(i) != '\n' && script.charAt(i) != '\r') {
+                    i++;
+                }
+                continue;
+            }
+
+            if (c == '/' && i + 1 < len && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2);
+                end = end == -1 ? len : end + 2;
+                boolean hasNewLine = false;
+                for (int j = i; j < end; j++) {
+                    char cc = script.charAt(j);
+                    if (cc == '\n' || cc == '\r') {
+                        hasNewLine = true;
+                        break;
+                    }
+                }
+                // multiline comment is a line terminator for the semicolon insertion
+                if (hasNewLine) {
+                    pendingNewLine = out.length() > 0;
+                } else {
+                    pendingSpace = true;
+                }
+                i = end;
+                continue;
+            }
+
+            if (pendingNewLine) {
+                out.append('\n');
+            } else if (pendingSpace && out.length() > 0) {
+                out.append(' ');
+            }
+            pendingNewLine = false;
+            pendingSpace = false;
+
+            if (c == '\'' || c == '"') {
+                i = copyQuoted(script, i, c, out);
+            } else if (c == '`') {
+                i = copyTemplate(script, i + 1, out.append('`'));
+                if (script.charAt(i - 1) == '{') { // entered ${
+                    if (templateLevel == templateDepth.length) {
+                        templateDepth = Arrays.copyOf(templateDepth, templateLevel * 2);
+                    }
+                    templateDepth[templateLevel++] = 0;
+                }
+            } else if (c == '/' && isRegexStart(out)) {
+                i = copyRegex(script, i, out);
+            } else if (c == '{' && templateLevel > 0) {
+                templateDepth[templateLevel - 1]++;
+                out.append(c);
+                i++;
+            } else if (c == '}' && templateLevel > 0 && templateDepth[templateLevel - 1] == 0) {
+                // back to the template literal
+                templateLevel--;
+                i = copyTemplate(script, i + 1, out.append('}'));
+                if (script.charAt(i - 1) == '{') {
+                    templateDepth[templateLevel++] = 0;
+                }
+            } else {
+                if (c == '}' && templateLevel > 0) {
+                    templateDepth[templateLevel - 1]--;
+                }
+                out.append(c);
+                i++;
+            }
+        }
+
+        if (out.length() > 0) {
+            out.append('\n');
+        }
+
+        return out.toString();
+    }
+
+    public static String minifyCSS(String styles) {
+        if (styles == null) {
+            return null;
+        }
+
+        StringBuilder out = new StringBuilder(styles.length());
+        boolean pendingSpace = false;
+        int len = styles.length();
+        int i = 0;
+
+        while (i < len) {
+            char c = styles.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < len && styles.charAt(i + 1) == '*') {
+                int end = styles.indexOf("*/", i + 2);
+                i = end == -1 ? len : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+
+            if (pendingSpace && out.length() > 0 && !isCSSDelimiter(c) && !isCSSDelimiter(out.charAt(out.length() - 1))) {
+                out.append(' ');
+            }
+            pendingSpace = false;
+
+            if (c == '\'' || c == '"') {
+                i = copyQuoted(styles, i, c, out);
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+
+        if (out.length() > 0) {
+            out.append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static boolean isCSSDelimiter(char c) {
+        return c == '{' || c == '}' || c == ';';
+    }
+
+    /**
+     * @return index after the closing quote
+     */
+    private static int copyQuoted(String src, int start, char quote, StringBuilder out) {
+        int len = src.length();
+        out.append(quote);
+        int i = start + 1;
+
+        while (i < len) {
+            char c = src.charAt(i);
+            out.append(c);
+            i++;
+
+            if (c == '\\' && i < len) {
+                out.append(src.charAt(i));
+                i++;
+            } else if (c == quote || c == '\n') {
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Copies template literal body till the closing backtick or the start of the ${ placeholder
+     * @return index after the backtick or after the ${
+     */
+    private static int copyTemplate(String src, int start, StringBuilder out) {
+        int len = src.length();
+        int i = start;
+
+        while (i < len) {
+            char c = src.charAt(i);
+            out.append(c);
+            i++;
+
+            if (c == '\\' && i < len) {
+                out.append(src.charAt(i));
+                i++;
+            } else if (c == '`') {
+                break;
+            } else if (c == '$' && i < len && src.charAt(i) == '{') {
+                out.append('{');
+                i++;
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * @return index after the closing slash, flags are copied by the main loop
+     */
+    private static int copyRegex(String src, int start, StringBuilder out) {
+        int len = src.length();
+        boolean inClass = false;
+        out.append('/');
+        int i = start + 1;
+
+        while (i < len) {
+            char c = src.charAt(i);
+
+            if (c == '\n' || c == '\r') { // not a regex after all, leave the rest to the main loop
+                return i;
+            }
+
+            out.append(c);
+            i++;
+
+            if (c == '\\' && i < len) {
+                out.append(src.charAt(i));
+                i++;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Slash starts the regex literal when the previous token can't end an expression
+     */
+    private static boolean isRegexStart(StringBuilder out) {
+        int i = out.length() - 1;
+
+        while (i >= 0 && (out.charAt(i) == ' ' || out.charAt(i) == '\n')) {
+            i--;
+        }
+
+        if (i < 0) {
+            return true;
+        }
+
+        char prev = out.charAt(i);
+
+        if (REGEX_PRECEDING_CHARS.indexOf(prev) != -1) {
+            return true;
+        }
+
+        if (!Character.isLetter(prev)) {
+            return false;
+        }
+
+        int end = i + 1;
+        while (i >= 0 && Character.isJavaIdentifierPart(out.charAt(i))) {
+            i--;
+        }
+
+        // property access like obj.return isn't a keyword
+        if (i >= 0 && out.charAt(i) == '.') {
+            return false;
+        }
+
+        String word = out.substring(i + 1, end);
+
+        for (String keyword : REGEX_PRECEDING_WORDS) {
+            if (keyword.equals(word)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser;
+
+import com.liskovsoft.sharedutils.TestHelpers;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherRoutine;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.DecipherUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Expected results are obtained by running the same js routines inside the browser
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DecipherRoutineTest {
+    private static final String CIPHERED_SIGNATURE = "98C85C188F11DA24D5964D412FA4487AE09127A9C.893CF7AD1FA33DF80C481AC9186D768667511E7E7A73";
+    private static final String PLAYER_JS_DECIPHERED = "1157668D776819CA184C08FD33AF1DA7FC398.C9A72190EA7844AF214D4695D42AD11F881C58C89";
+    private static final String ROUTINE_2 = "var Qt={fK:function(a,b){a.splice(0,b)},\n" + "UB:function(a){a.reverse()},\n" +
+            "hS:function(a,b){var c=a[0];a[0]=a[b%a.length];a[b%a.length]=c}};\n" + "function decipherSignature(a){a=a.split(\"\");Qt.hS(a,43);Qt.UB" +
+            "(a,42);Qt.hS(a,39);Qt.fK(a,1);Qt.UB(a,19);Qt.hS(a,15);return a.join(\"\")}";
+    private static final String ROUTINE_2_DECIPHERED = "48C85C188F11DA29D5964D412FA4487AE09127A9C.893C37AD1FA33DF80C481AC9186D768667511E7E7A7";
+    // swap arguments below are larger than the signature length
+    private static final String ROUTINE_MOD_SWAP = "var Qt={fK:function(a,b){a.splice(0,b)},\n" + "UB:function(a){a.reverse()},\n" +
+            "hS:function(a,b){var c=a[0];a[0]=a[b%a.length];a[b%a.length]=c}};\n" + "function decipherSignature(a){a=a.split(\"\");Qt.hS(a,143);" +
+            "Qt.UB(a,42);Qt.hS(a,91);Qt.fK(a,1);Qt.hS(a,250);return a.join(\"\")}";
+    private static final String ROUTINE_MOD_SWAP_DECIPHERED = "5A7E3E115766867D6819CA184C09FD33AF1DA7FC398.C9A72190EA7844AF214D4695D42AD11F881C78C88";
+    private static final String ROUTINE_INDEX_SWAP = "var EQ={F2:function(a,b){a.splice(0,b)},\n" + "Xy:function(a,b){var c=a[0];a[0]=a[b%a.length];a[b]=c},\n" +
+            "LN:function(a){a.reverse()}};\n" + "function decipherSignature(a){a=a.split(\"\");EQ.Xy(a,90);EQ.LN(a,23);EQ.Xy(a,3);EQ.F2(a,2);" +
+            "EQ.Xy(a,92);return a.join(\"\")}";
+    private static final String ROUTINE_INDEX_SWAP_DECIPHERED = "3937A7E7E115766867D6819CA184C08FD33AF1DA7FC398.C9A72190EA7844AF214D4695D42AD11F881C58C85";
+    private static final String ROUTINE_SPLICE_SWAP = "var EQ={F2:function(a,b){a.splice(0,b)},\n" +
+            "Xy:function(a,b){var c=a[0];a[0]=a[b%a.length];a.splice(b,1,c)},\n" + "LN:function(a){a.reverse()}};\n" +
+            "function decipherSignature(a){a=a.split(\"\");EQ.Xy(a,100);EQ.LN(a,23);EQ.F2(a,2);EQ.Xy(a,87);return a.join(\"\")}";
+    private static final String ROUTINE_SPLICE_SWAP_DECIPHERED = "7A7E7E115766867D6819CA184C08FD33AF1DA7FC398.C9A72190EA7844AF214D4695D42AD11F881C58C827";
+    private static final String ROUTINE_UNKNOWN = "var Qt={fK:function(a,b){a.splice(0,b)}};\n" + "function decipherSignature(a){a=a.split(\"\");Qt.fK" +
+            "(a,1);a=a.concat(a);return a.join(\"\")}";
+
+    @Test
+    public void decipherWithPlayerScriptRoutine() {
+        String jsCode = DecipherUtils.extractDecipherCode(TestHelpers.openResource("tv-player.js"));
+        DecipherRoutine routine = DecipherRoutine.compile(jsCode);
+
+        assertNotNull(routine);
+        assertEquals(PLAYER_JS_DECIPHERED, routine.decipher(CIPHERED_SIGNATURE));
+    }
+
+    @Test
+    public void decipherWithAlternativeRoutine() {
+        DecipherRoutine routine = DecipherRoutine.compile(ROUTINE_2);
+
+        assertNotNull(routine);
+        assertEquals(ROUTINE_2_DECIPHERED, routine.decipher(CIPHERED_SIGNATURE));
+    }
+
+    @Test
+    public void decipherWithSwapArgLargerThanSignature() {
+        assertEquals(ROUTINE_MOD_SWAP_DECIPHERED, DecipherRoutine.compile(ROUTINE_MOD_SWAP).decipher(CIPHERED_SIGNATURE));
+        assertEquals(ROUTINE_INDEX_SWAP_DECIPHERED, DecipherRoutine.compile(ROUTINE_INDEX_SWAP).decipher(CIPHERED_SIGNATURE));
+        assertEquals(ROUTINE_SPLICE_SWAP_DECIPHERED, DecipherRoutine.compile(ROUTINE_SPLICE_SWAP).decipher(CIPHERED_SIGNATURE));
+    }
+
+    @Test
+    public void decipherList() {
+        DecipherRoutine routine = DecipherRoutine.compile(ROUTINE_2);
+        List<String> result = routine.decipher(Arrays.asList(CIPHERED_SIGNATURE, null));
+
+        assertEquals(ROUTINE_2_DECIPHERED, result.get(0));
+        assertNull(result.get(1));
+    }
+
+    @Test
+    public void unknownRoutineIsNotCompiled() {
+        assertNull(DecipherRoutine.compile(ROUTINE_UNKNOWN));
+        assertNull(DecipherRoutine.compile(null));
+    }
+}
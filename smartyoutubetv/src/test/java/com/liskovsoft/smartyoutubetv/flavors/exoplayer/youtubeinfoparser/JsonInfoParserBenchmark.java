@@ -0,0 +1,67 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.liskovsoft.sharedutils.TestHelpers;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.ParserUtils;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.UrlEncodedIndex;
+import com.liskovsoft.smartyoutubetv.misc.Benchmarks;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.JsonInfoParserTest.JSON_INFO_STORY_SPEC;
+import static com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.JsonInfoParserTest.JSON_INFO_TRACKING_URL;
+import static com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.JsonInfoParserTest.KEYS;
+import static com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.JsonInfoParserTest.VIDEO_INFOS;
+
+/**
+ * Before: every param lookup parses the whole body with Uri, player_response is parsed into a tree and queried by JsonPath<br/>
+ * After: body is indexed once, player_response is read with a streaming reader<br/>
+ * See {@link Benchmarks}
+ */
+@RunWith(RobolectricTestRunner.class)
+public class JsonInfoParserBenchmark {
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void benchmarkBeforeAfter() {
+        String[] contents = new String[VIDEO_INFOS.length];
+
+        for (int i = 0; i < VIDEO_INFOS.length; i++) {
+            contents[i] = TestHelpers.readResource(VIDEO_INFOS[i]);
+        }
+
+        long before = Benchmarks.measure("Uri + JsonPath, all responses", () -> {
+            int found = 0;
+            for (String content : contents) {
+                for (String key : KEYS) {
+                    found += ParserUtils.extractParam(content, key) != null ? 1 : 0;
+                }
+                DocumentContext jsonPath = ParserUtils.createJsonInfoParser(ParserUtils.extractParam(content, "player_response"));
+                found += ParserUtils.extractString(JSON_INFO_TRACKING_URL, jsonPath) != null ? 1 : 0;
+                found += ParserUtils.extractString(JSON_INFO_STORY_SPEC, jsonPath) != null ? 1 : 0;
+                found += JsonInfoParserTest.readSubs(jsonPath) != null ? 1 : 0;
+            }
+            return found;
+        }, ITERATIONS);
+
+        long after = Benchmarks.measure("Index + streaming reader, all responses", () -> {
+            int found = 0;
+            for (String content : contents) {
+                UrlEncodedIndex index = UrlEncodedIndex.parse(JsonInfoParserTest.toStream(content));
+                for (String key : KEYS) {
+                    found += index.getNonEmpty(key) != null ? 1 : 0;
+                }
+                JsonInfoParser parser = new JsonInfoParser(index);
+                found += parser.extractTrackingUrl() != null ? 1 : 0;
+                found += parser.extractStorySpec() != null ? 1 : 0;
+                found += parser.extractAllSubs() != null ? 1 : 0;
+            }
+            return found;
+        }, ITERATIONS);
+
+        System.out.println(String.format("get_video_info parsing. Before: %s us/response, after: %s us/response",
+                before / contents.length / 1000, after / contents.length / 1000));
+    }
+}
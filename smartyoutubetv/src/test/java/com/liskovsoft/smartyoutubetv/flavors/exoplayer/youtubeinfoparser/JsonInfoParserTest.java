@@ -0,0 +1,199 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser;
+
+import android.net.Uri;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.TypeRef;
+import com.liskovsoft.sharedutils.TestHelpers;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.misc.SimpleYouTubeMediaItem;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.MediaItem;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.Subtitle;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.ParserUtils;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.UrlEncodedIndex;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Compares streaming parser with the previous Uri + JsonPath approach on the captured <em>get_video_info</em> responses
+ */
+@RunWith(RobolectricTestRunner.class)
+public class JsonInfoParserTest {
+    static final String[] VIDEO_INFOS = {
+            "get_video_info_ciphered",
+            "get_video_info_deciphered",
+            "get_video_info_full_hd",
+            "get_video_info_origin",
+            "get_video_info_subs"
+    };
+    static final String[] KEYS = {
+            "player_response", "adaptive_fmts", "url_encoded_fmt_stream_map", "dashmpd", "hlsvp",
+            "length_seconds", "title", "author", "view_count", "timestamp", "status", "missing_key"
+    };
+    private static final String STREAMING_DATA_INFO = "status=ok&player_response=" + encode("{" +
+            "\"videoDetails\":{\"videoId\":\"xyz\",\"keywords\":[\"a\",\"b\"]}," +
+            "\"streamingData\":{\"expiresInSeconds\":\"21540\"," +
+            "\"adaptiveFormats\":[" +
+            "{\"itag\":137,\"url\":\"https://r1.googlevideo.com/videoplayback?itag=137\",\"mimeType\":\"video/mp4; codecs=\\\"avc1.640028\\\"\"," +
+            "\"bitrate\":4336000,\"contentLength\":\"52000000\",\"initRange\":{\"start\":\"0\",\"end\":\"707\"},\"indexRange\":{\"start\":\"708\",\"end\":\"1500\"}}," +
+            "{\"itag\":140,\"cipher\":\"s=abc&sp=sig&url=https%3A%2F%2Fr1.googlevideo.com%2Fvideoplayback%3Fitag%3D140\",\"mimeType\":\"audio/mp4; codecs=\\\"mp4a.40.2\\\"\",\"bitrate\":130000}]," +
+            "\"dashManifestUrl\":\"https://manifest.googlevideo.com/api/manifest/dash/id/xyz\"," +
+            "\"hlsManifestUrl\":\"https://manifest.googlevideo.com/api/manifest/hls_variant/id/xyz\"}," +
+            "\"playbackTracking\":{\"videostatsWatchtimeUrl\":{\"baseUrl\":\"https://s.youtube.com/api/stats/watchtime?docid=xyz\"}}}");
+    private static final String JSON_INFO_DASH_FORMATS = "$.streamingData.adaptiveFormats";
+    private static final String JSON_INFO_DASH_URL = "$.streamingData.dashManifestUrl";
+    private static final String JSON_INFO_HLS_URL = "$.streamingData.hlsManifestUrl";
+    private static final String JSON_INFO_ALL_SUBS = "$.captions.playerCaptionsTracklistRenderer.captionTracks";
+    static final String JSON_INFO_TRACKING_URL = "$.playbackTracking.videostatsWatchtimeUrl.baseUrl";
+    static final String JSON_INFO_STORY_SPEC = "$.storyboards.playerStoryboardSpecRenderer.spec";
+
+    @Test
+    public void indexMatchesUriParser() {
+        for (String name : VIDEO_INFOS) {
+            String content = TestHelpers.readResource(name);
+            UrlEncodedIndex index = UrlEncodedIndex.parse(content);
+            UrlEncodedIndex streamIndex = UrlEncodedIndex.parse(toStream(content));
+            Uri uri = ParserUtils.parseUri(content);
+
+            for (String key : KEYS) {
+                assertEquals(name + ": " + key, uri.getQueryParameter(key), index.get(key));
+                assertEquals(name + ": " + key, uri.getQueryParameter(key), streamIndex.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void decodeMalformedAndUnicodeValues() {
+        UrlEncodedIndex index = UrlEncodedIndex.parse("a=100%&b=%D0%BF%D1%80%D0%B8+%F0%9F%98%80&c=&d&a=2");
+
+        assertEquals("100%", index.get("a"));
+        assertEquals("\u043f\u0440\u0438 \uD83D\uDE00", index.get("b"));
+        assertEquals("", index.get("c"));
+        assertNull(index.getNonEmpty("c"));
+        assertEquals("", index.get("d"));
+        assertNull(index.get("e"));
+    }
+
+    @Test
+    public void streamingParserMatchesJsonPath() {
+        for (String name : VIDEO_INFOS) {
+            String content = TestHelpers.readResource(name);
+            JsonInfoParser parser = new JsonInfoParser(UrlEncodedIndex.parse(toStream(content)));
+            DocumentContext jsonPath = ParserUtils.createJsonInfoParser(ParserUtils.extractParam(content, "player_response"));
+
+            assertEquals(name, ParserUtils.extractString(JSON_INFO_TRACKING_URL, jsonPath), parser.extractTrackingUrl());
+            assertEquals(name, ParserUtils.extractString(JSON_INFO_STORY_SPEC, jsonPath), parser.extractStorySpec());
+
+            List<Subtitle> expectedSubs = readSubs(jsonPath);
+            List<Subtitle> subs = parser.extractAllSubs();
+
+            if (expectedSubs == null) {
+                assertNull(name, subs);
+                continue;
+            }
+
+            assertNotNull(name, subs);
+            assertEquals(name, expectedSubs.size(), subs.size());
+
+            for (int i = 0; i < subs.size(); i++) {
+                assertEquals(name, expectedSubs.get(i).getBaseUrl(), subs.get(i).getBaseUrl());
+                assertEquals(name, expectedSubs.get(i).getLanguageCode(), subs.get(i).getLanguageCode());
+                assertEquals(name, expectedSubs.get(i).getName(), subs.get(i).getName());
+            }
+        }
+    }
+
+    @Test
+    public void streamingParserMatchesJsonPathFormats() {
+        for (String name : VIDEO_INFOS) {
+            assertFormatsMatch(name, TestHelpers.readResource(name));
+        }
+
+        // captured responses are older than streamingData
+        assertFormatsMatch("streaming_data", STREAMING_DATA_INFO);
+        assertEquals(2, new JsonInfoParser(STREAMING_DATA_INFO).extractDashMediaItems().size());
+    }
+
+    private static void assertFormatsMatch(String name, String content) {
+        JsonInfoParser parser = new JsonInfoParser(UrlEncodedIndex.parse(toStream(content)));
+        DocumentContext jsonPath = ParserUtils.createJsonInfoParser(ParserUtils.extractParam(content, "player_response"));
+
+        assertEquals(name, ParserUtils.extractString(JSON_INFO_DASH_URL, jsonPath), parser.extractDashUrl());
+        assertEquals(name, ParserUtils.extractString(JSON_INFO_HLS_URL, jsonPath), parser.extractHlsUrl());
+
+        List<SimpleYouTubeMediaItem> expectedFormats = readFormats(jsonPath);
+        List<MediaItem> formats = parser.extractDashMediaItems();
+
+        if (expectedFormats == null) {
+            assertNull(name, formats);
+            return;
+        }
+
+        assertNotNull(name, formats);
+        assertEquals(name, expectedFormats.size(), formats.size());
+
+        for (int i = 0; i < formats.size(); i++) {
+            MediaItem expected = expectedFormats.get(i);
+            MediaItem format = formats.get(i);
+            assertEquals(name, expected.getITag(), format.getITag());
+            assertEquals(name, expected.getUrl(), format.getUrl());
+            assertEquals(name, expected.getCipher(), format.getCipher());
+            assertEquals(name, expected.getType(), format.getType());
+            assertEquals(name, expected.getBitrate(), format.getBitrate());
+            assertEquals(name, expected.getClen(), format.getClen());
+            assertEquals(name, expected.getIndex(), format.getIndex());
+            assertEquals(name, expected.getInit(), format.getInit());
+        }
+    }
+
+    /**
+     * Previous implementation returned empty list when player_response doesn't contain formats
+     */
+    private static List<SimpleYouTubeMediaItem> readFormats(DocumentContext jsonPath) {
+        if (jsonPath == null) {
+            return null;
+        }
+
+        try {
+            return jsonPath.read(JSON_INFO_DASH_FORMATS, new TypeRef<List<SimpleYouTubeMediaItem>>() {});
+        } catch (PathNotFoundException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    static List<Subtitle> readSubs(DocumentContext jsonPath) {
+        if (jsonPath == null) {
+            return null;
+        }
+
+        try {
+            return jsonPath.read(JSON_INFO_ALL_SUBS, new TypeRef<List<Subtitle>>() {});
+        } catch (PathNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(Charset.forName("UTF-8")));
+    }
+}
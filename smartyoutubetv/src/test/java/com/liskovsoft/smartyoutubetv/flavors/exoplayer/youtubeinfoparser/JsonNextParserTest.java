@@ -0,0 +1,96 @@
+package com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.liskovsoft.sharedutils.TestHelpers;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonNextParser;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonNextParser.VideoMetadata;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonPathTree;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.ParserUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class JsonNextParserTest {
+    private static final String NEXT_RESPONSE = "next_response";
+    private static final String METADATA = "$.contents.singleColumnWatchNextResults.results.results.contents[0].itemSectionRenderer.contents[0]" +
+            ".videoMetadataRenderer";
+    private static final String OWNER = "$.contents.singleColumnWatchNextResults.results.results.contents[1].itemSectionRenderer.contents[0]" +
+            ".videoOwnerRenderer";
+    private static final String[] STRING_PATHS = {
+            METADATA + ".title.runs[0].text",
+            METADATA + ".description.runs[0].text",
+            METADATA + ".videoId",
+            OWNER + ".subscribeButton.subscribeButtonRenderer.channelId",
+            "$.contents.singleColumnWatchNextResults.results.results.contents[2].itemSectionRenderer.contents[19].compactVideoRenderer.videoId",
+            "$.contents.singleColumnWatchNextResults.autoplay.autoplay.sets[0].nextVideoRenderer.maybeHistoryEndpointRenderer.endpoint" +
+                    ".watchEndpoint.videoId",
+            METADATA + ".missing.runs[0].text",
+            METADATA + ".title.runs[1].text"
+    };
+    private static final String BOOL_PATH = OWNER + ".subscribeButton.subscribeButtonRenderer.subscribed";
+
+    @Test
+    public void extractVideoMetadata() {
+        String content = TestHelpers.readResource(NEXT_RESPONSE);
+        VideoMetadata metadata = new JsonNextParser(toStream(content)).extractVideoMetadata();
+
+        assertNotNull(metadata);
+        assertEquals("Big Buck Bunny", metadata.getTitle());
+        assertEquals("Blender Foundation", metadata.getAuthor());
+        assertEquals("1,234,567 views", metadata.getViewCount());
+        assertEquals("Published on May 29, 2010", metadata.getPublishedDate());
+        assertEquals("aqz-KE-bpKQ", metadata.getVideoId());
+        assertEquals("UCSMOQeBJ2RAnuFungnQOxLg", metadata.getChannelId());
+        assertTrue(metadata.isLiked());
+        assertFalse(metadata.isDisliked());
+        assertFalse(metadata.isSubscribed());
+
+        VideoMetadata nextVideo = metadata.getNextVideo();
+
+        assertEquals("Sintel", nextVideo.getTitle());
+        assertEquals("eRsGyueVLvQ", nextVideo.getVideoId());
+        assertNull(nextVideo.getPlaylistId());
+    }
+
+    @Test
+    public void sameResultsAsJsonPath() {
+        String content = TestHelpers.readResource(NEXT_RESPONSE);
+        DocumentContext jsonPath = ParserUtils.createJsonInfoParser(content);
+        String[] paths = new String[STRING_PATHS.length + 1];
+        System.arraycopy(STRING_PATHS, 0, paths, 0, STRING_PATHS.length);
+        paths[STRING_PATHS.length] = BOOL_PATH;
+
+        Map<String, Object> values = new JsonPathTree(paths).read(new StringReader(content));
+
+        for (String path : STRING_PATHS) {
+            assertEquals(path, ParserUtils.extractString(path, jsonPath), values.get(path));
+        }
+
+        assertEquals(ParserUtils.extractBool(BOOL_PATH, jsonPath), values.get(BOOL_PATH));
+    }
+
+    @Test
+    public void malformedResponse() {
+        String content = TestHelpers.readResource(NEXT_RESPONSE);
+
+        assertNull(new JsonNextParser(content.substring(0, 200)).extractVideoMetadata());
+        assertNull(new JsonNextParser("<html></html>").extractVideoMetadata());
+        assertNull(new JsonNextParser((String) null).extractVideoMetadata());
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(Charset.forName("UTF-8")));
+    }
+}
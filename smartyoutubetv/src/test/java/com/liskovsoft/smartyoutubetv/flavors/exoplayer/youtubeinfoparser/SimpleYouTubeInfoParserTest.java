@@ -10,6 +10,8 @@ import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.mpd.MPD
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.mpd.SimpleMPDBuilder;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.JsonInfoParser.Subtitle;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.OnMediaFoundCallback;
+import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.UrlEncodedIndex;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.YouTubeSubParser;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.tmp.SimpleYouTubeInfoParser;
 import com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.tmp.YouTubeInfoParser;
@@ -20,6 +22,8 @@ import org.robolectric.RobolectricTestRunner;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.List;
 
@@ -131,7 +135,7 @@ public class SimpleYouTubeInfoParserTest {
 
     @Test
     public void getAllSubsTest() {
-        String content = TestHelpers.readResource("get_video_info_subs");
+        UrlEncodedIndex content = UrlEncodedIndex.parse(TestHelpers.readResource("get_video_info_subs"));
         YouTubeSubParser parser = new YouTubeSubParser(content, new JsonInfoParser(content));
         List<Subtitle> allSubs = parser.extractAllSubs();
         String formatKey = "fmt=vtt";
@@ -143,7 +147,7 @@ public class SimpleYouTubeInfoParserTest {
 
     @Test
     public void addSubsToMpdTest() {
-        String content = TestHelpers.readResource("get_video_info_subs");
+        UrlEncodedIndex content = UrlEncodedIndex.parse(TestHelpers.readResource("get_video_info_subs"));
         YouTubeSubParser parser = new YouTubeSubParser(content, new JsonInfoParser(content));
         List<Subtitle> allSubs = parser.extractAllSubs();
         MPDBuilder builder = new SimpleMPDBuilder();
@@ -152,4 +156,68 @@ public class SimpleYouTubeInfoParserTest {
         assertEquals(TestHelpers.readResource("mpd_with_one_sub2"), TestHelpers.readStream(builder.build()));
     }
 
+    @Test
+    public void mergeVideoInfoVariantsTest() {
+        String leanback = videoInfo(
+                format("137", "video/mp4; codecs=\"avc1.640028\"", "4000000", "0-0", null), // ranges are missing in this variant
+                format("140", "audio/mp4; codecs=\"mp4a.40.2\"", "128000", "592-1643", "0-591"));
+        String detailPage = videoInfo(
+                format("137", "video/mp4; codecs=\"avc1.640028\"", "4000000", "741-1816", "0-740"),
+                format("140", "audio/mp4; codecs=\"mp4a.40.2\"", "128000", "600-1700", "0-599"), // duplicate of the first variant
+                format("313", "video/webm; codecs=\"vp9\"", "18000000", "219-1034", "0-218")); // 4K is missing in the other variants
+        String embedded = "status=fail&errorcode=150"; // embedding is disabled
+
+        String mpd = parseMpd(leanback, null, detailPage, embedded);
+
+        assertEquals(3, mpd.split("<Representation ").length - 1);
+        assertTrue(mpd.contains("id=\"137\""));
+        assertTrue(mpd.contains("id=\"140\""));
+        assertTrue(mpd.contains("id=\"313\""));
+        assertTrue(mpd.contains("indexRange=\"741-1816\"")); // variant with ranges is preferred
+        assertTrue(mpd.contains("indexRange=\"592-1643\"")); // otherwise first variant wins
+        assertFalse(mpd.contains("indexRange=\"600-1700\""));
+    }
+
+    private static String parseMpd(String... variants) {
+        InputStream[] content = new InputStream[variants.length];
+
+        for (int i = 0; i < variants.length; i++) {
+            content[i] = variants[i] == null ? null : new ByteArrayInputStream(variants[i].getBytes(Charset.forName("UTF8")));
+        }
+
+        String[] result = new String[1];
+
+        new com.liskovsoft.smartyoutubetv.flavors.exoplayer.youtubeinfoparser.parsers.SimpleYouTubeInfoParser(content).parse(new OnMediaFoundCallback() {
+            @Override
+            public void onDashMPDFound(InputStream mpdContent) {
+                result[0] = Helpers.toString(mpdContent);
+            }
+
+            @Override
+            public void onDone() {
+            }
+        });
+
+        assertTrue(result[0] != null);
+
+        return result[0];
+    }
+
+    private static String videoInfo(String... formats) {
+        return "status=ok&length_seconds=605&title=Test&adaptive_fmts=" + encode(String.join(",", formats));
+    }
+
+    private static String format(String itag, String type, String bitrate, String index, String init) {
+        String url = "https://r1---sn-4gxb5u-qo3s.googlevideo.com/videoplayback?itag=" + itag + "&dur=605.433";
+        String format = "itag=" + itag + "&type=" + encode(type) + "&bitrate=" + bitrate + "&index=" + index + "&url=" + encode(url);
+        return init != null ? format + "&init=" + init : format;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
\ No newline at end of file
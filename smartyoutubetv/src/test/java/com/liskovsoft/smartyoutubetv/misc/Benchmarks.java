@@ -0,0 +1,45 @@
+package com.liskovsoft.smartyoutubetv.misc;
+
+/**
+ * Minimal harness for the benchmarks in unit tests: warm-up pass, then timed pass<br/>
+ * Nothing is asserted, timings depend on the machine. Benchmark classes (*Benchmark) are excluded
+ * from the default test run: <code>gradlew test -Pbenchmarks</code>
+ */
+public final class Benchmarks {
+    /**
+     * Results are consumed here, so JIT can't drop the measured code
+     */
+    private static volatile int sBlackhole;
+
+    public interface Iteration {
+        int run();
+    }
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @return average iteration time in ns
+     */
+    public static long measure(String name, Iteration iteration, int iterations) {
+        int blackhole = 0;
+
+        for (int i = 0; i < iterations; i++) { // warm-up
+            blackhole += iteration.run();
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            blackhole += iteration.run();
+        }
+
+        long result = (System.nanoTime() - start) / iterations;
+
+        sBlackhole += blackhole;
+
+        System.out.println(String.format("%s: %s ns/op", name, result));
+
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.liskovsoft.smartyoutubetv.misc;
+
+import com.liskovsoft.smartyoutubetv.misc.TrackingJournal.Ping;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class TrackingJournalTest {
+    private static final String PING_URL = "https://www.youtube.com/api/stats/watchtime?docid=%s&cpn=%s&cmt=%s";
+    private static final long NOW_MS = 1_000_000_000_000L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000;
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mFile = new File(mFolder.getRoot(), "tracking_journal");
+    }
+
+    @Test
+    public void testSupersededPingsAreCollapsed() {
+        TrackingJournal journal = new TrackingJournal(mFile, NOW_MS);
+        journal.add(Ping.create(url("video1", "cpn1", 10), true, NOW_MS));
+        journal.add(Ping.create(url("video2", "cpn2", 5), true, NOW_MS));
+        journal.add(Ping.create(url("video1", "cpn1", 20), true, NOW_MS));
+
+        List<Ping> pings = journal.peek(10);
+
+        assertEquals(2, pings.size());
+        assertEquals(url("video2", "cpn2", 5), pings.get(0).getUrl());
+        assertEquals(url("video1", "cpn1", 20), pings.get(1).getUrl());
+    }
+
+    @Test
+    public void testPingsAreRestored() {
+        TrackingJournal journal = new TrackingJournal(mFile, NOW_MS);
+        journal.add(Ping.create(url("video1", "cpn1", 10), true, NOW_MS));
+        journal.add(Ping.create(url("video1", "cpn1", 20), false, NOW_MS));
+
+        TrackingJournal restored = new TrackingJournal(mFile, NOW_MS);
+        List<Ping> pings = restored.peek(10);
+
+        assertEquals(1, pings.size());
+        assertEquals(url("video1", "cpn1", 20), pings.get(0).getUrl());
+        assertFalse(pings.get(0).isWithCookie());
+    }
+
+    @Test
+    public void testPingSupersededWhileSendingIsKept() {
+        TrackingJournal journal = new TrackingJournal(mFile, NOW_MS);
+        journal.add(Ping.create(url("video1", "cpn1", 10), true, NOW_MS));
+
+        List<Ping> sending = journal.peek(10);
+        journal.add(Ping.create(url("video1", "cpn1", 20), true, NOW_MS));
+        journal.remove(sending);
+
+        assertEquals(1, journal.size());
+        assertEquals(url("video1", "cpn1", 20), journal.peek(10).get(0).getUrl());
+        assertEquals(1, new TrackingJournal(mFile, NOW_MS).size());
+
+        journal.remove(journal.peek(10));
+
+        assertTrue(journal.isEmpty());
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void testExpiredAndMalformedLinesAreSkipped() throws IOException {
+        try (Writer writer = new FileWriter(mFile)) {
+            writer.write((NOW_MS - 3 * DAY_MS) + "\t1\t" + url("video1", "cpn1", 10) + "\n");
+            writer.write(NOW_MS + "\t1\t" + url("video2", "cpn2", 10) + "\n");
+            writer.write("broken line\n");
+            writer.write(NOW_MS + "\t1"); // app is killed while writing
+        }
+
+        TrackingJournal journal = new TrackingJournal(mFile, NOW_MS);
+
+        assertEquals(1, journal.size());
+        assertEquals(url("video2", "cpn2", 10), journal.peek(10).get(0).getUrl());
+    }
+
+    private static String url(String docId, String cpn, int position) {
+        return String.format(PING_URL, docId, cpn, position);
+    }
+}
@@ -0,0 +1,44 @@
+package com.liskovsoft.smartyoutubetv.misc.adblock;
+
+import com.liskovsoft.smartyoutubetv.misc.Benchmarks;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+/**
+ * Compiled matcher vs linear search over the generated 50k rules list, see {@link Benchmarks}
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AdBlockMatcherBenchmark {
+    private static final int RULES_COUNT = 50_000;
+
+    @Test
+    public void benchmark50kRules() {
+        List<String> rules = AdBlockMatcherTest.generateRules(RULES_COUNT);
+        List<String> urls = AdBlockMatcherTest.generateUrls(rules);
+
+        Benchmarks.measure("Compile 50k rules", () -> AdBlockMatcherTest.toMatcher(rules).isAd(urls.get(0)) ? 1 : 0, 5);
+
+        AdBlockMatcher matcher = AdBlockMatcherTest.toMatcher(rules);
+
+        long compiled = Benchmarks.measure("Compiled matcher, all urls", () -> {
+            int found = 0;
+            for (String url : urls) {
+                found += matcher.isAd(url) ? 1 : 0;
+            }
+            return found;
+        }, 20);
+
+        long linear = Benchmarks.measure("Linear search, all urls", () -> {
+            int found = 0;
+            for (String url : urls) {
+                found += AdBlockMatcherTest.isAdLinear(rules, url) ? 1 : 0;
+            }
+            return found;
+        }, 1);
+
+        System.out.println(String.format("Compiled matcher: %s ns/url, linear search: %s ns/url", compiled / urls.size(), linear / urls.size()));
+    }
+}
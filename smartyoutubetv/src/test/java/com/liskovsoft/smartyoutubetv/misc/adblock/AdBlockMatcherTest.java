@@ -0,0 +1,152 @@
+package com.liskovsoft.smartyoutubetv.misc.adblock;
+
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdBlockMatcherTest {
+    private static final String[] PROPERTIES_RULES = {
+            "youtube.com/api/stats/ads",
+            "doubleclick.net",
+            "adservice.google",
+            "youtube.com/get_video_info*AdSense-Viral",
+            "youtube.com/pagead/"
+    };
+    private static final String HOSTS_FILE = "# AdAway hosts file\n" +
+            "127.0.0.1 localhost\n" +
+            "::1 localhost\n" +
+            "0.0.0.0 ads.example.com\n" +
+            "127.0.0.1 tracker.example.org metrics.example.org # inline comment\n" +
+            "||banners.example.net^\n";
+    private static final String[] URLS = {
+            "https://www.youtube.com/api/stats/ads?ver=2&ns=yt",
+            "https://googleads.g.doubleclick.net/pagead/id",
+            "https://adservice.google.ca/adsid/integrator.js",
+            "https://www.youtube.com/get_video_info?html5=1&video_id=xyz&el=AdSense-Viral",
+            "https://www.youtube.com/get_video_info?html5=1&video_id=xyz&el=leanback",
+            "https://www.youtube.com/tv#/watch/video/control?v=xyz",
+            "https://r3---sn-4g5e6nsz.googlevideo.com/videoplayback?expire=1555&itag=137",
+            "https://www.youtube.com/s/tv/html5/loader.js",
+            "https://i.ytimg.com/vi/xyz/hqdefault.jpg"
+    };
+
+    @Test
+    public void substringRules() {
+        AdBlockMatcher matcher = new AdBlockMatcher.Builder().addRules(PROPERTIES_RULES).build();
+
+        assertTrue(matcher.isAd(URLS[0]));
+        assertTrue(matcher.isAd(URLS[1]));
+        assertTrue(matcher.isAd(URLS[2]));
+        assertTrue(matcher.isAd(URLS[3]));
+        assertFalse(matcher.isAd(URLS[4]));
+        assertFalse(matcher.isAd(URLS[5]));
+        assertFalse(matcher.isAd(URLS[6]));
+    }
+
+    @Test
+    public void hostsFileRules() {
+        AdBlockMatcher matcher = new AdBlockMatcher.Builder().addRules(toStream(HOSTS_FILE)).build();
+
+        assertTrue(matcher.isAd("https://ads.example.com/banner.png"));
+        assertTrue(matcher.isAd("http://sub.ads.example.com:8080/banner.png"));
+        assertTrue(matcher.isAd("https://Metrics.Example.org/collect"));
+        assertTrue(matcher.isAd("https://tracker.example.org"));
+        assertTrue(matcher.isAd("https://cdn.banners.example.net/1.gif"));
+        assertFalse(matcher.isAd("https://badads.example.com/banner.png"));
+        assertFalse(matcher.isAd("https://example.com/ads.example.com"));
+        assertFalse(matcher.isAd("http://localhost:8080/ads"));
+    }
+
+    @Test
+    public void sameResultsAsLinearSearch() {
+        List<String> rules = generateRules(5_000);
+        AdBlockMatcher matcher = toMatcher(rules);
+
+        for (String url : generateUrls(rules)) {
+            assertEquals(url, isAdLinear(rules, url), matcher.isAd(url));
+        }
+    }
+
+    @Test
+    public void wildcardRulesWithSameFirstSegment() {
+        AdBlockMatcher matcher = new AdBlockMatcher.Builder()
+                .addRules(new String[]{"youtube.com/get_video_info*AdSense-Viral", "youtube.com/get_video_info*adformat="})
+                .build();
+
+        assertTrue(matcher.isAd("https://www.youtube.com/get_video_info?video_id=xyz&el=AdSense-Viral"));
+        assertTrue(matcher.isAd("https://www.youtube.com/get_video_info?video_id=xyz&adformat=15_2_1"));
+        assertFalse(matcher.isAd("https://www.youtube.com/get_video_info?video_id=xyz&el=leanback"));
+    }
+
+    static List<String> generateRules(int count) {
+        List<String> rules = new ArrayList<>(count);
+
+        for (String rule : PROPERTIES_RULES) {
+            rules.add(rule);
+        }
+
+        for (int i = 0; rules.size() < count; i++) {
+            if (i % 100 == 0) {
+                rules.add(String.format("/ads/banner%s/", i));
+            } else {
+                rules.add(String.format("0.0.0.0 ad%s.tracker%s.com", i, i % 997));
+            }
+        }
+
+        return rules;
+    }
+
+    static List<String> generateUrls(List<String> rules) {
+        List<String> urls = new ArrayList<>();
+
+        for (String url : URLS) {
+            urls.add(url);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            urls.add(String.format("https://ad%s.tracker%s.com/pixel.gif", i * 37, (i * 37) % 997));
+            urls.add(String.format("https://cdn%s.tracker%s.com/pixel.gif", i, i % 997));
+            urls.add(String.format("https://www.youtube.com/ads/banner%s/img.png", i * 100));
+            urls.add(String.format("https://r%s---sn-4g5e6nsz.googlevideo.com/videoplayback?id=%s&itag=137&source=youtube", i % 10, i));
+        }
+
+        return urls;
+    }
+
+    static AdBlockMatcher toMatcher(List<String> rules) {
+        return new AdBlockMatcher.Builder().addRules(rules.toArray(new String[0])).build();
+    }
+
+    /**
+     * Old implementation: every rule is checked against the url
+     */
+    static boolean isAdLinear(List<String> rules, String url) {
+        for (String rule : rules) {
+            if (rule.startsWith("0.0.0.0 ")) {
+                String host = rule.substring(8);
+                if (url.contains("://" + host + "/") || url.contains("." + host + "/")) {
+                    return true;
+                }
+            } else if (Helpers.matchSubstr(url, rule)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,91 @@
+package com.liskovsoft.smartyoutubetv.webscripts;
+
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class ScriptMinifierTest {
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void stripCommentsAndIndents() {
+        String script = "// header\n" +
+                "var a = 1;   /* inline */ var b = 2;\n" +
+                "\n" +
+                "    function test() {\n" +
+                "        /* multi\n" +
+                "           line */\n" +
+                "        return a\n" +
+                "    }\n";
+
+        assertEquals("var a = 1; var b = 2;\nfunction test() {\nreturn a\n}\n", ScriptMinifier.minifyJS(script));
+    }
+
+    @Test
+    public void keepLiterals() {
+        String script = "var url = 'http://youtube.com/tv'; // comment\n" +
+                "var re = /\\/\\/[a-z/*]+/g;\n" +
+                "var half = a / 2 / b; // comment\n" +
+                "var text = `line1\n" +
+                "    // not a comment ${ {a: '}'}['a'] } /* too */`;\n";
+
+        assertEquals("var url = 'http://youtube.com/tv';\n" +
+                "var re = /\\/\\/[a-z/*]+/g;\n" +
+                "var half = a / 2 / b;\n" +
+                "var text = `line1\n" +
+                "    // not a comment ${ {a: '}'}['a'] } /* too */`;\n", ScriptMinifier.minifyJS(script));
+    }
+
+    @Test
+    public void minifyStyles() {
+        String styles = "/* player */\n" +
+                ".player :hover,\n" +
+                ".title {\n" +
+                "    content: \"a  /* b */\";\n" +
+                "    color: red;\n" +
+                "}\n";
+
+        assertEquals(".player :hover, .title{content: \"a  /* b */\";color: red;}\n", ScriptMinifier.minifyCSS(styles));
+    }
+
+    @Test
+    public void bundleRoundTrip() throws IOException {
+        File file = new File(mFolder.getRoot(), "scripts.bundle");
+
+        MappedScriptBundle bundle = MappedScriptBundle.create(file, "var a = 'тест';\n", null, ".a{}\n");
+
+        assertNotNull(bundle);
+        assertEquals("var a = 'тест';\n", Helpers.toString(bundle.getPart(MappedScriptBundle.ON_INIT_SCRIPTS)));
+        assertNull(bundle.getPart(MappedScriptBundle.ON_LOAD_SCRIPTS));
+
+        // every stream reads from the start
+        InputStream first = bundle.getPart(MappedScriptBundle.STYLES);
+        assertEquals('.', first.read());
+        assertEquals(".a{}\n", Helpers.toString(bundle.getPart(MappedScriptBundle.STYLES)));
+
+        MappedScriptBundle reopened = MappedScriptBundle.open(file);
+        assertNotNull(reopened);
+        assertEquals(".a{}\n", Helpers.toString(reopened.getPart(MappedScriptBundle.STYLES)));
+    }
+
+    @Test
+    public void brokenBundle() throws IOException {
+        File file = mFolder.newFile("broken.bundle");
+
+        assertNull(MappedScriptBundle.open(file));
+        assertNull(MappedScriptBundle.open(new File(mFolder.getRoot(), "missing.bundle")));
+    }
+}